@@ -2,32 +2,112 @@ package com.example.account_server.controller;
 
 
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 //import javax.validation.Valid;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.example.account_server.model.Account;
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.dto.AccountPage;
+import com.example.account_server.dto.BalanceDelta;
 import com.example.account_server.dto.BalanceUpdateRequest;
+import com.example.account_server.dto.ImportSummary;
+import com.example.account_server.dto.TransferRequest;
+import com.example.account_server.service.AccountBatchService;
+import com.example.account_server.service.AccountExportService;
+import com.example.account_server.service.AccountImportService;
 import com.example.account_server.service.AccountService;
+import com.example.account_server.service.AccountTransferService;
+import com.example.account_server.service.BatchInProgressException;
+import com.example.account_server.service.BalanceUpdateCoalescer;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final AccountService service;
+    private final BalanceUpdateCoalescer coalescer;
+    private final AccountBatchService batchService;
+    private final AccountExportService exportService;
+    private final AccountImportService importService;
+    private final AccountTransferService transferService;
 
-    public AccountController(AccountService service) {
+    public AccountController(AccountService service, BalanceUpdateCoalescer coalescer,
+                             AccountBatchService batchService, AccountExportService exportService,
+                             AccountImportService importService, AccountTransferService transferService) {
         this.service = service;
+        this.coalescer = coalescer;
+        this.batchService = batchService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.transferService = transferService;
     }
 
     // Create Account
     @PostMapping
-    public ResponseEntity<Account> create(@jakarta.validation.Valid @RequestBody Account account) {
-        Account created = service.createAccount(account);
-        return ResponseEntity.created(URI.create("/api/accounts/" + created.getAccountNumber())).body(created);
+    public ResponseEntity<?> create(@jakarta.validation.Valid @RequestBody Account account) {
+        try {
+            Account created = service.createAccount(account);
+            return ResponseEntity.created(URI.create("/api/accounts/" + created.getAccountNumber())).body(created);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // Import Accounts from an NDJSON or CSV (with header row) body; bad rows are reported, not fatal
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<?> importAccounts(HttpServletRequest request) throws IOException {
+        AccountImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? AccountImportService.Format.NDJSON
+                : AccountImportService.Format.CSV;
+        try {
+            ImportSummary summary = importService.importAccounts(request.getInputStream(), format);
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // List Accounts (keyset pagination on accountNumber; optional active / minBalance / maxBalance)
+    @GetMapping
+    public ResponseEntity<AccountPage> list(AccountFilter filter,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(service.listAccounts(filter, after, pageSize));
+    }
+
+    // Export Accounts as NDJSON, streamed from a Mongo cursor (same filters as list)
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(AccountFilter filter) {
+        StreamingResponseBody body = out -> exportService.exportNdjson(filter, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Search by holder name prefix (case-insensitive), paged with the returned nextCursor
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String prefix,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try {
+            return ResponseEntity.ok(service.searchByHolderName(prefix, after, pageSize));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(503).body(Map.of("error", ex.getMessage()));
+        }
     }
 
     // Get Account
@@ -43,7 +123,9 @@ public class AccountController {
     public ResponseEntity<?> updateBalance(@PathVariable String accountNumber,
                                            @jakarta.validation.Valid @RequestBody BalanceUpdateRequest req) {
         try {
-            Account updated = service.updateBalance(accountNumber, req.getAmount());
+            Account updated = coalescer.handles(accountNumber)
+                    ? coalescer.updateBalance(accountNumber, req.getAmount())
+                    : service.updateBalance(accountNumber, req.getAmount());
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException | IllegalStateException ex) {
             return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
@@ -52,6 +134,30 @@ public class AccountController {
         }
     }
 
+    // Apply many balance deltas at once; one status per item, in request order
+    // Optional Batch-Id makes the call safe to repeat: a known id returns the first call's results
+    @PostMapping("/balances:batch")
+    public ResponseEntity<?> updateBalances(@RequestHeader(value = "Batch-Id", required = false) String batchId,
+                                            @RequestBody List<BalanceDelta> items) {
+        try {
+            return ResponseEntity.ok(batchService.updateBalances(items, batchId));
+        } catch (BatchInProgressException ex) {
+            return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // Move funds between two accounts in one request (see AccountTransferService for the modes)
+    @PostMapping("/transfer")
+    public ResponseEntity<?> transfer(@jakarta.validation.Valid @RequestBody TransferRequest req) {
+        try {
+            return ResponseEntity.ok(transferService.transfer(req.getSourceAccount(), req.getDestinationAccount(), req.getAmount()));
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
     // Activate / Deactivate
     @PutMapping("/{accountNumber}/status")
     public ResponseEntity<?> updateStatus(@PathVariable String accountNumber, @RequestParam boolean active) {
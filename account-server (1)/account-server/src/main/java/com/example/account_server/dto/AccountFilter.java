@@ -0,0 +1,18 @@
+package com.example.account_server.dto;
+
+
+// Optional filters for listing / exporting accounts, bound from query parameters
+public class AccountFilter {
+    private Boolean active;
+    private Long minBalance; // inclusive, minor units
+    private Long maxBalance; // inclusive, minor units
+
+    public AccountFilter() {}
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    public Long getMinBalance() { return minBalance; }
+    public void setMinBalance(Long minBalance) { this.minBalance = minBalance; }
+    public Long getMaxBalance() { return maxBalance; }
+    public void setMaxBalance(Long maxBalance) { this.maxBalance = maxBalance; }
+}
@@ -0,0 +1,21 @@
+package com.example.account_server.dto;
+
+
+import java.util.List;
+import com.example.account_server.model.Account;
+
+public class AccountPage {
+    private List<Account> items;
+    private String nextCursor; // pass as ?after= to get the next page; null on the last page
+
+    public AccountPage() {}
+    public AccountPage(List<Account> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Account> getItems() { return items; }
+    public void setItems(List<Account> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
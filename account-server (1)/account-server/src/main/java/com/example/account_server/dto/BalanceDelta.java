@@ -0,0 +1,18 @@
+package com.example.account_server.dto;
+
+
+public class BalanceDelta {
+    private String accountNumber;
+    private Long amount; // positive or negative delta, in minor units
+
+    public BalanceDelta() {}
+    public BalanceDelta(String accountNumber, Long amount) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+}
@@ -0,0 +1,28 @@
+package com.example.account_server.dto;
+
+
+public class BalanceDeltaResult {
+    public static final String APPLIED = "APPLIED";
+    public static final String INVALID = "INVALID";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INACTIVE = "INACTIVE";
+    public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+
+    private String accountNumber;
+    private Long amount;
+    private String status;
+
+    public BalanceDeltaResult() {}
+    public BalanceDeltaResult(String accountNumber, Long amount, String status) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.status = status;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -5,11 +5,11 @@ import jakarta.validation.constraints.NotNull;
 
 public class BalanceUpdateRequest {
     @NotNull
-    private Double amount; // positive or negative delta
+    private Long amount; // positive or negative delta, in minor units
 
     public BalanceUpdateRequest() {}
-    public BalanceUpdateRequest(Double amount) { this.amount = amount; }
+    public BalanceUpdateRequest(Long amount) { this.amount = amount; }
 
-    public Double getAmount() { return amount; }
-    public void setAmount(Double amount) { this.amount = amount; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
 }
@@ -0,0 +1,46 @@
+package com.example.account_server.dto;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportSummary {
+    private long received;
+    private long inserted;
+    private long failed;
+    private boolean errorsTruncated; // true when more rows failed than are listed in errors
+    private List<RowError> errors = new ArrayList<>();
+
+    public ImportSummary() {}
+
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        private long line;           // line number in the uploaded file, 1-based
+        private String accountNumber;
+        private String error;
+
+        public RowError() {}
+        public RowError(long line, String accountNumber, String error) {
+            this.line = line;
+            this.accountNumber = accountNumber;
+            this.error = error;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+        public String getAccountNumber() { return accountNumber; }
+        public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.account_server.dto;
+
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class TransferRequest {
+    @NotBlank
+    private String sourceAccount;
+    @NotBlank
+    private String destinationAccount;
+    @NotNull
+    @Positive
+    private Long amount; // minor units
+
+    public TransferRequest() {}
+    public TransferRequest(String sourceAccount, String destinationAccount, Long amount) {
+        this.sourceAccount = sourceAccount;
+        this.destinationAccount = destinationAccount;
+        this.amount = amount;
+    }
+
+    public String getSourceAccount() { return sourceAccount; }
+    public void setSourceAccount(String sourceAccount) { this.sourceAccount = sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public void setDestinationAccount(String destinationAccount) { this.destinationAccount = destinationAccount; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+}
@@ -0,0 +1,31 @@
+package com.example.account_server.dto;
+
+
+public class TransferResult {
+    private String sourceAccount;
+    private String destinationAccount;
+    private long amount;
+    private long sourceBalance;       // balances right after the transfer, minor units
+    private long destinationBalance;
+
+    public TransferResult() {}
+    public TransferResult(String sourceAccount, String destinationAccount, long amount,
+                          long sourceBalance, long destinationBalance) {
+        this.sourceAccount = sourceAccount;
+        this.destinationAccount = destinationAccount;
+        this.amount = amount;
+        this.sourceBalance = sourceBalance;
+        this.destinationBalance = destinationBalance;
+    }
+
+    public String getSourceAccount() { return sourceAccount; }
+    public void setSourceAccount(String sourceAccount) { this.sourceAccount = sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public void setDestinationAccount(String destinationAccount) { this.destinationAccount = destinationAccount; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+    public long getSourceBalance() { return sourceBalance; }
+    public void setSourceBalance(long sourceBalance) { this.sourceBalance = sourceBalance; }
+    public long getDestinationBalance() { return destinationBalance; }
+    public void setDestinationBalance(long destinationBalance) { this.destinationBalance = destinationBalance; }
+}
@@ -0,0 +1,50 @@
+package com.example.account_server.job;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Progress of the accrual run for one business date. The range boundaries are fixed when the
+ * run starts so that a restart resumes over the same ranges.
+ */
+@Document(collection = "accrual_checkpoints")
+public class AccrualCheckpoint {
+
+    @Id
+    private String businessDate;            // ISO date, eg. 2024-05-31
+
+    // Range i covers lowerBounds[i] <= accountNumber < lowerBounds[i + 1]; the first bound is ""
+    private List<String> lowerBounds = new ArrayList<>();
+
+    private List<Integer> completedRanges = new ArrayList<>();
+
+    private long accountsUpdated;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    public AccrualCheckpoint() {}
+
+    public AccrualCheckpoint(String businessDate, List<String> lowerBounds, Instant startedAt) {
+        this.businessDate = businessDate;
+        this.lowerBounds = lowerBounds;
+        this.startedAt = startedAt;
+    }
+
+    public String getBusinessDate() { return businessDate; }
+    public void setBusinessDate(String businessDate) { this.businessDate = businessDate; }
+    public List<String> getLowerBounds() { return lowerBounds; }
+    public void setLowerBounds(List<String> lowerBounds) { this.lowerBounds = lowerBounds; }
+    public List<Integer> getCompletedRanges() { return completedRanges; }
+    public void setCompletedRanges(List<Integer> completedRanges) { this.completedRanges = completedRanges; }
+    public long getAccountsUpdated() { return accountsUpdated; }
+    public void setAccountsUpdated(long accountsUpdated) { this.accountsUpdated = accountsUpdated; }
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
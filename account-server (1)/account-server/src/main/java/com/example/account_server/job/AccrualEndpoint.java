@@ -0,0 +1,39 @@
+package com.example.account_server.job;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/accrual} shows the progress of the current or last accrual run;
+ * {@code POST /actuator/accrual} (optional {@code businessDate}, default today) starts or resumes one.
+ */
+@Component
+@Endpoint(id = "accrual")
+public class AccrualEndpoint {
+
+    private final InterestAccrualJob job;
+
+    public AccrualEndpoint(InterestAccrualJob job) {
+        this.job = job;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return job.progress();
+    }
+
+    @WriteOperation
+    public Map<String, Object> run(@Nullable String businessDate) {
+        LocalDate date = businessDate == null ? job.today() : LocalDate.parse(businessDate);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("businessDate", date.toString());
+        body.put("started", job.start(date));
+        return body;
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.account_server.job;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.account_server.service.AccountCache;
+
+/**
+ * End-of-day interest / fee accrual over all active accounts.
+ *
+ * The collection is split into accountNumber ranges of about {@code range-size} accounts, the
+ * ranges run in parallel on a fork-join pool, and each range applies its updates in unordered
+ * bulk writes. Every write is guarded by {@code lastAccrualDate < businessDate} (or no
+ * lastAccrualDate yet), so an account is accrued at most once per date, and never for a date
+ * older than one it was already accrued for, no matter how often the job is run; the
+ * checkpoint in {@code accrual_checkpoints} only lets a restarted run skip finished ranges.
+ *
+ * Daily delta = round_half_even(balance * annualRateBps / 10000 / daysInYear) - dailyFee. It is
+ * computed by the update itself (a pipeline in decimal arithmetic) from the balance at the time
+ * of the write, so a deposit that lands between the scan and the write earns interest too.
+ * A negative delta is only applied while it does not take the balance below zero.
+ *
+ * Only one node runs the job at a time: a run holds a lease on a document in {@code job_locks}
+ * and renews it after every write batch. Every replica fires the cron; the ones that do not get
+ * the lease skip the run.
+ */
+@Component
+public class InterestAccrualJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InterestAccrualJob.class);
+
+    private static final String ACCOUNTS = "accounts";
+    private static final String LOCKS = "job_locks";
+    private static final String LOCK_ID = "interest-accrual";
+    static final String LAST_ACCRUAL_FIELD = "lastAccrualDate";
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    private final MongoTemplate mongoTemplate;
+    private final AccountCache cache;
+    private final boolean enabled;
+    private final ZoneId zone;
+    private final long annualRateBps;
+    private final long dailyFee;
+    private final int daysInYear;
+    private final int rangeSize;
+    private final int writeBatchSize;
+    private final Duration lockLease;
+    private final String owner = UUID.randomUUID().toString(); // this node, as holder of the lock
+    private final ForkJoinPool pool;
+    private final ExecutorService launcher;
+    private final Counter accrued;
+    private final Counter skipped;
+    private final Timer rangeTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress = new Progress(null);
+
+    public InterestAccrualJob(MongoTemplate mongoTemplate, AccountCache cache, MeterRegistry registry,
+                              @Value("${accounts.accrual.enabled:false}") boolean enabled,
+                              @Value("${accounts.accrual.zone:UTC}") ZoneId zone,
+                              @Value("${accounts.accrual.annual-rate-bps:0}") long annualRateBps,
+                              @Value("${accounts.accrual.daily-fee:0}") long dailyFee,
+                              @Value("${accounts.accrual.days-in-year:365}") int daysInYear,
+                              @Value("${accounts.accrual.range-size:10000}") int rangeSize,
+                              @Value("${accounts.accrual.write-batch-size:1000}") int writeBatchSize,
+                              @Value("${accounts.accrual.parallelism:4}") int parallelism,
+                              @Value("${accounts.accrual.lock-lease:5m}") Duration lockLease) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = cache;
+        this.enabled = enabled;
+        this.zone = zone;
+        this.annualRateBps = annualRateBps;
+        this.dailyFee = dailyFee;
+        this.daysInYear = daysInYear;
+        this.rangeSize = rangeSize;
+        this.writeBatchSize = writeBatchSize;
+        this.lockLease = lockLease;
+        this.pool = new ForkJoinPool(parallelism);
+        this.launcher = Executors.newSingleThreadExecutor(r -> new Thread(r, "accrual-launcher"));
+        this.accrued = Counter.builder("accounts.accrual.accounts")
+                .tag("result", "accrued")
+                .description("Accounts accrued by the end-of-day job")
+                .register(registry);
+        this.skipped = Counter.builder("accounts.accrual.accounts")
+                .tag("result", "skipped")
+                .description("Accounts in a range that were not accrued (already done, or fee exceeds balance)")
+                .register(registry);
+        this.rangeTimer = Timer.builder("accounts.accrual.range")
+                .description("Time to accrue one accountNumber range")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${accounts.accrual.cron:0 30 23 * * *}", zone = "${accounts.accrual.zone:UTC}")
+    public void scheduledRun() {
+        if (enabled) {
+            run(today());
+        }
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    /** Starts a run in the background; false when a run is already in progress on this node. */
+    public boolean start(LocalDate businessDate) {
+        if (running.get()) {
+            return false;
+        }
+        launcher.execute(() -> run(businessDate));
+        return true;
+    }
+
+    /**
+     * Runs (or resumes) the accrual for {@code businessDate} and blocks until it ends. Returns
+     * RUNNING without doing anything when a run is already in progress on this or another node.
+     */
+    public State run(LocalDate businessDate) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Accrual already running, not starting another for {}", businessDate);
+            return State.RUNNING;
+        }
+        String date = businessDate.toString();
+        boolean locked = false;
+        Progress p = null;
+        try {
+            locked = acquireLock();
+            if (!locked) {
+                log.info("Accrual is running on another node, not starting another for {}", date);
+                return State.RUNNING;
+            }
+            p = new Progress(date);
+            progress = p;
+            AccrualCheckpoint checkpoint = loadOrCreateCheckpoint(date);
+            List<String> bounds = checkpoint.getLowerBounds();
+            Set<Integer> done = new HashSet<>(checkpoint.getCompletedRanges());
+            p.rangesTotal = bounds.size();
+            p.rangesDone.set(done.size());
+            Progress current = p;
+
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < bounds.size(); i++) {
+                if (done.contains(i)) {
+                    continue;
+                }
+                int range = i;
+                String lower = bounds.get(i);
+                String upper = i + 1 < bounds.size() ? bounds.get(i + 1) : null;
+                tasks.add(() -> runRange(date, range, lower, upper, current));
+            }
+            log.info("Accrual for {}: {} of {} ranges to process", date, tasks.size(), bounds.size());
+
+            boolean failed = false;
+            for (Future<Long> f : pool.invokeAll(tasks)) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    failed = true;
+                    log.error("Accrual range failed for {}; it will be retried on the next run", date, ex.getCause());
+                }
+            }
+            if (failed) {
+                p.finish(State.FAILED);
+                return State.FAILED;
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(date)),
+                    new Update().set("finishedAt", Instant.now()), AccrualCheckpoint.class);
+            p.finish(State.COMPLETED);
+            log.info("Accrual for {} completed: {} accounts in {}", date, p.accountsUpdated.get(), p.elapsed());
+            return State.COMPLETED;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return failed(p);
+        } catch (RuntimeException ex) {
+            log.error("Accrual for {} failed", date, ex);
+            return failed(p);
+        } finally {
+            if (locked) {
+                releaseLock();
+            }
+            running.set(false);
+        }
+    }
+
+    // p is null when the run failed before it started, so the last run's progress is left alone
+    private static State failed(Progress p) {
+        if (p != null) {
+            p.finish(State.FAILED);
+        }
+        return State.FAILED;
+    }
+
+    // Takes the lock if it is free, expired or already ours. When another node holds it the
+    // upsert does not match and tries to insert a second document with the same _id.
+    boolean acquireLock() {
+        Instant now = Instant.now();
+        Query free = Query.query(Criteria.where("_id").is(LOCK_ID)
+                .orOperator(Criteria.where("lockedUntil").lt(now), Criteria.where("owner").is(owner)));
+        try {
+            mongoTemplate.upsert(free, new Update().set("owner", owner).set("lockedUntil", now.plus(lockLease)), LOCKS);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    private void renewLock() {
+        Query ours = Query.query(Criteria.where("_id").is(LOCK_ID).and("owner").is(owner));
+        if (mongoTemplate.updateFirst(ours, new Update().set("lockedUntil", Instant.now().plus(lockLease)), LOCKS)
+                .getMatchedCount() == 0) {
+            throw new IllegalStateException("Lost the accrual lock to another node");
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(LOCK_ID).and("owner").is(owner)), LOCKS);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release the accrual lock; it expires in {}", lockLease, ex);
+        }
+    }
+
+    public Map<String, Object> progress() {
+        return progress.toMap();
+    }
+
+    private AccrualCheckpoint loadOrCreateCheckpoint(String date) {
+        AccrualCheckpoint existing = mongoTemplate.findById(date, AccrualCheckpoint.class);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            return mongoTemplate.insert(new AccrualCheckpoint(date, splitIntoRanges(), Instant.now()));
+        } catch (DuplicateKeyException ex) {
+            // another node created it first; use its ranges
+            return mongoTemplate.findById(date, AccrualCheckpoint.class);
+        }
+    }
+
+    // Walks the accountNumber index (covered query) and keeps every rangeSize-th key as a boundary.
+    private List<String> splitIntoRanges() {
+        Query keys = new Query().with(Sort.by(Sort.Direction.ASC, "accountNumber"));
+        keys.fields().include("accountNumber").exclude("_id");
+        keys.cursorBatchSize(10_000);
+        List<String> bounds = new ArrayList<>();
+        bounds.add("");
+        long n = 0;
+        try (Stream<Document> stream = mongoTemplate.stream(keys, Document.class, ACCOUNTS)) {
+            Iterator<Document> it = stream.iterator();
+            while (it.hasNext()) {
+                String key = it.next().getString("accountNumber");
+                if (n > 0 && n % rangeSize == 0) {
+                    bounds.add(key);
+                }
+                n++;
+            }
+        }
+        return bounds;
+    }
+
+    private long runRange(String date, int range, String lower, String upper, Progress p) {
+        return rangeTimer.record(() -> {
+            Criteria key = Criteria.where("accountNumber").gte(lower);
+            if (upper != null) {
+                key = key.lt(upper);
+            }
+            Query query = Query.query(key.and("active").is(true).and(LAST_ACCRUAL_FIELD).not().gte(date));
+            query.fields().include("accountNumber");
+            query.cursorBatchSize(writeBatchSize);
+
+            long updated = 0;
+            List<Document> batch = new ArrayList<>(writeBatchSize);
+            try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, ACCOUNTS)) {
+                Iterator<Document> it = stream.iterator();
+                while (it.hasNext()) {
+                    batch.add(it.next());
+                    if (batch.size() == writeBatchSize) {
+                        updated += applyBatch(date, batch, p);
+                        batch = new ArrayList<>(writeBatchSize);
+                        renewLock();
+                    }
+                }
+            }
+            updated += applyBatch(date, batch, p);
+
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(date)),
+                    new Update().addToSet("completedRanges", range).inc("accountsUpdated", updated),
+                    AccrualCheckpoint.class);
+            p.rangesDone.incrementAndGet();
+            renewLock();
+            return updated;
+        });
+    }
+
+    private long applyBatch(String date, List<Document> accounts, Progress p) {
+        if (accounts.isEmpty()) {
+            return 0;
+        }
+        Document newBalance = newBalance();
+        AggregationUpdate accrue = AggregationUpdate.from(List.of(
+                ctx -> new Document("$set", new Document("balance", newBalance).append(LAST_ACCRUAL_FIELD, date))));
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ACCOUNTS);
+        for (Document account : accounts) {
+            Criteria guard = Criteria.where("accountNumber").is(account.getString("accountNumber"))
+                    .and("active").is(true)
+                    .and(LAST_ACCRUAL_FIELD).not().gte(date);
+            if (dailyFee > 0) {
+                guard = new Criteria().andOperator(guard,
+                        Criteria.expr(() -> new Document("$gte", List.of(newBalance, 0L))));
+            }
+            ops.updateOne(Query.query(guard), accrue);
+        }
+        BulkWriteResult result = ops.execute();
+        for (Document account : accounts) {
+            cache.evict(account.getString("accountNumber"));
+        }
+        long modified = result.getModifiedCount();
+        accrued.increment(modified);
+        skipped.increment(accounts.size() - modified);
+        p.accountsScanned.addAndGet(accounts.size());
+        p.accountsUpdated.addAndGet(modified);
+        return modified;
+    }
+
+    // dailyDelta as an aggregation expression over the stored balance: Decimal128 arithmetic and
+    // $round, which rounds half to even like RoundingMode.HALF_EVEN
+    Document newBalance() {
+        Document interest = new Document("$toLong", new Document("$round", List.of(
+                new Document("$divide", List.of(
+                        new Document("$multiply", List.of(new Document("$toDecimal", "$balance"), annualRateBps)),
+                        10_000L * daysInYear)),
+                0)));
+        return new Document("$subtract", List.of(new Document("$add", List.of("$balance", interest)), dailyFee));
+    }
+
+    long dailyDelta(long balance) {
+        long interest = BigDecimal.valueOf(balance)
+                .multiply(BigDecimal.valueOf(annualRateBps))
+                .divide(BigDecimal.valueOf(10_000L * daysInYear), 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+        return interest - dailyFee;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        launcher.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    // Live counters of the current (or last) run, read by the actuator endpoint.
+    private static final class Progress {
+        final String businessDate;
+        volatile int rangesTotal;
+        final AtomicInteger rangesDone = new AtomicInteger();
+        final AtomicLong accountsScanned = new AtomicLong();
+        final AtomicLong accountsUpdated = new AtomicLong();
+        final Instant startedAt = Instant.now();
+        volatile Instant finishedAt;
+        volatile State state;
+
+        Progress(String businessDate) {
+            this.businessDate = businessDate;
+            this.state = businessDate == null ? State.IDLE : State.RUNNING;
+        }
+
+        void finish(State end) {
+            finishedAt = Instant.now();
+            state = end;
+        }
+
+        Duration elapsed() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return Duration.between(startedAt, end);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("state", state);
+            if (businessDate == null) {
+                return m;
+            }
+            long millis = Math.max(1, elapsed().toMillis());
+            m.put("businessDate", businessDate);
+            m.put("rangesTotal", rangesTotal);
+            m.put("rangesDone", rangesDone.get());
+            m.put("accountsScanned", accountsScanned.get());
+            m.put("accountsUpdated", accountsUpdated.get());
+            m.put("accountsPerSecond", accountsScanned.get() * 1000 / millis);
+            m.put("startedAt", startedAt);
+            m.put("finishedAt", finishedAt);
+            m.put("elapsedMs", millis);
+            return m;
+        }
+    }
+}
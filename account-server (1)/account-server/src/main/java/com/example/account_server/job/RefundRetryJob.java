@@ -0,0 +1,99 @@
+package com.example.account_server.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.account_server.model.PendingRefund;
+import com.example.account_server.repository.AccountRepository;
+import com.example.account_server.service.AccountCache;
+
+/**
+ * Applies the refunds that AccountTransferService could not give back right away.
+ *
+ * Each entry is claimed (PENDING -> APPLYING) with a find-and-modify, so only one node applies
+ * it, then refunded and deleted. A refund that fails again goes back to PENDING and is retried
+ * after {@code retry-interval}. An entry left in APPLYING means the node stopped between the
+ * claim and the delete; it is never retried automatically, because the refund may already
+ * have been applied, and is reported on every run until it is reconciled.
+ */
+@Component
+public class RefundRetryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RefundRetryJob.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final AccountRepository accounts;
+    private final AccountCache cache;
+    private final Duration retryInterval;
+
+    public RefundRetryJob(MongoTemplate mongoTemplate, AccountRepository accounts, AccountCache cache,
+                          @Value("${accounts.transfer.refund-retry-interval:PT1M}") Duration retryInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.accounts = accounts;
+        this.cache = cache;
+        this.retryInterval = retryInterval;
+    }
+
+    @Scheduled(fixedDelayString = "${accounts.transfer.refund-retry-interval:PT1M}",
+            initialDelayString = "${accounts.transfer.refund-retry-interval:PT1M}")
+    public void retryPendingRefunds() {
+        Instant startedAt = Instant.now();
+        PendingRefund refund;
+        // entries that fail again become available after startedAt, so a run ends
+        while ((refund = claim(startedAt)) != null) {
+            if (!apply(refund)) {
+                break;
+            }
+        }
+        long stuck = mongoTemplate.count(Query.query(Criteria.where("status").is(PendingRefund.Status.APPLYING)
+                .and("availableAt").lt(startedAt.minus(retryInterval))), PendingRefund.class);
+        if (stuck > 0) {
+            log.error("{} refunds were claimed but never confirmed; check pending_refunds with status APPLYING", stuck);
+        }
+    }
+
+    private PendingRefund claim(Instant now) {
+        Query query = Query.query(Criteria.where("status").is(PendingRefund.Status.PENDING)
+                .and("availableAt").lte(now));
+        return mongoTemplate.findAndModify(query,
+                new Update().set("status", PendingRefund.Status.APPLYING).set("availableAt", now),
+                FindAndModifyOptions.options().returnNew(true), PendingRefund.class);
+    }
+
+    /** @return false when the database failed, so the rest of the run is skipped */
+    private boolean apply(PendingRefund refund) {
+        String error;
+        boolean databaseFailed = false;
+        try {
+            if (accounts.refund(refund.getAccountNumber(), refund.getAmount())) {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(refund.getId())), PendingRefund.class);
+                cache.evict(refund.getAccountNumber());
+                log.info("Refunded {} to {} after a rejected transfer to {}",
+                        refund.getAmount(), refund.getAccountNumber(), refund.getDestination());
+                return true;
+            }
+            error = "Account not found: " + refund.getAccountNumber();
+        } catch (RuntimeException ex) {
+            error = ex.getMessage();
+            databaseFailed = true;
+        }
+        log.error("Refund of {} to {} failed again (attempt {}): {}",
+                refund.getAmount(), refund.getAccountNumber(), refund.getAttempts() + 1, error);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(refund.getId())),
+                new Update().set("status", PendingRefund.Status.PENDING)
+                        .set("availableAt", Instant.now().plus(retryInterval))
+                        .set("lastError", error)
+                        .inc("attempts", 1),
+                PendingRefund.class);
+        return !databaseFailed;
+    }
+}
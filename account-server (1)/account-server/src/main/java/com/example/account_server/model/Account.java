@@ -1,35 +1,51 @@
 package com.example.account_server.model;
 
 
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
+// Indexes are created at startup by MongoIndexInitializer
 @Document(collection = "accounts")
+@CompoundIndexes({
+        @CompoundIndex(name = "active_accountNumber", def = "{'active': 1, 'accountNumber': 1}"),
+        @CompoundIndex(name = "active_balance", def = "{'active': 1, 'balance': 1}")
+})
 public class Account {
 
     @Id
     private String id;
 
     @NotBlank
+    @Indexed(name = "accountNumber_unique", unique = true)
     private String accountNumber;   // business unique id (eg. ACC1001)
 
     @NotBlank
     private String holderName;
 
-    @NotNull
-    private Double balance = 0.0;
+    @PositiveOrZero
+    private long balance;           // minor units (eg. cents), stored as Int64
 
     private boolean active = true;
 
+    private String lastAccrualDate; // business date (ISO) of the last end-of-day accrual, see InterestAccrualJob
+
+    @JsonIgnore
+    private List<String> pendingBatchIds; // bulk balance writes applied but not yet confirmed, see AccountRepositoryImpl
+
     // Constructors, getters, setters (or use Lombok)
     public Account() {}
 
-    public Account(String accountNumber, String holderName, Double balance) {
+    public Account(String accountNumber, String holderName, long balance) {
         this.accountNumber = accountNumber;
         this.holderName = holderName;
-        this.balance = balance == null ? 0.0 : balance;
+        this.balance = balance;
         this.active = true;
     }
 
@@ -40,9 +56,13 @@ public class Account {
     public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
     public String getHolderName() { return holderName; }
     public void setHolderName(String holderName) { this.holderName = holderName; }
-    public Double getBalance() { return balance; }
-    public void setBalance(Double balance) { this.balance = balance; }
+    public long getBalance() { return balance; }
+    public void setBalance(long balance) { this.balance = balance; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+    public String getLastAccrualDate() { return lastAccrualDate; }
+    public void setLastAccrualDate(String lastAccrualDate) { this.lastAccrualDate = lastAccrualDate; }
+    public List<String> getPendingBatchIds() { return pendingBatchIds; }
+    public void setPendingBatchIds(List<String> pendingBatchIds) { this.pendingBatchIds = pendingBatchIds; }
 }
 
@@ -0,0 +1,49 @@
+package com.example.account_server.model;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import com.example.account_server.dto.BalanceDeltaResult;
+
+/**
+ * A {@code balances:batch} call made with a {@code Batch-Id}. The id is claimed before any delta
+ * is applied, so a caller that lost the response can send the same batch again and get the
+ * stored results instead of a second application. A batch left IN_PROGRESS was interrupted
+ * part way (error or node stop) and has to be reconciled by hand. Entries expire after a week.
+ */
+@Document(collection = "balance_batches")
+public class BalanceBatch {
+
+    public enum Status { IN_PROGRESS, DONE }
+
+    @Id
+    private String id;              // Batch-Id sent by the caller
+
+    private Status status = Status.IN_PROGRESS;
+    private int itemCount;
+    private List<BalanceDeltaResult> results; // set when DONE, same order as submitted
+
+    @Indexed(name = "createdAt_ttl", expireAfter = "7d")
+    private Instant createdAt;
+
+    public BalanceBatch() {}
+
+    public BalanceBatch(String id, int itemCount, Instant createdAt) {
+        this.id = id;
+        this.itemCount = itemCount;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+    public List<BalanceDeltaResult> getResults() { return results; }
+    public void setResults(List<BalanceDeltaResult> results) { this.results = results; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,62 @@
+package com.example.account_server.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Money taken from {@code accountNumber} by a local transfer whose credit was rejected and
+ * that could not be given back right away. RefundRetryJob applies it later; an entry stuck
+ * in APPLYING was claimed by a node that stopped before confirming and has to be reconciled
+ * by hand (the refund may or may not have been applied).
+ */
+@Document(collection = "pending_refunds")
+@CompoundIndex(name = "status_availableAt", def = "{'status': 1, 'availableAt': 1}")
+public class PendingRefund {
+
+    public enum Status { PENDING, APPLYING }
+
+    @Id
+    private String id;
+
+    private String accountNumber;
+    private long amount;            // minor units
+    private String destination;     // account the rejected credit was for
+    private Status status = Status.PENDING;
+    private int attempts;
+    private String lastError;
+    private Instant createdAt;
+    private Instant availableAt;    // not retried before this
+
+    public PendingRefund() {}
+
+    public PendingRefund(String accountNumber, long amount, String destination, String lastError, Instant createdAt) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.destination = destination;
+        this.lastError = lastError;
+        this.attempts = 1;
+        this.createdAt = createdAt;
+        this.availableAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+    public String getDestination() { return destination; }
+    public void setDestination(String destination) { this.destination = destination; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getAvailableAt() { return availableAt; }
+    public void setAvailableAt(Instant availableAt) { this.availableAt = availableAt; }
+}
@@ -0,0 +1,74 @@
+package com.example.account_server.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.model.Account;
+
+public interface AccountRepositoryCustom {
+
+    /**
+     * Atomically adds {@code delta} to the balance of an active account, in a single
+     * find-and-modify, as long as the resulting balance does not go negative.
+     *
+     * @return the updated account, or empty if the account does not exist, is inactive
+     *         or does not hold enough funds
+     */
+    default Optional<Account> incrementBalance(String accountNumber, long delta) {
+        return incrementBalance(accountNumber, delta, -delta);
+    }
+
+    /**
+     * Same as {@link #incrementBalance(String, long)}, but only applies the delta when the
+     * current balance is at least {@code requiredBalance}. Used when several deltas are
+     * combined into one write and no intermediate balance may go negative.
+     */
+    Optional<Account> incrementBalance(String accountNumber, long delta, long requiredBalance);
+
+    /**
+     * Sets only the {@code active} flag, in a single find-and-modify, so a concurrent balance
+     * update is never overwritten.
+     *
+     * @return the updated account, or empty if it does not exist
+     */
+    Optional<Account> updateActive(String accountNumber, boolean active);
+
+    /**
+     * Gives {@code amount} back to an account after a rejected transfer. Unlike
+     * {@link #incrementBalance(String, long)} it does not require the account to be active:
+     * money taken from an account that was deactivated in the meantime still has to go back.
+     *
+     * @return false if the account does not exist
+     */
+    boolean refund(String accountNumber, long amount);
+
+    /**
+     * Applies all increments with one unordered bulk write. At most one increment per account.
+     *
+     * @return the account numbers whose increment matched and was applied
+     */
+    Set<String> incrementBalances(List<BalanceIncrement> increments);
+
+    /**
+     * Inserts all accounts with one unordered bulk write; a failing document does not stop
+     * the others.
+     *
+     * @return error message per failed position in {@code accounts}; empty when all were inserted
+     */
+    Map<Integer, String> insertUnordered(List<Account> accounts);
+
+    /**
+     * Keyset page ordered by accountNumber: up to {@code limit} matching accounts whose
+     * accountNumber sorts after {@code afterAccountNumber} (from the start when null).
+     */
+    List<Account> findPage(AccountFilter filter, String afterAccountNumber, int limit);
+
+    /**
+     * Streams all matching accounts in accountNumber order from a server-side cursor.
+     * The caller must close the stream.
+     */
+    Stream<Account> streamAll(AccountFilter filter);
+}
@@ -0,0 +1,169 @@
+package com.example.account_server.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.model.Account;
+
+class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+
+    // Bulk writes add their id to this set so that matched documents can be told apart afterwards,
+    // and remove it again once they have looked. Only the writer that added an id removes it.
+    private static final String PENDING_BATCHES_FIELD = "pendingBatchIds";
+
+    private final MongoTemplate mongoTemplate;
+
+    AccountRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Account> incrementBalance(String accountNumber, long delta, long requiredBalance) {
+        Account updated = mongoTemplate.findAndModify(guarded(accountNumber, requiredBalance),
+                new Update().inc("balance", delta),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<Account> updateActive(String accountNumber, boolean active) {
+        Account updated = mongoTemplate.findAndModify(Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                new Update().set("active", active),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public boolean refund(String accountNumber, long amount) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                new Update().inc("balance", amount), Account.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Set<String> incrementBalances(List<BalanceIncrement> increments) {
+        if (increments.isEmpty()) {
+            return Set.of();
+        }
+        String batchId = UUID.randomUUID().toString();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        for (BalanceIncrement inc : increments) {
+            ops.updateOne(guarded(inc.getAccountNumber(), inc.getRequiredBalance()),
+                    new Update().inc("balance", inc.getDelta()).addToSet(PENDING_BATCHES_FIELD, batchId));
+        }
+        BulkWriteResult result = ops.execute();
+
+        Set<String> accountNumbers = increments.stream()
+                .map(BalanceIncrement::getAccountNumber)
+                .collect(Collectors.toSet());
+        Query tagged = Query.query(Criteria.where("accountNumber").in(accountNumbers)
+                .and(PENDING_BATCHES_FIELD).is(batchId));
+        Set<String> applied;
+        if (result.getMatchedCount() == increments.size()) {
+            applied = accountNumbers;
+        } else {
+            // The bulk result only carries counts; look up which documents this batch touched.
+            Query lookup = Query.of(tagged);
+            lookup.fields().include("accountNumber");
+            applied = mongoTemplate.find(lookup, Account.class).stream()
+                    .map(Account::getAccountNumber)
+                    .collect(Collectors.toSet());
+        }
+        // if this fails the id stays behind; it is unique, so it is never mistaken for another batch
+        mongoTemplate.updateMulti(tagged, new Update().pull(PENDING_BATCHES_FIELD, batchId), Account.class);
+        return applied;
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return Map.of();
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        ops.insert(accounts);
+        try {
+            ops.execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            return insertFailures(ex.getErrors(), accounts);
+        } catch (DataIntegrityViolationException ex) {
+            if (ex.getCause() instanceof MongoBulkWriteException bulk) {
+                return insertFailures(bulk.getWriteErrors(), accounts);
+            }
+            throw ex;
+        }
+    }
+
+    private static Map<Integer, String> insertFailures(List<BulkWriteError> errors, List<Account> accounts) {
+        Map<Integer, String> failures = new HashMap<>();
+        for (BulkWriteError error : errors) {
+            String message = error.getCode() == DUPLICATE_KEY
+                    ? "Account already exists: " + accounts.get(error.getIndex()).getAccountNumber()
+                    : error.getMessage();
+            failures.put(error.getIndex(), message);
+        }
+        return failures;
+    }
+
+    @Override
+    public List<Account> findPage(AccountFilter filter, String afterAccountNumber, int limit) {
+        Query query = filtered(filter);
+        if (afterAccountNumber != null) {
+            query.addCriteria(Criteria.where("accountNumber").gt(afterAccountNumber));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "accountNumber")).limit(limit);
+        return mongoTemplate.find(query, Account.class);
+    }
+
+    @Override
+    public Stream<Account> streamAll(AccountFilter filter) {
+        Query query = filtered(filter)
+                .with(Sort.by(Sort.Direction.ASC, "accountNumber"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Account.class);
+    }
+
+    private static Query filtered(AccountFilter filter) {
+        Query query = new Query();
+        if (filter.getActive() != null) {
+            query.addCriteria(Criteria.where("active").is(filter.getActive()));
+        }
+        if (filter.getMinBalance() != null || filter.getMaxBalance() != null) {
+            Criteria balance = Criteria.where("balance");
+            if (filter.getMinBalance() != null) {
+                balance.gte(filter.getMinBalance());
+            }
+            if (filter.getMaxBalance() != null) {
+                balance.lte(filter.getMaxBalance());
+            }
+            query.addCriteria(balance);
+        }
+        return query;
+    }
+
+    private static Query guarded(String accountNumber, long requiredBalance) {
+        return Query.query(Criteria.where("accountNumber").is(accountNumber)
+                .and("active").is(true)
+                .and("balance").gte(requiredBalance));
+    }
+}
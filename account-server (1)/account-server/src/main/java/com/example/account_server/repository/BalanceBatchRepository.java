@@ -0,0 +1,7 @@
+package com.example.account_server.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import com.example.account_server.model.BalanceBatch;
+
+public interface BalanceBatchRepository extends MongoRepository<BalanceBatch, String> {
+}
@@ -0,0 +1,21 @@
+package com.example.account_server.repository;
+
+/**
+ * One guarded {@code $inc} of a bulk balance write: add {@code delta} to the account if it is
+ * active and its balance is at least {@code requiredBalance}.
+ */
+public class BalanceIncrement {
+    private final String accountNumber;
+    private final long delta;
+    private final long requiredBalance;
+
+    public BalanceIncrement(String accountNumber, long delta, long requiredBalance) {
+        this.accountNumber = accountNumber;
+        this.delta = delta;
+        this.requiredBalance = requiredBalance;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public long getDelta() { return delta; }
+    public long getRequiredBalance() { return requiredBalance; }
+}
@@ -0,0 +1,7 @@
+package com.example.account_server.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import com.example.account_server.model.PendingRefund;
+
+public interface PendingRefundRepository extends MongoRepository<PendingRefund, String> {
+}
@@ -0,0 +1,193 @@
+package com.example.account_server.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import com.example.account_server.dto.BalanceDelta;
+import com.example.account_server.dto.BalanceDeltaResult;
+import com.example.account_server.model.Account;
+import com.example.account_server.model.BalanceBatch;
+import com.example.account_server.repository.AccountRepository;
+import com.example.account_server.repository.BalanceBatchRepository;
+import com.example.account_server.repository.BalanceIncrement;
+
+/**
+ * Applies large lists of balance deltas (e.g. nightly settlement) in chunks.
+ *
+ * Per chunk: one read of all involved accounts, an in-memory pass that decides each item in
+ * submission order, and one unordered bulk write with a single guarded {@code $inc} per account.
+ * Accounts whose balance changed between the read and the write fall back to one guarded
+ * update per item.
+ *
+ * A call with a batch id is applied at most once: the id is claimed in {@code balance_batches}
+ * first and the results are stored with it, so a retry after a lost response (read timeout)
+ * gets the original results back.
+ */
+@Service
+public class AccountBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountBatchService.class);
+
+    private final AccountRepository repo;
+    private final AccountCache cache;
+    private final BalanceBatchRepository batches;
+    private final int chunkSize;
+
+    public AccountBatchService(AccountRepository repo, AccountCache cache, BalanceBatchRepository batches,
+                               @Value("${accounts.batch.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("accounts.batch.chunk-size must be at least 1");
+        }
+        this.repo = repo;
+        this.cache = cache;
+        this.batches = batches;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Applies {@code items} once per {@code batchId}. A repeated id returns the stored results;
+     * if the first call has not finished (or failed part way) it throws BatchInProgressException.
+     * A null batchId applies the items without that protection.
+     */
+    public List<BalanceDeltaResult> updateBalances(List<BalanceDelta> items, String batchId) {
+        if (batchId == null) {
+            return updateBalances(items);
+        }
+        try {
+            batches.insert(new BalanceBatch(batchId, items.size(), Instant.now()));
+        } catch (DuplicateKeyException ex) {
+            return storedResults(batchId, items.size());
+        }
+        List<BalanceDeltaResult> results;
+        try {
+            results = updateBalances(items);
+        } catch (RuntimeException ex) {
+            log.error("Batch {} failed part way and stays IN_PROGRESS; some of its deltas may be applied", batchId, ex);
+            throw ex;
+        }
+        BalanceBatch done = new BalanceBatch(batchId, items.size(), Instant.now());
+        done.setStatus(BalanceBatch.Status.DONE);
+        done.setResults(results);
+        batches.save(done);
+        return results;
+    }
+
+    private List<BalanceDeltaResult> storedResults(String batchId, int itemCount) {
+        BalanceBatch batch = batches.findById(batchId).orElseThrow(() -> new BatchInProgressException(batchId));
+        if (batch.getStatus() != BalanceBatch.Status.DONE) {
+            throw new BatchInProgressException(batchId);
+        }
+        if (batch.getItemCount() != itemCount) {
+            throw new IllegalArgumentException("Batch " + batchId + " was sent with " + batch.getItemCount() + " items, not " + itemCount);
+        }
+        return batch.getResults();
+    }
+
+    public List<BalanceDeltaResult> updateBalances(List<BalanceDelta> items) {
+        List<BalanceDeltaResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            results.addAll(applyChunk(items.subList(from, Math.min(items.size(), from + chunkSize))));
+        }
+        return results;
+    }
+
+    private List<BalanceDeltaResult> applyChunk(List<BalanceDelta> chunk) {
+        String[] statuses = new String[chunk.size()];
+        Set<String> accountNumbers = chunk.stream()
+                .map(BalanceDelta::getAccountNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Account> accounts = repo.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        Map<String, Plan> plans = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BalanceDelta item = chunk.get(i);
+            if (item.getAccountNumber() == null || item.getAmount() == null) {
+                statuses[i] = BalanceDeltaResult.INVALID;
+                continue;
+            }
+            Account acc = accounts.get(item.getAccountNumber());
+            if (acc == null) {
+                statuses[i] = BalanceDeltaResult.NOT_FOUND;
+            } else if (!acc.isActive()) {
+                statuses[i] = BalanceDeltaResult.INACTIVE;
+            } else {
+                Plan plan = plans.computeIfAbsent(acc.getAccountNumber(), n -> new Plan(acc.getBalance()));
+                statuses[i] = plan.accept(i, item.getAmount())
+                        ? BalanceDeltaResult.APPLIED
+                        : BalanceDeltaResult.INSUFFICIENT_FUNDS;
+            }
+        }
+
+        List<BalanceIncrement> increments = new ArrayList<>();
+        plans.forEach((accountNumber, plan) -> {
+            if (!plan.accepted.isEmpty()) {
+                increments.add(new BalanceIncrement(accountNumber, plan.sum, plan.requiredBalance));
+            }
+        });
+        Set<String> applied = repo.incrementBalances(increments);
+
+        for (BalanceIncrement inc : increments) {
+            cache.evict(inc.getAccountNumber());
+            if (!applied.contains(inc.getAccountNumber())) {
+                for (int i : plans.get(inc.getAccountNumber()).accepted) {
+                    statuses[i] = applyOne(chunk.get(i));
+                }
+            }
+        }
+
+        List<BalanceDeltaResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BalanceDelta item = chunk.get(i);
+            results.add(new BalanceDeltaResult(item.getAccountNumber(), item.getAmount(), statuses[i]));
+        }
+        return results;
+    }
+
+    private String applyOne(BalanceDelta item) {
+        if (repo.incrementBalance(item.getAccountNumber(), item.getAmount()).isPresent()) {
+            return BalanceDeltaResult.APPLIED;
+        }
+        Optional<Account> current = repo.findByAccountNumber(item.getAccountNumber());
+        if (current.isEmpty()) {
+            return BalanceDeltaResult.NOT_FOUND;
+        }
+        return current.get().isActive() ? BalanceDeltaResult.INSUFFICIENT_FUNDS : BalanceDeltaResult.INACTIVE;
+    }
+
+    // Deltas accepted for one account, in submission order, against the balance read for the chunk.
+    private static final class Plan {
+        long balance;
+        long sum;
+        long requiredBalance;
+        final List<Integer> accepted = new ArrayList<>();
+
+        Plan(long balance) {
+            this.balance = balance;
+        }
+
+        boolean accept(int index, long delta) {
+            if (balance + delta < 0) {
+                return false;
+            }
+            balance += delta;
+            sum += delta;
+            requiredBalance = Math.max(requiredBalance, -sum);
+            accepted.add(index);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.account_server.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.account_server.model.Account;
+
+/**
+ * Size-bounded, TTL-limited read-through cache of accounts on this node.
+ *
+ * Writers evict rather than put: a loader racing with an eviction finishes first, so a read
+ * that started before a write can never re-insert the old balance after it. The TTL bounds
+ * how stale an entry can be when another node wrote the account.
+ *
+ * Entries are futures: a miss installs an empty future and the caller that installed it runs
+ * the loader outside the map, while concurrent readers of the key wait on that future. A
+ * blocking Mongo read inside {@code Cache.get(key, loader)} would run under the map's bin
+ * lock, which pins a virtual thread to its carrier. Eviction drops the in-flight future, so
+ * its result is never stored.
+ */
+@Component
+public class AccountCache {
+
+    private final boolean enabled;
+    private final AsyncCache<String, Account> cache;
+
+    public AccountCache(MeterRegistry registry,
+                        @Value("${accounts.cache.enabled:true}") boolean enabled,
+                        @Value("${accounts.cache.max-size:10000}") long maxSize,
+                        @Value("${accounts.cache.ttl:30s}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // cache.size, cache.gets{result=hit|miss}, cache.evictions, ...
+        CaffeineCacheMetrics.monitor(registry, cache, "accounts");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .tag("cache", "accounts")
+                .description("Share of account lookups served from the cache")
+                .register(registry);
+    }
+
+    public Optional<Account> get(String accountNumber, Function<String, Optional<Account>> loader) {
+        if (!enabled) {
+            return loader.apply(accountNumber);
+        }
+        CompletableFuture<Account> mine = new CompletableFuture<>();
+        boolean[] installed = {false};
+        CompletableFuture<Account> entry = cache.get(accountNumber, (n, executor) -> {
+            installed[0] = true;
+            return mine;
+        });
+        if (installed[0]) {
+            try {
+                // a null from the loader is not cached, so unknown accounts are always looked up
+                mine.complete(loader.apply(accountNumber).orElse(null));
+            } catch (RuntimeException ex) {
+                mine.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return Optional.ofNullable(entry.join());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public void evict(String accountNumber) {
+        cache.synchronous().invalidate(accountNumber);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.account_server.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.model.Account;
+
+/**
+ * Writes accounts as NDJSON (one JSON document per line) straight from a Mongo cursor,
+ * so memory use does not depend on the number of accounts exported.
+ */
+@Service
+public class AccountExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final AccountService service;
+    private final ObjectWriter writer;
+
+    public AccountExportService(AccountService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.writer = objectMapper.writerFor(Account.class);
+    }
+
+    public void exportNdjson(AccountFilter filter, OutputStream target) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        try (Stream<Account> accounts = service.streamAccounts(filter)) {
+            Iterator<Account> it = accounts.iterator();
+            int written = 0;
+            while (it.hasNext()) {
+                out.write(writer.writeValueAsBytes(it.next()));
+                out.write('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+}
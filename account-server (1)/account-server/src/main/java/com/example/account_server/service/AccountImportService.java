@@ -0,0 +1,219 @@
+package com.example.account_server.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.example.account_server.dto.ImportSummary;
+import com.example.account_server.model.Account;
+
+/**
+ * Creates accounts from an NDJSON or CSV upload. The body is read line by line and inserted
+ * in unordered batches, so memory use is bounded by the batch size rather than the upload.
+ *
+ * <p>CSV input needs a header row naming the columns: {@code accountNumber}, {@code holderName},
+ * {@code balance} (minor units) and optionally {@code active}.
+ */
+@Service
+public class AccountImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private final AccountService service;
+    private final Validator validator;
+    private final ObjectReader reader;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public AccountImportService(AccountService service, Validator validator, ObjectMapper objectMapper,
+                                @Value("${accounts.import.batch-size:1000}") int batchSize,
+                                @Value("${accounts.import.max-reported-errors:1000}") int maxReportedErrors) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("accounts.import.batch-size must be at least 1");
+        }
+        this.service = service;
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(Account.class);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ImportSummary importAccounts(InputStream body, Format format) throws IOException {
+        Run run = new Run();
+        BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        long lineNo = 0;
+        Map<String, Integer> columns = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = csvHeader(line);
+                continue;
+            }
+            run.summary.setReceived(run.summary.getReceived() + 1);
+            Account account;
+            try {
+                account = format == Format.CSV ? fromCsv(parseCsvLine(line), columns) : fromJson(line);
+            } catch (IllegalArgumentException ex) {
+                run.reject(lineNo, null, ex.getMessage());
+                continue;
+            }
+            String invalid = violations(account);
+            if (invalid != null) {
+                run.reject(lineNo, account.getAccountNumber(), invalid);
+                continue;
+            }
+            run.add(lineNo, account);
+            if (run.batch.size() >= batchSize) {
+                run.flush();
+            }
+        }
+        run.flush();
+        return run.summary;
+    }
+
+    private Account fromJson(String line) {
+        // null, arrays and scalars would map to no account (or a confusing mapping error)
+        if (line.strip().charAt(0) != '{') {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Account account;
+        try {
+            account = reader.readValue(line);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+        account.setId(null); // always a new document
+        return account;
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of("accountNumber", "holderName", "balance")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static Account fromCsv(List<String> fields, Map<String, Integer> columns) {
+        Account account = new Account();
+        account.setAccountNumber(field(fields, columns, "accountNumber"));
+        account.setHolderName(field(fields, columns, "holderName"));
+        String balance = field(fields, columns, "balance");
+        try {
+            account.setBalance(Long.parseLong(balance == null ? "" : balance.trim()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("balance: must be an integer amount in minor units");
+        }
+        String active = field(fields, columns, "active");
+        if (active != null && !active.isBlank()) {
+            account.setActive(Boolean.parseBoolean(active.trim()));
+        }
+        return account;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer idx = columns.get(name);
+        return idx == null || idx >= fields.size() ? null : fields.get(idx);
+    }
+
+    // RFC 4180 style: fields may be quoted, "" inside quotes is a literal quote. No embedded newlines.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    private String violations(Account account) {
+        Set<ConstraintViolation<Account>> violations = validator.validate(account);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Per-request state: the pending batch and the running summary.
+    private class Run {
+        final ImportSummary summary = new ImportSummary();
+        List<Account> batch = new ArrayList<>(batchSize);
+        List<Long> lines = new ArrayList<>(batchSize);
+
+        void add(long lineNo, Account account) {
+            batch.add(account);
+            lines.add(lineNo);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<Integer, String> failures = service.createAccounts(batch);
+            summary.setInserted(summary.getInserted() + batch.size() - failures.size());
+            failures.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(f -> reject(lines.get(f.getKey()), batch.get(f.getKey()).getAccountNumber(), f.getValue()));
+            batch = new ArrayList<>(batchSize);
+            lines = new ArrayList<>(batchSize);
+        }
+
+        void reject(long lineNo, String accountNumber, String error) {
+            summary.setFailed(summary.getFailed() + 1);
+            if (summary.getErrors().size() < maxReportedErrors) {
+                summary.getErrors().add(new ImportSummary.RowError(lineNo, accountNumber, error));
+            } else {
+                summary.setErrorsTruncated(true);
+            }
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.account_server.service;
 
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.dto.AccountPage;
 import com.example.account_server.model.Account;
 import com.example.account_server.repository.AccountRepository;
 
@@ -11,42 +19,119 @@ import com.example.account_server.repository.AccountRepository;
 public class AccountService {
 
     private final AccountRepository repo;
+    private final AccountCache cache;
+    private final HolderNameIndex nameIndex;
 
-    public AccountService(AccountRepository repo) {
+    public AccountService(AccountRepository repo, AccountCache cache, HolderNameIndex nameIndex) {
         this.repo = repo;
+        this.cache = cache;
+        this.nameIndex = nameIndex;
     }
 
     public Account createAccount(Account account) {
-        if (repo.existsByAccountNumber(account.getAccountNumber())) {
+        // single insert; the unique index on accountNumber rejects duplicates atomically
+        Account created;
+        try {
+            created = repo.insert(account);
+        } catch (DuplicateKeyException ex) {
             throw new IllegalArgumentException("Account already exists: " + account.getAccountNumber());
         }
-        return repo.save(account);
+        cache.evict(created.getAccountNumber());
+        nameIndex.put(created);
+        return created;
+    }
+
+    /**
+     * Inserts already validated accounts in one unordered bulk write.
+     *
+     * @return error message per failed position in {@code accounts}
+     */
+    public Map<Integer, String> createAccounts(List<Account> accounts) {
+        Map<Integer, String> failures = repo.insertUnordered(accounts);
+        for (int i = 0; i < accounts.size(); i++) {
+            if (!failures.containsKey(i)) {
+                cache.evict(accounts.get(i).getAccountNumber());
+                nameIndex.put(accounts.get(i));
+            }
+        }
+        return failures;
     }
 
     public Optional<Account> getByAccountNumber(String accountNumber) {
+        return cache.get(accountNumber, repo::findByAccountNumber);
+    }
+
+    // Bypasses the cache, for callers that make decisions on the current balance.
+    public Optional<Account> getByAccountNumberUncached(String accountNumber) {
         return repo.findByAccountNumber(accountNumber);
     }
 
-    @Transactional
-    public Account updateBalance(String accountNumber, double delta) {
-        Account acc = repo.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountNumber));
-        if (!acc.isActive()) {
-            throw new IllegalStateException("Account is inactive: " + accountNumber);
+    public AccountPage listAccounts(AccountFilter filter, String after, int limit) {
+        List<Account> items = repo.findPage(filter, after, limit);
+        String next = items.size() < limit ? null : items.get(items.size() - 1).getAccountNumber();
+        return new AccountPage(items, next);
+    }
+
+    /**
+     * Accounts whose holder name starts with {@code prefix} (ignoring case), ordered by name.
+     * Served from the in-memory {@link HolderNameIndex}; only the page itself is read from Mongo.
+     */
+    public AccountPage searchByHolderName(String prefix, String after, int limit) {
+        if (!nameIndex.isReady()) {
+            throw new IllegalStateException("Holder name index is still loading");
+        }
+        List<String> accountNumbers = nameIndex.search(prefix, after, limit);
+        if (accountNumbers.isEmpty()) {
+            return new AccountPage(List.of(), null);
         }
-        double newBalance = acc.getBalance() + delta;
-        if (newBalance < 0) {
-            throw new IllegalArgumentException("Insufficient funds. Current balance: " + acc.getBalance());
+        Map<String, Account> found = repo.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        List<Account> items = accountNumbers.stream().map(found::get).filter(Objects::nonNull).toList();
+        String next = accountNumbers.size() < limit ? null
+                : nameIndex.cursorOf(accountNumbers.get(accountNumbers.size() - 1));
+        return new AccountPage(items, next);
+    }
+
+    public Stream<Account> streamAccounts(AccountFilter filter) {
+        return repo.streamAll(filter);
+    }
+
+    public Account updateBalance(String accountNumber, long delta) {
+        Account updated = repo.incrementBalance(accountNumber, delta)
+                .orElseThrow(() -> rejectedBalanceUpdate(accountNumber));
+        cache.evict(accountNumber);
+        return updated;
+    }
+
+    /**
+     * Applies {@code delta} only if the current balance is at least {@code requiredBalance}.
+     * Returns empty instead of throwing when the guard does not match, so callers that combine
+     * several deltas into one write can decide how to split them up.
+     */
+    public Optional<Account> tryUpdateBalance(String accountNumber, long delta, long requiredBalance) {
+        Optional<Account> updated = repo.incrementBalance(accountNumber, delta, requiredBalance);
+        updated.ifPresent(acc -> cache.evict(accountNumber));
+        return updated;
+    }
+
+    // The guarded update matched nothing; read the account once to report why.
+    RuntimeException rejectedBalanceUpdate(String accountNumber) {
+        Optional<Account> current = repo.findByAccountNumber(accountNumber);
+        if (current.isEmpty()) {
+            return new IllegalArgumentException("Account not found: " + accountNumber);
+        }
+        Account acc = current.get();
+        if (!acc.isActive()) {
+            return new IllegalStateException("Account is inactive: " + accountNumber);
         }
-        acc.setBalance(newBalance);
-        return repo.save(acc);
+        return new IllegalArgumentException("Insufficient funds. Current balance: " + acc.getBalance());
     }
 
     public Account updateStatus(String accountNumber, boolean active) {
-        Account acc = repo.findByAccountNumber(accountNumber)
+        Account updated = repo.updateActive(accountNumber, active)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountNumber));
-        acc.setActive(active);
-        return repo.save(acc);
+        cache.evict(accountNumber);
+        return updated;
     }
 
 }
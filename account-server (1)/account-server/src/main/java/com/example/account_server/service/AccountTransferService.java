@@ -0,0 +1,151 @@
+package com.example.account_server.service;
+
+import java.time.Instant;
+import java.util.Optional;
+import com.mongodb.MongoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.account_server.dto.TransferResult;
+import com.example.account_server.model.Account;
+import com.example.account_server.model.PendingRefund;
+import com.example.account_server.repository.AccountRepository;
+import com.example.account_server.repository.PendingRefundRepository;
+
+/**
+ * Moves money between two accounts of this service in one request.
+ *
+ * {@code accounts.transfer.mode=transaction} runs the guarded debit and credit in one Mongo
+ * multi-document transaction (needs a replica set); transient write conflicts are retried.
+ * {@code local} (default) runs the guarded debit, then the credit, and refunds the source if
+ * the credit is rejected. Both legs are local, so the window in which the money is only
+ * debited is two database round trips rather than two service calls. A refund that cannot be
+ * applied right away is stored in {@code pending_refunds} and retried by RefundRetryJob.
+ */
+@Service
+public class AccountTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountTransferService.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final AccountRepository repo;
+    private final AccountService accounts;
+    private final AccountCache cache;
+    private final PendingRefundRepository refunds;
+    private final TransactionOperations transactional; // null in local mode
+
+    @Autowired
+    public AccountTransferService(AccountRepository repo, AccountService accounts, AccountCache cache,
+                                  PendingRefundRepository refunds, MongoDatabaseFactory databaseFactory,
+                                  @Value("${accounts.transfer.mode:local}") String mode) {
+        this(repo, accounts, cache, refunds, "transaction".equalsIgnoreCase(mode)
+                ? new TransactionTemplate(new MongoTransactionManager(databaseFactory))
+                : null);
+    }
+
+    AccountTransferService(AccountRepository repo, AccountService accounts, AccountCache cache,
+                           PendingRefundRepository refunds, TransactionOperations transactional) {
+        this.repo = repo;
+        this.accounts = accounts;
+        this.cache = cache;
+        this.refunds = refunds;
+        this.transactional = transactional;
+    }
+
+    public TransferResult transfer(String source, String destination, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        if (source.equals(destination)) {
+            throw new IllegalArgumentException("Source and destination must differ");
+        }
+        try {
+            return transactional != null
+                    ? transferInTransaction(source, destination, amount)
+                    : transferLocal(source, destination, amount);
+        } finally {
+            cache.evict(source);
+            cache.evict(destination);
+        }
+    }
+
+    private TransferResult transferInTransaction(String source, String destination, long amount) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactional.execute(status -> {
+                    // an exception from either leg rolls both back
+                    Account debited = repo.incrementBalance(source, -amount)
+                            .orElseThrow(() -> accounts.rejectedBalanceUpdate(source));
+                    Account credited = repo.incrementBalance(destination, amount)
+                            .orElseThrow(() -> accounts.rejectedBalanceUpdate(destination));
+                    return new TransferResult(source, destination, amount, debited.getBalance(), credited.getBalance());
+                });
+            } catch (RuntimeException ex) {
+                if (attempt >= MAX_ATTEMPTS || !isTransient(ex)) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private TransferResult transferLocal(String source, String destination, long amount) {
+        Account debited = repo.incrementBalance(source, -amount)
+                .orElseThrow(() -> accounts.rejectedBalanceUpdate(source));
+        Optional<Account> credited;
+        try {
+            credited = repo.incrementBalance(destination, amount);
+        } catch (RuntimeException ex) {
+            // the source is refunded either way; if the credit did land (a timeout after the
+            // write), the destination holds an extra credit to reconcile instead of money vanishing
+            log.warn("Credit of {} to {} failed after debiting {}: {}", amount, destination, source, ex.getMessage());
+            refund(source, destination, amount, ex);
+            throw ex;
+        }
+        if (credited.isPresent()) {
+            return new TransferResult(source, destination, amount, debited.getBalance(), credited.get().getBalance());
+        }
+        RuntimeException reason = accounts.rejectedBalanceUpdate(destination);
+        refund(source, destination, amount, reason);
+        throw reason;
+    }
+
+    private void refund(String source, String destination, long amount, RuntimeException reason) {
+        String error;
+        try {
+            if (repo.refund(source, amount)) {
+                return;
+            }
+            error = "Account not found: " + source;
+        } catch (RuntimeException ex) {
+            error = ex.getMessage();
+        }
+        log.error("Could not refund {} to {} after a rejected transfer to {} ({}); recording it for retry",
+                amount, source, destination, error);
+        try {
+            refunds.save(new PendingRefund(source, amount, destination, error, Instant.now()));
+        } catch (RuntimeException ex) {
+            log.error("Could not record pending refund of {} to {}; it has to be applied by hand", amount, source, ex);
+            reason.addSuppressed(ex);
+        }
+    }
+
+    static boolean isTransient(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException) {
+                return true;
+            }
+            if (t instanceof MongoException mongo && mongo.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
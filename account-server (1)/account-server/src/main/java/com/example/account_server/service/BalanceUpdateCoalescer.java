@@ -0,0 +1,305 @@
+package com.example.account_server.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.account_server.model.Account;
+
+/**
+ * Opt-in write combining for hot accounts (merchant settlement, fee collection, ...).
+ *
+ * A delta for a configured account whose lane is idle is written directly on the caller's
+ * thread, as without coalescing. Deltas that arrive while a write for the account is in
+ * flight are queued and, once it is done, applied together with a single guarded write on
+ * the coalescer's threads (after {@code window}, to collect a few more). So the threads only
+ * serve accounts that are actually contended, one flush per account at a time. If the combined write would overdraw the account, the balance is read once
+ * and only the deltas that would take it below zero, in arrival order, are rejected.
+ * Every caller still gets its own response, carrying the balance right after its own delta.
+ */
+@Component
+public class BalanceUpdateCoalescer {
+
+    private final AccountService service;
+    private final boolean enabled;
+    private final Set<String> hotAccounts;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Duration maxWait;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+
+    public BalanceUpdateCoalescer(AccountService service,
+                                  MeterRegistry registry,
+                                  @Value("${accounts.coalescing.enabled:false}") boolean enabled,
+                                  @Value("${accounts.coalescing.hot-accounts:}") Set<String> hotAccounts,
+                                  @Value("${accounts.coalescing.window:2ms}") Duration window,
+                                  @Value("${accounts.coalescing.max-batch:256}") int maxBatch,
+                                  @Value("${accounts.coalescing.threads:2}") int threads,
+                                  @Value("${accounts.coalescing.max-wait:5s}") Duration maxWait) {
+        this.service = service;
+        this.enabled = enabled;
+        this.hotAccounts = Set.copyOf(hotAccounts);
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.maxWait = maxWait;
+        AtomicInteger counter = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "balance-coalescer-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.batchSize = DistributionSummary.builder("accounts.balance.coalesce.batch.size")
+                .description("Number of balance deltas combined into one write")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.queueDelay = Timer.builder("accounts.balance.coalesce.queue.delay")
+                .description("Time a balance delta waited before its batch was written")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public boolean handles(String accountNumber) {
+        return enabled && hotAccounts.contains(accountNumber);
+    }
+
+    /**
+     * Blocking variant of {@link #submit(String, long)} that rethrows the same
+     * exceptions as {@link AccountService#updateBalance(String, long)}. A queued delta that
+     * has not been picked up within {@code max-wait} is withdrawn and fails; one that is
+     * already being written is waited for, since it may be applied.
+     */
+    public Account updateBalance(String accountNumber, long delta) {
+        Lane lane = lanes.computeIfAbsent(accountNumber, Lane::new);
+        PendingDelta pending = enqueueOrWrite(lane, delta);
+        try {
+            try {
+                return pending.result.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                if (lane.queue.remove(pending)) {
+                    throw new CompletionException("Balance update for " + accountNumber
+                            + " was not started within " + maxWait, ex);
+                }
+                return pending.result.join();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (lane.queue.remove(pending)) {
+                throw new CompletionException("Interrupted before the balance update was started", ex);
+            }
+            return pending.result.join();
+        } catch (ExecutionException | CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        }
+    }
+
+    public CompletableFuture<Account> submit(String accountNumber, long delta) {
+        return enqueueOrWrite(lanes.computeIfAbsent(accountNumber, Lane::new), delta).result;
+    }
+
+    private PendingDelta enqueueOrWrite(Lane lane, long delta) {
+        PendingDelta pending = new PendingDelta(delta);
+        if (lane.queue.isEmpty() && lane.busy.compareAndSet(false, true)) {
+            // uncontended: write on the caller's thread
+            try {
+                pending.result.complete(service.updateBalance(lane.accountNumber, delta));
+            } catch (RuntimeException ex) {
+                pending.result.completeExceptionally(ex);
+            } finally {
+                release(lane, windowNanos);
+            }
+            return pending;
+        }
+        lane.queue.add(pending);
+        if (lane.busy.compareAndSet(false, true)) {
+            dispatch(lane, windowNanos);
+        }
+        return pending;
+    }
+
+    private void flush(Lane lane) {
+        List<PendingDelta> batch = new ArrayList<>();
+        PendingDelta next;
+        while (batch.size() < maxBatch && (next = lane.queue.poll()) != null) {
+            batch.add(next);
+        }
+        try {
+            if (!batch.isEmpty()) {
+                apply(lane.accountNumber, batch);
+            }
+        } catch (RuntimeException ex) {
+            batch.forEach(d -> d.result.completeExceptionally(ex));
+        } finally {
+            // deltas that arrived while we were writing (or did not fit in this batch)
+            release(lane, 0);
+        }
+    }
+
+    // Gives up the lane; whoever queued a delta in the meantime gets it flushed.
+    private void release(Lane lane, long delayNanos) {
+        lane.busy.set(false);
+        if (!lane.queue.isEmpty() && lane.busy.compareAndSet(false, true)) {
+            dispatch(lane, delayNanos);
+        }
+    }
+
+    private void dispatch(Lane lane, long delayNanos) {
+        try {
+            if (delayNanos > 0) {
+                scheduler.schedule(() -> flush(lane), delayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                scheduler.execute(() -> flush(lane));
+            }
+        } catch (RejectedExecutionException ex) {
+            // shutting down: nothing will flush this lane any more
+            PendingDelta d;
+            while ((d = lane.queue.poll()) != null) {
+                d.result.completeExceptionally(ex);
+            }
+            lane.busy.set(false);
+        }
+    }
+
+    private void apply(String accountNumber, List<PendingDelta> batch) {
+        long now = System.nanoTime();
+        for (PendingDelta d : batch) {
+            queueDelay.record(now - d.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        batchSize.record(batch.size());
+
+        // Fast path: the whole batch in one write, guarded so no intermediate balance goes negative.
+        Optional<Account> updated = service.tryUpdateBalance(accountNumber, sum(batch), requiredBalance(batch));
+        if (updated.isPresent()) {
+            complete(batch, updated.get());
+            return;
+        }
+
+        // Slow path: read the balance once and drop the deltas that would overdraw it.
+        Optional<Account> current = service.getByAccountNumberUncached(accountNumber);
+        if (current.isEmpty()) {
+            fail(batch, new IllegalArgumentException("Account not found: " + accountNumber));
+            return;
+        }
+        if (!current.get().isActive()) {
+            fail(batch, new IllegalStateException("Account is inactive: " + accountNumber));
+            return;
+        }
+        long balance = current.get().getBalance();
+        List<PendingDelta> accepted = new ArrayList<>();
+        for (PendingDelta d : batch) {
+            if (balance + d.delta < 0) {
+                d.result.completeExceptionally(
+                        new IllegalArgumentException("Insufficient funds. Current balance: " + balance));
+            } else {
+                balance += d.delta;
+                accepted.add(d);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        updated = service.tryUpdateBalance(accountNumber, sum(accepted), requiredBalance(accepted));
+        if (updated.isPresent()) {
+            complete(accepted, updated.get());
+            return;
+        }
+
+        // Someone outside the coalescer moved the balance in between; apply one at a time.
+        for (PendingDelta d : accepted) {
+            try {
+                d.result.complete(service.updateBalance(accountNumber, d.delta));
+            } catch (RuntimeException ex) {
+                d.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private static long sum(List<PendingDelta> batch) {
+        long sum = 0;
+        for (PendingDelta d : batch) {
+            sum += d.delta;
+        }
+        return sum;
+    }
+
+    // Lowest starting balance for which every prefix of the batch stays >= 0.
+    private static long requiredBalance(List<PendingDelta> batch) {
+        long running = 0;
+        long required = 0;
+        for (PendingDelta d : batch) {
+            running += d.delta;
+            required = Math.max(required, -running);
+        }
+        return required;
+    }
+
+    private static void complete(List<PendingDelta> batch, Account updated) {
+        long balance = updated.getBalance() - sum(batch);
+        for (PendingDelta d : batch) {
+            balance += d.delta;
+            d.result.complete(snapshot(updated, balance));
+        }
+    }
+
+    private static void fail(List<PendingDelta> batch, RuntimeException ex) {
+        batch.forEach(d -> d.result.completeExceptionally(ex));
+    }
+
+    private static Account snapshot(Account account, long balance) {
+        Account copy = new Account(account.getAccountNumber(), account.getHolderName(), balance);
+        copy.setId(account.getId());
+        copy.setActive(account.isActive());
+        return copy;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // already scheduled flushes still run after shutdown()
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static final class Lane {
+        final String accountNumber;
+        final ConcurrentLinkedQueue<PendingDelta> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean busy = new AtomicBoolean(); // a write or flush for this account is under way
+
+        Lane(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+    }
+
+    private static final class PendingDelta {
+        final long delta;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<Account> result = new CompletableFuture<>();
+
+        PendingDelta(long delta) {
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.account_server.service;
+
+/**
+ * A {@code balances:batch} call reused a Batch-Id whose first call has not finished (or was
+ * interrupted part way), so its outcome cannot be reported yet.
+ */
+public class BatchInProgressException extends IllegalStateException {
+
+    public BatchInProgressException(String batchId) {
+        super("Batch " + batchId + " is still in progress");
+    }
+}
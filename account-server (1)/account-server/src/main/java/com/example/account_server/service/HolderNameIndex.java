@@ -0,0 +1,243 @@
+package com.example.account_server.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.model.Account;
+import com.example.account_server.repository.AccountRepository;
+
+/**
+ * In-memory, case-insensitive prefix index over holderName.
+ *
+ * Entries are {@code lowercase(holderName) + '\0' + accountNumber} in a concurrent skip list, so
+ * a prefix lookup is one O(log n) seek followed by an in-order walk of at most {@code limit}
+ * entries, and equal names stay in a stable order for paging. The index is loaded at startup
+ * and updated by writes on this node. Writes from other nodes arrive one of two ways:
+ * <ul>
+ *   <li>default: the periodic reload ({@code accounts.search.refresh-interval}). An account
+ *       created or imported on another node is missing from this node's search results until
+ *       the next reload, up to one interval plus the reload time.</li>
+ *   <li>{@code accounts.search.change-stream=true} (replica set required): a Mongo change stream
+ *       on accounts adds them within about a second. After the stream breaks, it resumes where
+ *       it stopped or, if that is no longer possible, reopens and reloads the index. If it cannot
+ *       be opened at all, the node falls back to the periodic reload.</li>
+ * </ul>
+ */
+@Component
+public class HolderNameIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(HolderNameIndex.class);
+
+    private static final char SEPARATOR = '\0';
+
+    // new accounts, replaced documents and renames; balance updates are filtered out by Mongo
+    private static final List<Bson> HOLDER_NAME_CHANGES = List.of(Aggregates.match(Filters.or(
+            Filters.in("operationType", "insert", "replace"),
+            Filters.exists("updateDescription.updatedFields.holderName"))));
+
+    private static final long REOPEN_DELAY_MILLIS = 5_000;
+    private static final int CHANGE_STREAM_FATAL = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final AccountRepository repo;
+    private final MongoTemplate mongoTemplate;
+    private final boolean changeStream;
+
+    private volatile Entries current = new Entries();
+    private volatile Entries loading;            // non-null while a reload is streaming accounts
+    private volatile boolean ready;
+    private volatile boolean stopped;
+    private Thread watcher;
+
+    public HolderNameIndex(AccountRepository repo, MongoTemplate mongoTemplate, MeterRegistry registry,
+                           @Value("${accounts.search.change-stream:false}") boolean changeStream) {
+        this.repo = repo;
+        this.mongoTemplate = mongoTemplate;
+        this.changeStream = changeStream;
+        Gauge.builder("accounts.search.index.size", this, i -> i.current.keys.size())
+                .description("Entries in the holder name prefix index")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!changeStream) {
+            reload();
+            return;
+        }
+        // the watcher opens the stream before loading, so nothing written in between is missed
+        watcher = new Thread(this::watch, "holder-name-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+        BsonDocument resumeToken = null;
+        boolean opened = false;
+        while (!stopped) {
+            var stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class))
+                    .watch(HOLDER_NAME_CHANGES)
+                    .fullDocument(FullDocument.UPDATE_LOOKUP);
+            if (resumeToken != null) {
+                stream = stream.resumeAfter(resumeToken);
+            }
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                if (resumeToken == null) {
+                    reload();
+                }
+                opened = true;
+                while (!stopped) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null && change.getFullDocument() != null) {
+                        put(mongoTemplate.getConverter().read(Account.class, change.getFullDocument()));
+                    }
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            } catch (RuntimeException ex) {
+                if (stopped) {
+                    return;
+                }
+                if (!opened) {
+                    log.error("Could not open a change stream on accounts (replica set required); "
+                            + "the holder name index is only refreshed by its periodic reload", ex);
+                    reload();
+                    return;
+                }
+                log.warn("Holder name change stream failed, reopening: {}", ex.getMessage());
+                if (ex instanceof MongoException mongo
+                        && (mongo.getCode() == CHANGE_STREAM_HISTORY_LOST || mongo.getCode() == CHANGE_STREAM_FATAL)) {
+                    resumeToken = null; // cannot resume: reopen from now and reload
+                }
+                try {
+                    Thread.sleep(REOPEN_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${accounts.search.refresh-interval:PT5M}",
+               initialDelayString = "${accounts.search.refresh-interval:PT5M}")
+    public void reload() {
+        long start = System.nanoTime();
+        Entries next = new Entries();
+        loading = next;
+        try (Stream<Account> accounts = repo.streamAll(new AccountFilter())) {
+            accounts.forEach(next::put);
+        } catch (RuntimeException ex) {
+            loading = null;
+            log.error("Could not load the holder name index", ex);
+            return;
+        }
+        current = next;
+        loading = null;
+        ready = true;
+        log.info("Loaded {} holder names in {} ms", next.keys.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Account account) {
+        current.put(account);
+        Entries next = loading;
+        if (next != null) {
+            next.put(account);
+        }
+    }
+
+    /**
+     * Account numbers whose holder name starts with {@code prefix} (ignoring case), ordered by
+     * name then account number. {@code after} is a cursor returned by {@link #cursorOf}.
+     */
+    public List<String> search(String prefix, String after, int limit) {
+        String lower = normalize(prefix);
+        NavigableSet<String> tail = after == null
+                ? current.keys.tailSet(lower, true)
+                : current.keys.tailSet(decodeCursor(after), false);
+        List<String> accountNumbers = new ArrayList<>(limit);
+        Iterator<String> it = tail.iterator();
+        while (accountNumbers.size() < limit && it.hasNext()) {
+            String key = it.next();
+            if (!key.startsWith(lower)) {
+                break;
+            }
+            accountNumbers.add(key.substring(key.lastIndexOf(SEPARATOR) + 1));
+        }
+        return accountNumbers;
+    }
+
+    /** Opaque cursor positioned just after the given account in the name order. */
+    public String cursorOf(String accountNumber) {
+        String key = current.byAccount.get(accountNumber);
+        return key == null ? null
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        stopped = true;
+        if (watcher != null) {
+            watcher.join(REOPEN_DELAY_MILLIS);
+        }
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entries {
+        final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+        final ConcurrentHashMap<String, String> byAccount = new ConcurrentHashMap<>();
+
+        void put(Account account) {
+            String key = normalize(account.getHolderName()) + SEPARATOR + account.getAccountNumber();
+            String previous = byAccount.put(account.getAccountNumber(), key);
+            if (previous != null && !previous.equals(key)) {
+                keys.remove(previous);
+            }
+            keys.add(key);
+        }
+    }
+}
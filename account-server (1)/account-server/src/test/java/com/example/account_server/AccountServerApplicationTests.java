@@ -2,10 +2,16 @@ package com.example.account_server;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import com.example.account_server.config.MongoIndexInitializer;
 
 @SpringBootTest
 class AccountServerApplicationTests {
 
+	// no MongoDB in the unit test build; index creation would fail startup
+	@MockitoBean
+	MongoIndexInitializer indexInitializer;
+
 	@Test
 	void contextLoads() {
 	}
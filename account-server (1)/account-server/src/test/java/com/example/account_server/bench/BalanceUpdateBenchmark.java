@@ -0,0 +1,111 @@
+package com.example.account_server.bench;
+
+import com.example.account_server.dto.BalanceUpdateRequest;
+import com.example.account_server.model.Account;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-process part of {@code PUT /api/accounts/{accountNumber}/balance} before and after the
+ * switch from {@code Double} major units to {@code long} minor units: Jackson binds the request
+ * body into the request DTO (configured as in application.yaml), the delta is read back and
+ * guarded against overdraft, and the new balance is stored on the account. The Mongo write that
+ * follows in production is left out; it dominates the latency of the real call.
+ *
+ * Amounts are random and mostly above 127, so {@code Long.valueOf} cannot hand out cached boxes.
+ * Both variants allocate (parser state, the DTO, the boxed amount); compare gc.alloc.rate.norm
+ * rather than expecting zero.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.account_server.bench.BalanceUpdateBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BalanceUpdateBenchmark {
+
+    private static final int BODIES = 1024;
+
+    // shape of the request and account before the change
+    public static final class DoubleUpdateRequest {
+        private Double amount;
+
+        public Double getAmount() { return amount; }
+        public void setAmount(Double amount) { this.amount = amount; }
+    }
+
+    static final class DoubleAccount {
+        Double balance;
+    }
+
+    private ObjectReader longReader;
+    private ObjectReader doubleReader;
+    private byte[][] minorUnitBodies;
+    private byte[][] majorUnitBodies;
+    private Account account;
+    private DoubleAccount doubleAccount;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.ACCEPT_FLOAT_AS_INT);
+        longReader = mapper.readerFor(BalanceUpdateRequest.class);
+        doubleReader = mapper.readerFor(DoubleUpdateRequest.class);
+        SplittableRandom random = new SplittableRandom(42);
+        minorUnitBodies = new byte[BODIES][];
+        majorUnitBodies = new byte[BODIES][];
+        for (int b = 0; b < BODIES; b++) {
+            long cents = random.nextLong(1, 1_000_000);
+            minorUnitBodies[b] = ("{\"amount\":" + cents + "}").getBytes(StandardCharsets.UTF_8);
+            majorUnitBodies[b] = ("{\"amount\":" + cents / 100 + "." + String.format("%02d", cents % 100) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        account = new Account("ACC1", "Bench", 0L);
+        doubleAccount = new DoubleAccount();
+        doubleAccount.balance = 0.0;
+    }
+
+    @Benchmark
+    public long longMinorUnits() throws IOException {
+        BalanceUpdateRequest req = longReader.readValue(minorUnitBodies[i++ & (BODIES - 1)]);
+        long newBalance = account.getBalance() + req.getAmount();
+        if (newBalance < 0) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+        account.setBalance(newBalance);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public Double doubleMajorUnits() throws IOException {
+        DoubleUpdateRequest req = doubleReader.readValue(majorUnitBodies[i++ & (BODIES - 1)]);
+        double newBalance = doubleAccount.balance + req.getAmount();
+        if (newBalance < 0) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+        doubleAccount.balance = newBalance;
+        return doubleAccount.balance;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BalanceUpdateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.account_server.bench;
+
+import com.example.account_server.model.Account;
+import com.example.account_server.service.HolderNameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefix lookups against a holder name index of a few million generated names, with 1 to 4
+ * letter prefixes (short prefixes match many names, so they exercise the page limit).
+ * No Mongo: the index is filled directly and the repository is never called.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.account_server.bench.HolderNameIndexBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HolderNameIndexBenchmark {
+
+    private static final String[] FIRST = {"Aarav", "Aditi", "Ananya", "Arjun", "Diya", "Ishaan", "Kabir",
+            "Meera", "Neha", "Priya", "Rahul", "Riya", "Rohan", "Rohit", "Sanya", "Vikram", "Zoya"};
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"1000000", "3000000"})
+    public int names;
+
+    @Param({"20"})
+    public int limit;
+
+    private HolderNameIndex index;
+    private String[] prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new HolderNameIndex(null, null, new SimpleMeterRegistry(), false);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < names; i++) {
+            index.put(new Account("ACC" + i, randomName(random), 0L));
+        }
+        prefixes = new String[4096];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = randomName(random);
+            prefixes[i] = name.substring(0, 1 + random.nextInt(4));
+        }
+    }
+
+    private static String randomName(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder(FIRST[random.nextInt(FIRST.length)]).append(' ');
+        sb.append(Character.toUpperCase(LETTERS.charAt(random.nextInt(26))));
+        for (int j = 0; j < 6; j++) {
+            sb.append(LETTERS.charAt(random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+    }
+
+    @Benchmark
+    public List<String> prefixSearch(Cursor c) {
+        return index.search(prefixes[c.i++ & (prefixes.length - 1)], null, limit);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HolderNameIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.account_server.job;
+
+import com.example.account_server.model.Account;
+import com.example.account_server.service.AccountCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class InterestAccrualJobMongoTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final LocalDate DAY1 = LocalDate.of(2024, 5, 30);
+    private static final LocalDate DAY2 = LocalDate.of(2024, 5, 31);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private InterestAccrualJob job;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Account.class);
+        mongoTemplate.dropCollection(AccrualCheckpoint.class);
+        mongoTemplate.dropCollection("job_locks");
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    private InterestAccrualJob job(long dailyFee) {
+        // 3.65% a year = 0.01% a day; two accounts per range so that several ranges are checkpointed
+        job = new InterestAccrualJob(mongoTemplate, mock(AccountCache.class), new SimpleMeterRegistry(),
+                false, ZoneId.of("UTC"), 365, dailyFee, 365, 2, 2, 2, Duration.ofMinutes(5));
+        return job;
+    }
+
+    private long balance(String accountNumber) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("accountNumber").is(accountNumber)), Account.class).getBalance();
+    }
+
+    @Test
+    void interest_matchesDailyDelta_andRerunsForTheSameDateChangeNothing() {
+        mongoTemplate.insert(new Account("ACC1", "A", 1_000_000L));
+        mongoTemplate.insert(new Account("ACC2", "B", 5_000L));   // 0.5 rounds to 0
+        mongoTemplate.insert(new Account("ACC3", "C", 15_000L));  // 1.5 rounds to 2
+        InterestAccrualJob accrual = job(0);
+
+        assertEquals(InterestAccrualJob.State.COMPLETED, accrual.run(DAY2));
+        AccrualCheckpoint checkpoint = mongoTemplate.findById(DAY2.toString(), AccrualCheckpoint.class);
+        assertEquals(2, checkpoint.getLowerBounds().size());
+        assertEquals(2, checkpoint.getCompletedRanges().size());
+        assertNotNull(checkpoint.getFinishedAt());
+
+        // again, and again without the checkpoint: the per-account guard keeps it at one accrual
+        assertEquals(InterestAccrualJob.State.COMPLETED, accrual.run(DAY2));
+        mongoTemplate.dropCollection(AccrualCheckpoint.class);
+        assertEquals(InterestAccrualJob.State.COMPLETED, accrual.run(DAY2));
+
+        assertEquals(1_000_100L, balance("ACC1"));
+        assertEquals(5_000L, balance("ACC2"));
+        assertEquals(15_002L, balance("ACC3"));
+    }
+
+    @Test
+    void olderDate_afterANewerOne_isNotApplied_andFeesNeverOverdraw() {
+        mongoTemplate.insert(new Account("ACC1", "A", 1_000_000L));
+        mongoTemplate.insert(new Account("ACC2", "B", 10L));
+        InterestAccrualJob accrual = job(50);
+
+        accrual.run(DAY2);
+        accrual.run(DAY1);
+
+        assertEquals(1_000_050L, balance("ACC1")); // +100 interest -50 fee, once
+        assertEquals(10L, balance("ACC2"));        // the fee would take it below zero
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.account_server.job;
+
+import com.example.account_server.service.AccountCache;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InterestAccrualJobTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 31);
+
+    private final MongoTemplate mongo = mock(MongoTemplate.class);
+    private final AccountCache cache = mock(AccountCache.class);
+    private InterestAccrualJob job;
+
+    private InterestAccrualJob job(long annualRateBps, long dailyFee) {
+        job = new InterestAccrualJob(mongo, cache, new SimpleMeterRegistry(),
+                false, ZoneId.of("UTC"), annualRateBps, dailyFee, 365, 10_000, 1000, 1, Duration.ofMinutes(5));
+        return job;
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    void dailyDelta_roundsHalfEvenInMinorUnits() {
+        InterestAccrualJob accrual = job(365, 0); // 3.65% a year = 0.01% a day
+        assertEquals(100L, accrual.dailyDelta(1_000_000L));
+        assertEquals(0L, accrual.dailyDelta(5_000L));   // 0.5 -> 0
+        assertEquals(2L, accrual.dailyDelta(15_000L));  // 1.5 -> 2
+    }
+
+    @Test
+    void dailyDelta_subtractsFee() {
+        assertEquals(-25L, job(0, 25).dailyDelta(1_000L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumedRun_processesOnlyUnfinishedRanges_andCheckpointsEachOne() {
+        InterestAccrualJob accrual = job(365, 0);
+        AccrualCheckpoint checkpoint = new AccrualCheckpoint(DATE.toString(), List.of("", "ACC5"), null);
+        checkpoint.setCompletedRanges(new ArrayList<>(List.of(0))); // range 0 finished before a restart
+        when(mongo.findById(DATE.toString(), AccrualCheckpoint.class)).thenReturn(checkpoint);
+        when(mongo.stream(any(Query.class), eq(Document.class), eq("accounts")))
+                .thenAnswer(inv -> Stream.of(new Document("accountNumber", "ACC7")));
+        BulkOperations ops = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(written.getModifiedCount()).thenReturn(1);
+        when(ops.execute()).thenReturn(written);
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, "accounts")).thenReturn(ops);
+        when(mongo.updateFirst(any(Query.class), any(UpdateDefinition.class), anyString())).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertEquals(InterestAccrualJob.State.COMPLETED, accrual.run(DATE));
+
+        // only range 1 is scanned, and only accounts not accrued for this date or a later one
+        ArgumentCaptor<Query> scans = ArgumentCaptor.forClass(Query.class);
+        verify(mongo, times(1)).stream(scans.capture(), eq(Document.class), eq("accounts"));
+        Document scan = scans.getValue().getQueryObject();
+        assertEquals(new Document("$gte", "ACC5"), scan.get("accountNumber"));
+        assertEquals(new Document("$not", new Document("$gte", "2024-05-31")), scan.get("lastAccrualDate"));
+        verify(ops).updateOne(argThat((Query q) -> "ACC7".equals(q.getQueryObject().get("accountNumber"))), any(UpdateDefinition.class));
+        verify(cache).evict("ACC7");
+
+        ArgumentCaptor<UpdateDefinition> checkpoints = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongo, atLeastOnce()).updateFirst(any(Query.class), checkpoints.capture(), eq(AccrualCheckpoint.class));
+        assertEquals(new Document("completedRanges", 1), checkpoints.getAllValues().get(0).getUpdateObject().get("$addToSet"));
+        assertEquals(1L, accrual.progress().get("accountsUpdated"));
+        verify(mongo).remove(any(Query.class), eq("job_locks")); // lock released
+    }
+
+    @Test
+    void lockHeldByAnotherNode_skipsTheRun() {
+        InterestAccrualJob accrual = job(365, 0);
+        when(mongo.upsert(any(Query.class), any(UpdateDefinition.class), eq("job_locks")))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertEquals(InterestAccrualJob.State.RUNNING, accrual.run(DATE));
+
+        verify(mongo, never()).findById(any(), eq(AccrualCheckpoint.class));
+        verify(mongo, never()).remove(any(Query.class), eq("job_locks"));
+        assertEquals(InterestAccrualJob.State.IDLE, accrual.progress().get("state"));
+    }
+
+    @Test
+    void failureBeforeTheFirstRange_isReportedOnThisRun() {
+        InterestAccrualJob accrual = job(365, 0);
+        when(mongo.findById(DATE.toString(), AccrualCheckpoint.class))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertEquals(InterestAccrualJob.State.FAILED, accrual.run(DATE));
+
+        assertEquals(InterestAccrualJob.State.FAILED, accrual.progress().get("state"));
+        assertEquals("2024-05-31", accrual.progress().get("businessDate"));
+        verify(mongo).remove(any(Query.class), eq("job_locks"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.account_server.repository;
+
+import com.example.account_server.model.Account;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class AccountRepositoryConcurrencyTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private AccountRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        repo.deleteAll();
+    }
+
+    @Test
+    void incrementBalance_parallelDeltas_noLostUpdates() throws Exception {
+        repo.save(new Account("HOT1", "Merchant", 10_000L));
+
+        // 2000 deposits of 5 and 2000 withdrawals of 3, interleaved
+        List<Long> deltas = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            deltas.add(5L);
+            deltas.add(-3L);
+        }
+
+        int applied = runInParallel(deltas, "HOT1");
+
+        assertEquals(4000, applied);
+        assertEquals(10_000L + 2000 * 5L - 2000 * 3L,
+                repo.findByAccountNumber("HOT1").orElseThrow().getBalance());
+    }
+
+    @Test
+    void incrementBalance_parallelWithdrawals_neverOverdraws() throws Exception {
+        repo.save(new Account("HOT2", "Fees", 100L));
+
+        List<Long> deltas = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            deltas.add(-1L);
+        }
+
+        int applied = runInParallel(deltas, "HOT2");
+
+        assertEquals(100, applied);
+        assertEquals(0L, repo.findByAccountNumber("HOT2").orElseThrow().getBalance());
+    }
+
+    @Test
+    void incrementBalance_inactiveAccount_notApplied() {
+        Account a = new Account("OFF1", "Closed", 50L);
+        a.setActive(false);
+        repo.save(a);
+
+        assertTrue(repo.incrementBalance("OFF1", 10L).isEmpty());
+        assertEquals(50L, repo.findByAccountNumber("OFF1").orElseThrow().getBalance());
+    }
+
+    @Test
+    void incrementBalances_concurrentBatches_reportExactlyTheAppliedIncrements() throws Exception {
+        repo.save(new Account("HOT3", "Shared", 1_000L));
+
+        // every batch also targets a missing account, so it has to look up what it applied
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                long delta = i % 2 == 0 ? 7L : -3L;
+                results.add(pool.submit(() -> repo.incrementBalances(List.of(
+                        new BalanceIncrement("HOT3", delta, Math.max(0L, -delta)),
+                        new BalanceIncrement("MISSING", 1L, 0L))).contains("HOT3") ? 1 : 0));
+            }
+            int applied = 0;
+            for (Future<Integer> f : results) {
+                applied += f.get();
+            }
+            assertEquals(500, applied);
+        } finally {
+            pool.shutdownNow();
+        }
+        Account hot = repo.findByAccountNumber("HOT3").orElseThrow();
+        assertEquals(1_000L + 250 * 7L - 250 * 3L, hot.getBalance());
+        assertTrue(hot.getPendingBatchIds() == null || hot.getPendingBatchIds().isEmpty());
+    }
+
+    private int runInParallel(List<Long> deltas, String accountNumber) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Long delta : deltas) {
+                results.add(pool.submit(() -> repo.incrementBalance(accountNumber, delta).isPresent()));
+            }
+            int applied = 0;
+            for (Future<Boolean> f : results) {
+                if (f.get()) {
+                    applied++;
+                }
+            }
+            return applied;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
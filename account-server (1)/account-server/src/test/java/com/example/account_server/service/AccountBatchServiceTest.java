@@ -0,0 +1,127 @@
+package com.example.account_server.service;
+
+import com.example.account_server.dto.BalanceDelta;
+import com.example.account_server.dto.BalanceDeltaResult;
+import com.example.account_server.model.Account;
+import com.example.account_server.model.BalanceBatch;
+import com.example.account_server.repository.AccountRepository;
+import com.example.account_server.repository.BalanceBatchRepository;
+import com.example.account_server.repository.BalanceIncrement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountBatchServiceTest {
+
+    private AccountRepository repo;
+    private BalanceBatchRepository batches;
+    private AccountBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(AccountRepository.class);
+        batches = mock(BalanceBatchRepository.class);
+        service = new AccountBatchService(repo, mock(AccountCache.class), batches, 1000);
+    }
+
+    @Test
+    void chunkSize_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new AccountBatchService(repo, mock(AccountCache.class), batches, 0));
+    }
+
+    @Test
+    void updateBalances_reportsStatusPerItem_withOneBulkWrite() {
+        Account closed = new Account("OFF", "Closed", 10L);
+        closed.setActive(false);
+        when(repo.findByAccountNumberIn(anyCollection()))
+                .thenReturn(List.of(new Account("A", "Alice", 100L), closed));
+        when(repo.incrementBalances(anyList())).thenReturn(Set.of("A"));
+
+        List<BalanceDeltaResult> results = service.updateBalances(List.of(
+                new BalanceDelta("A", -80L),
+                new BalanceDelta("A", -30L),   // would overdraw after the first one
+                new BalanceDelta("A", 5L),
+                new BalanceDelta("OFF", 1L),
+                new BalanceDelta("NONE", 1L),
+                new BalanceDelta(null, 1L)));
+
+        assertEquals(List.of(BalanceDeltaResult.APPLIED, BalanceDeltaResult.INSUFFICIENT_FUNDS,
+                        BalanceDeltaResult.APPLIED, BalanceDeltaResult.INACTIVE,
+                        BalanceDeltaResult.NOT_FOUND, BalanceDeltaResult.INVALID),
+                results.stream().map(BalanceDeltaResult::getStatus).toList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BalanceIncrement>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repo, times(1)).incrementBalances(captor.capture());
+        BalanceIncrement inc = captor.getValue().get(0);
+        assertEquals("A", inc.getAccountNumber());
+        assertEquals(-75L, inc.getDelta());
+        assertEquals(80L, inc.getRequiredBalance());
+        verify(repo, never()).incrementBalance(anyString(), anyLong());
+    }
+
+    @Test
+    void updateBalances_balanceMovedConcurrently_fallsBackPerItem() {
+        when(repo.findByAccountNumberIn(anyCollection())).thenReturn(List.of(new Account("A", "Alice", 100L)));
+        when(repo.incrementBalances(anyList())).thenReturn(Set.of());
+        when(repo.incrementBalance("A", -60L)).thenReturn(Optional.of(new Account("A", "Alice", 0L)));
+        when(repo.incrementBalance("A", -40L)).thenReturn(Optional.empty());
+        when(repo.findByAccountNumber("A")).thenReturn(Optional.of(new Account("A", "Alice", 0L)));
+
+        List<BalanceDeltaResult> results = service.updateBalances(List.of(
+                new BalanceDelta("A", -60L),
+                new BalanceDelta("A", -40L)));
+
+        assertEquals(BalanceDeltaResult.APPLIED, results.get(0).getStatus());
+        assertEquals(BalanceDeltaResult.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+    }
+
+    @Test
+    void updateBalances_newBatchId_appliesAndStoresResults() {
+        when(repo.findByAccountNumberIn(anyCollection())).thenReturn(List.of(new Account("A", "Alice", 100L)));
+        when(repo.incrementBalances(anyList())).thenReturn(Set.of("A"));
+
+        List<BalanceDeltaResult> results = service.updateBalances(List.of(new BalanceDelta("A", -10L)), "B1");
+
+        assertEquals(BalanceDeltaResult.APPLIED, results.get(0).getStatus());
+        ArgumentCaptor<BalanceBatch> saved = ArgumentCaptor.forClass(BalanceBatch.class);
+        verify(batches).save(saved.capture());
+        assertEquals(BalanceBatch.Status.DONE, saved.getValue().getStatus());
+        assertEquals(results, saved.getValue().getResults());
+    }
+
+    @Test
+    void updateBalances_repeatedBatchId_returnsStoredResults_withoutApplyingAgain() {
+        BalanceBatch done = new BalanceBatch("B1", 1, Instant.now());
+        done.setStatus(BalanceBatch.Status.DONE);
+        done.setResults(List.of(new BalanceDeltaResult("A", -10L, BalanceDeltaResult.APPLIED)));
+        when(batches.insert(any(BalanceBatch.class))).thenThrow(new DuplicateKeyException("B1"));
+        when(batches.findById("B1")).thenReturn(Optional.of(done));
+
+        List<BalanceDeltaResult> results = service.updateBalances(List.of(new BalanceDelta("A", -10L)), "B1");
+
+        assertEquals(BalanceDeltaResult.APPLIED, results.get(0).getStatus());
+        verify(repo, never()).incrementBalances(anyList());
+        verify(repo, never()).incrementBalance(anyString(), anyLong());
+    }
+
+    @Test
+    void updateBalances_batchIdStillInProgress_isRefused() {
+        when(batches.insert(any(BalanceBatch.class))).thenThrow(new DuplicateKeyException("B1"));
+        when(batches.findById("B1")).thenReturn(Optional.of(new BalanceBatch("B1", 1, Instant.now())));
+
+        assertThrows(BatchInProgressException.class,
+                () -> service.updateBalances(List.of(new BalanceDelta("A", -10L)), "B1"));
+        verify(repo, never()).incrementBalances(anyList());
+    }
+}
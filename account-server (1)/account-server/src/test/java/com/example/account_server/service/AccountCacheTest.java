@@ -0,0 +1,77 @@
+package com.example.account_server.service;
+
+import com.example.account_server.model.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheTest {
+
+    private final AccountCache cache = new AccountCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+
+    private static Account account(long balance) {
+        Account a = new Account();
+        a.setAccountNumber("ACC1");
+        a.setBalance(balance);
+        return a;
+    }
+
+    @Test
+    void concurrentMisses_shareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Optional<Account>> first = CompletableFuture.supplyAsync(() -> cache.get("ACC1", n -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return Optional.of(account(10));
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<Account>> second = CompletableFuture.supplyAsync(() -> cache.get("ACC1", n -> {
+            loads.incrementAndGet();
+            return Optional.of(account(99));
+        }));
+        release.countDown();
+
+        assertEquals(10, first.get(5, TimeUnit.SECONDS).orElseThrow().getBalance());
+        assertEquals(10, second.get(5, TimeUnit.SECONDS).orElseThrow().getBalance());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictDuringLoad_doesNotStoreTheOldValue() {
+        Optional<Account> loaded = cache.get("ACC1", n -> {
+            cache.evict("ACC1"); // a write lands while the read is in flight
+            return Optional.of(account(10));
+        });
+        assertEquals(10, loaded.orElseThrow().getBalance());
+
+        assertEquals(20, cache.get("ACC1", n -> Optional.of(account(20))).orElseThrow().getBalance());
+    }
+
+    @Test
+    void missingAccounts_andLoaderFailures_areNotCached() {
+        assertTrue(cache.get("ACC1", n -> Optional.empty()).isEmpty());
+        assertThrows(IllegalStateException.class, () -> cache.get("ACC1", n -> {
+            throw new IllegalStateException("mongo down");
+        }));
+        assertEquals(5, cache.get("ACC1", n -> Optional.of(account(5))).orElseThrow().getBalance());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.account_server.service;
+
+import com.example.account_server.dto.ImportSummary;
+import com.example.account_server.model.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountImportServiceTest {
+
+    private AccountService accounts;
+    private AccountImportService service;
+
+    @BeforeEach
+    void setUp() {
+        accounts = mock(AccountService.class);
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        service = new AccountImportService(accounts, validator, new ObjectMapper(), 2, 10);
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importNdjson_insertsInBatches_andReportsBadRowsByLine() throws Exception {
+        when(accounts.createAccounts(anyList())).thenReturn(Map.of());
+        when(accounts.createAccounts(argThat(l -> l != null && l.size() == 2
+                && "DUP".equals(((Account) l.get(1)).getAccountNumber()))))
+                .thenReturn(Map.of(1, "Account already exists: DUP"));
+
+        ImportSummary summary = service.importAccounts(body(
+                "{\"accountNumber\":\"A\",\"holderName\":\"Alice\",\"balance\":100}\n" +
+                "{\"accountNumber\":\"DUP\",\"holderName\":\"Dup\",\"balance\":1}\n" +
+                "\n" +
+                "{\"accountNumber\":\"B\",\"holderName\":\"\",\"balance\":5}\n" +
+                "not json\n" +
+                "{\"accountNumber\":\"C\",\"holderName\":\"Carol\",\"balance\":-1}\n" +
+                "{\"accountNumber\":\"D\",\"holderName\":\"Dan\",\"balance\":7}\n"),
+                AccountImportService.Format.NDJSON);
+
+        assertEquals(6, summary.getReceived());
+        assertEquals(2, summary.getInserted());
+        assertEquals(4, summary.getFailed());
+        assertEquals(List.of(2L, 4L, 5L, 6L),
+                summary.getErrors().stream().map(ImportSummary.RowError::getLine).sorted().toList());
+        verify(accounts, times(2)).createAccounts(anyList());
+    }
+
+    @Test
+    void importNdjson_nullAndNonObjectLines_areRowErrors() throws Exception {
+        when(accounts.createAccounts(anyList())).thenReturn(Map.of());
+
+        ImportSummary summary = service.importAccounts(body(
+                "null\n" +
+                " [1]\n" +
+                "42\n" +
+                "{\"accountNumber\":\"A\",\"holderName\":\"Alice\",\"balance\":100}\n"),
+                AccountImportService.Format.NDJSON);
+
+        assertEquals(1, summary.getInserted());
+        assertEquals(3, summary.getFailed());
+        assertTrue(summary.getErrors().stream().allMatch(e -> "Expected a JSON object".equals(e.getError())));
+    }
+
+    @Test
+    void importCsv_readsHeaderAndQuotedFields() throws Exception {
+        when(accounts.createAccounts(anyList())).thenReturn(Map.of());
+
+        ImportSummary summary = service.importAccounts(body(
+                "holderName,accountNumber,balance,active\n" +
+                "\"Smith, \"\"Jo\"\"\",ACC1,250,false\n"),
+                AccountImportService.Format.CSV);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Account>> captor = ArgumentCaptor.forClass(List.class);
+        verify(accounts).createAccounts(captor.capture());
+        Account acc = captor.getValue().get(0);
+        assertEquals("ACC1", acc.getAccountNumber());
+        assertEquals("Smith, \"Jo\"", acc.getHolderName());
+        assertEquals(250L, acc.getBalance());
+        assertFalse(acc.isActive());
+        assertEquals(1, summary.getInserted());
+    }
+
+    @Test
+    void importCsv_missingColumn_rejectsUpload() {
+        assertThrows(IllegalArgumentException.class, () -> service.importAccounts(
+                body("accountNumber,balance\nA,1\n"), AccountImportService.Format.CSV));
+        verifyNoInteractions(accounts);
+    }
+}
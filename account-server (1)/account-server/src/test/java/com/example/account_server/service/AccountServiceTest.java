@@ -1,11 +1,15 @@
 package com.example.account_server.service;
 
 
+import com.example.account_server.dto.AccountFilter;
+import com.example.account_server.dto.AccountPage;
 import com.example.account_server.model.Account;
 import com.example.account_server.repository.AccountRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DuplicateKeyException;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +20,12 @@ class AccountServiceTest {
     @Mock
     private AccountRepository repo;
 
+    @Mock
+    private AccountCache cache;
+
+    @Mock
+    private HolderNameIndex nameIndex;
+
     @InjectMocks
     private AccountService service;
 
@@ -26,21 +36,21 @@ class AccountServiceTest {
 
     @Test
     void createAccount_success() {
-        Account a = new Account("ACC100", "Rohit", 1000.0);
-        when(repo.existsByAccountNumber("ACC100")).thenReturn(false);
-        when(repo.save(any(Account.class))).thenReturn(a);
+        Account a = new Account("ACC100", "Rohit", 1000L);
+        when(repo.insert(any(Account.class))).thenReturn(a);
 
         Account created = service.createAccount(a);
 
         assertNotNull(created);
         assertEquals("ACC100", created.getAccountNumber());
-        verify(repo, times(1)).save(a);
+        verify(repo, times(1)).insert(a);
+        verify(repo, never()).existsByAccountNumber(any());
     }
 
     @Test
     void createAccount_duplicate_throws() {
-        Account a = new Account("ACC100", "Rohit", 1000.0);
-        when(repo.existsByAccountNumber("ACC100")).thenReturn(true);
+        Account a = new Account("ACC100", "Rohit", 1000L);
+        when(repo.insert(any(Account.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> service.createAccount(a));
         assertTrue(ex.getMessage().contains("Account already exists"));
@@ -49,37 +59,90 @@ class AccountServiceTest {
 
     @Test
     void updateBalance_deposit_success() {
-        Account a = new Account("ACC200","User",500.0);
-        when(repo.findByAccountNumber("ACC200")).thenReturn(Optional.of(a));
-        when(repo.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
+        Account a = new Account("ACC200","User",700L);
+        when(repo.incrementBalance("ACC200", 200L)).thenReturn(Optional.of(a));
 
-        Account updated = service.updateBalance("ACC200", 200.0);
+        Account updated = service.updateBalance("ACC200", 200L);
 
-        assertEquals(700.0, updated.getBalance());
-        verify(repo).save(any(Account.class));
+        assertEquals(700L, updated.getBalance());
+        verify(repo).incrementBalance("ACC200", 200L);
+        verify(repo, never()).findByAccountNumber(any());
+        verify(repo, never()).save(any());
     }
 
     @Test
     void updateBalance_withdraw_insufficient_throws() {
-        Account a = new Account("ACC300","User",50.0);
+        Account a = new Account("ACC300","User",50L);
+        when(repo.incrementBalance("ACC300", -100L)).thenReturn(Optional.empty());
         when(repo.findByAccountNumber("ACC300")).thenReturn(Optional.of(a));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                () -> service.updateBalance("ACC300", -100.0));
+                () -> service.updateBalance("ACC300", -100L));
         assertTrue(ex.getMessage().toLowerCase().contains("insufficient"));
         verify(repo, never()).save(any());
     }
 
     @Test
     void updateBalance_inactiveAccount_throws() {
-        Account a = new Account("ACC400","User",500.0);
+        Account a = new Account("ACC400","User",500L);
         a.setActive(false);
+        when(repo.incrementBalance("ACC400", 100L)).thenReturn(Optional.empty());
         when(repo.findByAccountNumber("ACC400")).thenReturn(Optional.of(a));
 
         IllegalStateException ex = assertThrows(IllegalStateException.class,
-                () -> service.updateBalance("ACC400", 100.0));
+                () -> service.updateBalance("ACC400", 100L));
         assertTrue(ex.getMessage().toLowerCase().contains("inactive"));
         verify(repo, never()).save(any());
     }
-}
 
+    @Test
+    void updateBalance_evictsCachedAccount() {
+        when(repo.incrementBalance("ACC600", 10L)).thenReturn(Optional.of(new Account("ACC600","User",20L)));
+
+        service.updateBalance("ACC600", 10L);
+
+        verify(cache).evict("ACC600");
+    }
+
+    @Test
+    void listAccounts_fullPage_returnsCursorOfLastItem() {
+        AccountFilter filter = new AccountFilter();
+        when(repo.findPage(filter, "ACC1", 2)).thenReturn(List.of(
+                new Account("ACC2","A",1L), new Account("ACC3","B",2L)));
+
+        AccountPage page = service.listAccounts(filter, "ACC1", 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("ACC3", page.getNextCursor());
+    }
+
+    @Test
+    void listAccounts_lastPage_hasNoCursor() {
+        AccountFilter filter = new AccountFilter();
+        when(repo.findPage(filter, null, 2)).thenReturn(List.of(new Account("ACC2","A",1L)));
+
+        assertNull(service.listAccounts(filter, null, 2).getNextCursor());
+    }
+
+    @Test
+    void updateBalance_unknownAccount_throws() {
+        when(repo.incrementBalance("ACC500", 100L)).thenReturn(Optional.empty());
+        when(repo.findByAccountNumber("ACC500")).thenReturn(Optional.empty());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> service.updateBalance("ACC500", 100L));
+        assertTrue(ex.getMessage().contains("Account not found"));
+    }
+
+    @Test
+    void updateStatus_setsOnlyTheFlag_withoutFullSave() {
+        Account inactive = new Account("ACC700","User",20L);
+        inactive.setActive(false);
+        when(repo.updateActive("ACC700", false)).thenReturn(Optional.of(inactive));
+
+        assertFalse(service.updateStatus("ACC700", false).isActive());
+
+        verify(repo, never()).save(any());
+        verify(cache).evict("ACC700");
+    }
+}
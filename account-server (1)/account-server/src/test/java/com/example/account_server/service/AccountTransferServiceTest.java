@@ -0,0 +1,136 @@
+package com.example.account_server.service;
+
+import com.example.account_server.dto.TransferResult;
+import com.example.account_server.model.Account;
+import com.example.account_server.model.PendingRefund;
+import com.example.account_server.repository.AccountRepository;
+import com.example.account_server.repository.PendingRefundRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountTransferServiceTest {
+
+    private AccountRepository repo;
+    private AccountService accounts;
+    private AccountCache cache;
+    private PendingRefundRepository refunds;
+    private AccountTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(AccountRepository.class);
+        accounts = mock(AccountService.class);
+        cache = mock(AccountCache.class);
+        refunds = mock(PendingRefundRepository.class);
+        service = new AccountTransferService(repo, accounts, cache, refunds, mock(MongoDatabaseFactory.class), "local");
+    }
+
+    @Test
+    void transfer_debitsThenCredits_andEvictsBoth() {
+        when(repo.incrementBalance("SRC", -200L)).thenReturn(Optional.of(new Account("SRC", "S", 800L)));
+        when(repo.incrementBalance("DST", 200L)).thenReturn(Optional.of(new Account("DST", "D", 1200L)));
+
+        TransferResult result = service.transfer("SRC", "DST", 200L);
+
+        assertEquals(800L, result.getSourceBalance());
+        assertEquals(1200L, result.getDestinationBalance());
+        verify(cache).evict("SRC");
+        verify(cache).evict("DST");
+    }
+
+    @Test
+    void transfer_rejectedCredit_refundsSource() {
+        when(repo.incrementBalance("SRC", -200L)).thenReturn(Optional.of(new Account("SRC", "S", 800L)));
+        when(repo.incrementBalance("DST", 200L)).thenReturn(Optional.empty());
+        when(repo.refund("SRC", 200L)).thenReturn(true);
+        when(accounts.rejectedBalanceUpdate("DST")).thenReturn(new IllegalStateException("Account is inactive: DST"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.transfer("SRC", "DST", 200L));
+
+        assertEquals("Account is inactive: DST", ex.getMessage());
+        verify(repo).refund("SRC", 200L);
+        verify(refunds, never()).save(any());
+    }
+
+    @Test
+    void transfer_refundFails_isRecordedForRetry() {
+        when(repo.incrementBalance("SRC", -200L)).thenReturn(Optional.of(new Account("SRC", "S", 800L)));
+        when(repo.incrementBalance("DST", 200L)).thenReturn(Optional.empty());
+        when(repo.refund("SRC", 200L)).thenThrow(new DataAccessResourceFailureException("connection reset"));
+        when(accounts.rejectedBalanceUpdate("DST")).thenReturn(new IllegalStateException("Account is inactive: DST"));
+
+        assertThrows(IllegalStateException.class, () -> service.transfer("SRC", "DST", 200L));
+
+        ArgumentCaptor<PendingRefund> saved = ArgumentCaptor.forClass(PendingRefund.class);
+        verify(refunds).save(saved.capture());
+        assertEquals("SRC", saved.getValue().getAccountNumber());
+        assertEquals(200L, saved.getValue().getAmount());
+        assertEquals(PendingRefund.Status.PENDING, saved.getValue().getStatus());
+    }
+
+    @Test
+    void transfer_creditThrows_refundsSource_andRethrows() {
+        when(repo.incrementBalance("SRC", -200L)).thenReturn(Optional.of(new Account("SRC", "S", 800L)));
+        when(repo.incrementBalance("DST", 200L)).thenThrow(new DataAccessResourceFailureException("socket timeout"));
+        when(repo.refund("SRC", 200L)).thenReturn(false);
+
+        DataAccessResourceFailureException ex = assertThrows(DataAccessResourceFailureException.class,
+                () -> service.transfer("SRC", "DST", 200L));
+
+        assertEquals("socket timeout", ex.getMessage());
+        verify(repo).refund("SRC", 200L);
+        verify(refunds).save(argThat(r -> "SRC".equals(r.getAccountNumber()) && r.getAmount() == 200L));
+    }
+
+    @Test
+    void transactionMode_retriesTransientConflict_andNeverRefunds() {
+        service = new AccountTransferService(repo, accounts, cache, refunds, TransactionOperations.withoutTransaction());
+        when(repo.incrementBalance("SRC", -200L))
+                .thenThrow(new TransientDataAccessResourceException("write conflict"))
+                .thenReturn(Optional.of(new Account("SRC", "S", 800L)));
+        when(repo.incrementBalance("DST", 200L)).thenReturn(Optional.of(new Account("DST", "D", 1200L)));
+
+        TransferResult result = service.transfer("SRC", "DST", 200L);
+
+        assertEquals(800L, result.getSourceBalance());
+        assertEquals(1200L, result.getDestinationBalance());
+        verify(repo, times(2)).incrementBalance("SRC", -200L);
+        verify(repo, never()).refund(anyString(), anyLong());
+    }
+
+    @Test
+    void transactionMode_rejectedCredit_throwsWithoutCompensating() {
+        service = new AccountTransferService(repo, accounts, cache, refunds, TransactionOperations.withoutTransaction());
+        when(repo.incrementBalance("SRC", -200L)).thenReturn(Optional.of(new Account("SRC", "S", 800L)));
+        when(repo.incrementBalance("DST", 200L)).thenReturn(Optional.empty());
+        when(accounts.rejectedBalanceUpdate("DST")).thenReturn(new IllegalStateException("Account is inactive: DST"));
+
+        assertThrows(IllegalStateException.class, () -> service.transfer("SRC", "DST", 200L));
+
+        // the transaction rolls the debit back; nothing is refunded or recorded
+        verify(repo, never()).refund(anyString(), anyLong());
+        verify(refunds, never()).save(any());
+        verify(cache).evict("SRC");
+    }
+
+    @Test
+    void transfer_insufficientFunds_doesNotTouchDestination() {
+        when(repo.incrementBalance("SRC", -200L)).thenReturn(Optional.empty());
+        when(accounts.rejectedBalanceUpdate("SRC")).thenReturn(new IllegalArgumentException("Insufficient funds. Current balance: 10"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.transfer("SRC", "DST", 200L));
+
+        verify(repo, never()).incrementBalance(eq("DST"), anyLong());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.account_server.service;
+
+import com.example.account_server.model.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BalanceUpdateCoalescerTest {
+
+    private AccountService service;
+    private SimpleMeterRegistry registry;
+    private BalanceUpdateCoalescer coalescer;
+    private final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        service = mock(AccountService.class);
+        registry = new SimpleMeterRegistry();
+        coalescer = coalescer(Duration.ofSeconds(5));
+    }
+
+    private BalanceUpdateCoalescer coalescer(Duration maxWait) {
+        return new BalanceUpdateCoalescer(service, registry, true, Set.of("HOT"),
+                Duration.ofMillis(20), 256, 1, maxWait);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseFirstWrite.countDown();
+        coalescer.shutdown();
+    }
+
+    // Starts a direct write of +1 that blocks until releaseFirstWrite, so later deltas queue up.
+    private CompletableFuture<Account> blockedFirstWrite() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        when(service.updateBalance("HOT", 1L)).thenAnswer(inv -> {
+            writing.countDown();
+            releaseFirstWrite.await();
+            return new Account("HOT", "Merchant", 100L);
+        });
+        CompletableFuture<Account> first = CompletableFuture.supplyAsync(() -> coalescer.updateBalance("HOT", 1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        return first;
+    }
+
+    @Test
+    void handles_onlyConfiguredAccounts() {
+        assertTrue(coalescer.handles("HOT"));
+        assertFalse(coalescer.handles("COLD"));
+    }
+
+    @Test
+    void uncontendedDelta_isWrittenDirectlyOnTheCallersThread() {
+        when(service.updateBalance("HOT", 10L)).thenReturn(new Account("HOT", "Merchant", 110L));
+
+        CompletableFuture<Account> result = coalescer.submit("HOT", 10L);
+
+        assertTrue(result.isDone());
+        assertEquals(110L, result.join().getBalance());
+        verify(service, never()).tryUpdateBalance(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void deltasQueuedBehindAWrite_areCombinedIntoOneWrite_andAnswerEachCaller() throws Exception {
+        CompletableFuture<Account> first = blockedFirstWrite();
+        when(service.tryUpdateBalance("HOT", 30L, 0L))
+                .thenReturn(Optional.of(new Account("HOT", "Merchant", 130L)));
+
+        CompletableFuture<Account> second = coalescer.submit("HOT", 10L);
+        CompletableFuture<Account> third = coalescer.submit("HOT", 20L);
+        releaseFirstWrite.countDown();
+
+        assertEquals(100L, first.join().getBalance());
+        assertEquals(110L, second.join().getBalance());
+        assertEquals(130L, third.join().getBalance());
+        verify(service, times(1)).tryUpdateBalance("HOT", 30L, 0L);
+        assertEquals(2.0, registry.get("accounts.balance.coalesce.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void queuedOverdraft_rejectsOnlyOffendingDelta() throws Exception {
+        blockedFirstWrite();
+        // -60, -60, +10 against a balance of 100: the combined write needs 120 and is refused
+        when(service.tryUpdateBalance("HOT", -110L, 120L)).thenReturn(Optional.empty());
+        when(service.getByAccountNumberUncached("HOT")).thenReturn(Optional.of(new Account("HOT", "Merchant", 100L)));
+        when(service.tryUpdateBalance("HOT", -50L, 60L))
+                .thenReturn(Optional.of(new Account("HOT", "Merchant", 50L)));
+
+        CompletableFuture<Account> first = coalescer.submit("HOT", -60L);
+        CompletableFuture<Account> second = coalescer.submit("HOT", -60L);
+        CompletableFuture<Account> third = coalescer.submit("HOT", 10L);
+        releaseFirstWrite.countDown();
+
+        assertEquals(40L, first.join().getBalance());
+        CompletionException ex = assertThrows(CompletionException.class, second::join);
+        assertTrue(ex.getCause().getMessage().toLowerCase().contains("insufficient"));
+        assertEquals(50L, third.join().getBalance());
+    }
+
+    @Test
+    void updateBalance_inactiveAccount_rethrowsServiceException() {
+        when(service.updateBalance("HOT", 5L)).thenThrow(new IllegalStateException("Account is inactive: HOT"));
+
+        assertThrows(IllegalStateException.class, () -> coalescer.updateBalance("HOT", 5L));
+    }
+
+    @Test
+    void queuedDeltaNotStartedInTime_isWithdrawnAndFails() throws Exception {
+        coalescer.shutdown();
+        coalescer = coalescer(Duration.ofMillis(100));
+        blockedFirstWrite();
+
+        assertThrows(CompletionException.class, () -> coalescer.updateBalance("HOT", 7L));
+
+        releaseFirstWrite.countDown();
+        Thread.sleep(100);
+        verify(service, never()).tryUpdateBalance(eq("HOT"), eq(7L), anyLong());
+    }
+
+    @Test
+    void queuedDeltas_failOnShutdown_insteadOfHanging() throws Exception {
+        blockedFirstWrite();
+        CompletableFuture<Account> queued = coalescer.submit("HOT", 10L);
+
+        coalescer.shutdown();
+        releaseFirstWrite.countDown();
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> queued.orTimeout(5, TimeUnit.SECONDS).join());
+        assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+    }
+}
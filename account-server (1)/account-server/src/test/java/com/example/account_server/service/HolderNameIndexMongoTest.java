@@ -0,0 +1,60 @@
+package com.example.account_server.service;
+
+import com.example.account_server.model.Account;
+import com.example.account_server.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class HolderNameIndexMongoTest {
+
+    // MongoDBContainer runs a single-node replica set, which change streams need
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountRepository repo;
+
+    @Test
+    void accountsWrittenByAnotherNode_areFoundWithoutAReload() throws Exception {
+        mongoTemplate.dropCollection(Account.class);
+        mongoTemplate.insert(new Account("ACC1", "Alice", 0L));
+        HolderNameIndex index = new HolderNameIndex(repo, mongoTemplate, new SimpleMeterRegistry(), true);
+        index.run(null);
+        try {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!index.isReady() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(index.isReady());
+
+            // written straight to Mongo, as another node would, so put() is never called here
+            mongoTemplate.insert(new Account("ACC2", "Alina", 0L));
+
+            List<String> found = index.search("ali", null, 10);
+            while (found.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                found = index.search("ali", null, 10);
+            }
+            assertEquals(List.of("ACC1", "ACC2"), found);
+        } finally {
+            index.shutdown();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.account_server.service;
+
+import com.example.account_server.model.Account;
+import com.example.account_server.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HolderNameIndexTest {
+
+    private HolderNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new HolderNameIndex(mock(AccountRepository.class), null, new SimpleMeterRegistry(), false);
+        index.put(new Account("A3", "Rohit Sharma", 0L));
+        index.put(new Account("A1", "rohan", 0L));
+        index.put(new Account("A2", "ROHIT", 0L));
+        index.put(new Account("B1", "Rahul", 0L));
+    }
+
+    @Test
+    void search_isCaseInsensitiveAndOrderedByName() {
+        assertEquals(List.of("A1", "A2", "A3"), index.search("Roh", null, 10));
+        assertEquals(List.of("A2", "A3"), index.search("rohit", null, 10));
+        assertEquals(List.of(), index.search("x", null, 10));
+    }
+
+    @Test
+    void search_pagesWithCursor() {
+        List<String> first = index.search("ro", null, 2);
+        assertEquals(List.of("A1", "A2"), first);
+        assertEquals(List.of("A3"), index.search("ro", index.cursorOf("A2"), 2));
+    }
+
+    @Test
+    void put_replacesPreviousNameOfSameAccount() {
+        index.put(new Account("A1", "Zed", 0L));
+        assertEquals(List.of("A2", "A3"), index.search("ro", null, 10));
+        assertEquals(List.of("A1"), index.search("z", null, 10));
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.notification_service.controller;
 
+import com.example.notification_service.dto.NotificationAck;
+import com.example.notification_service.dto.NotificationMessage;
 import com.example.notification_service.model.Notification;
 import com.example.notification_service.service.NotificationService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,15 +22,21 @@ public class NotificationController {
     }
 
     @PostMapping("/send")
-    public ResponseEntity<?> send(@Valid @RequestBody Map<String,Object> payload) {
+    public ResponseEntity<?> send(@Valid @RequestBody NotificationMessage message) {
         try {
-            Notification n = svc.process(payload);
+            Notification n = svc.process(message);
             return ResponseEntity.ok(Map.of("status", "SENT", "id", n.getId(), "message", n.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.status(500).body(Map.of("status", "FAILED", "error", ex.getMessage()));
         }
     }
 
+    // Batch delivery from the transaction-service outbox; one ack per message
+    @PostMapping("/batch")
+    public ResponseEntity<List<NotificationAck>> sendBatch(@RequestBody List<NotificationMessage> messages) {
+        return ResponseEntity.ok(svc.processBatch(messages));
+    }
+
     // Simple test endpoint
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
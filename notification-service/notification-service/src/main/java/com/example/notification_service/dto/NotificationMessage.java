@@ -0,0 +1,32 @@
+package com.example.notification_service.dto;
+
+/**
+ * A transaction notification sent by transaction-service.
+ * DEPOSIT and WITHDRAW use {@code accountNumber}; TRANSFER uses source and destination.
+ */
+public class NotificationMessage {
+    private String outboxId; // set by the outbox; used as the notification id so redeliveries are stored once
+    private String transactionId;
+    private String type;
+    private String accountNumber;
+    private String sourceAccount;
+    private String destinationAccount;
+    private Long amount; // minor units
+
+    public NotificationMessage() {}
+
+    public String getOutboxId() { return outboxId; }
+    public void setOutboxId(String outboxId) { this.outboxId = outboxId; }
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public String getSourceAccount() { return sourceAccount; }
+    public void setSourceAccount(String sourceAccount) { this.sourceAccount = sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public void setDestinationAccount(String destinationAccount) { this.destinationAccount = destinationAccount; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+}
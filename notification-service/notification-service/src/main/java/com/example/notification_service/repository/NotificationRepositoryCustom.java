@@ -0,0 +1,16 @@
+package com.example.notification_service.repository;
+
+import java.util.List;
+import java.util.Set;
+import com.example.notification_service.model.Notification;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Inserts all notifications in one unordered bulk write. A notification whose id is already
+     * stored (a redelivery) counts as written.
+     *
+     * @return positions in {@code notifications} that could not be written
+     */
+    Set<Integer> insertIgnoringDuplicates(List<Notification> notifications);
+}
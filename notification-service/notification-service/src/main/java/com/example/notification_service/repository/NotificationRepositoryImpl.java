@@ -0,0 +1,53 @@
+package com.example.notification_service.repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import com.example.notification_service.model.Notification;
+
+class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    NotificationRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<Integer> insertIgnoringDuplicates(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return Set.of();
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        ops.insert(notifications);
+        try {
+            ops.execute();
+            return Set.of();
+        } catch (BulkOperationException ex) {
+            return failedPositions(ex.getErrors());
+        } catch (DataIntegrityViolationException ex) {
+            if (ex.getCause() instanceof MongoBulkWriteException bulk) {
+                return failedPositions(bulk.getWriteErrors());
+            }
+            throw ex;
+        }
+    }
+
+    private static Set<Integer> failedPositions(List<BulkWriteError> errors) {
+        Set<Integer> failed = new HashSet<>();
+        for (BulkWriteError error : errors) {
+            if (error.getCode() != DUPLICATE_KEY) {
+                failed.add(error.getIndex());
+            }
+        }
+        return failed;
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.notification_service.service;
 
 
+import com.example.notification_service.dto.NotificationAck;
+import com.example.notification_service.dto.NotificationMessage;
 import com.example.notification_service.model.Notification;
 import com.example.notification_service.repository.NotificationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class NotificationService {
 
+    // amounts arrive in minor units (eg. cents); messages show them in major units
+    private static final int MINOR_UNIT_DIGITS = 2;
+
     private final Logger log = LoggerFactory.getLogger(NotificationService.class);
     private final NotificationRepository repo; // can be null if not using DB
 
@@ -20,15 +29,71 @@ public class NotificationService {
         this.repo = repo;
     }
 
-    // Accepts a generic payload (Map) from other services and processes it
-    public Notification process(Map<String,Object> payload) {
-        String transactionId = payload.getOrDefault("transactionId", "").toString();
-        String type = payload.getOrDefault("type", "INFO").toString();
-        Object amount = payload.get("amount");
-        String accountNumber = payload.containsKey("accountNumber") ? payload.get("accountNumber").toString() : (payload.containsKey("sourceAccount") ? payload.get("sourceAccount").toString() : null);
+    // Accepts a notification from other services and processes it
+    public Notification process(NotificationMessage message) {
+        Notification n = toNotification(message);
+        if (repo != null) {
+            try {
+                repo.save(n);
+            } catch (Exception ex) {
+                log.error("Failed to persist notification", ex);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Processes a batch from the transaction-service outbox and persists it with one bulk insert.
+     * Each message carries an {@code outboxId}, used as the notification id so that a redelivered
+     * entry is stored only once. Returns one ack per message, in order.
+     */
+    public List<NotificationAck> processBatch(List<NotificationMessage> messages) {
+        List<Notification> built = new ArrayList<>(messages.size());
+        List<Integer> positions = new ArrayList<>(messages.size());
+        List<NotificationAck> acks = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            NotificationMessage message = messages.get(i);
+            String outboxId = message.getOutboxId();
+            try {
+                Notification n = toNotification(message);
+                if (outboxId != null) {
+                    n.setId(outboxId);
+                }
+                built.add(n);
+                positions.add(i);
+                acks.add(new NotificationAck(outboxId, NotificationAck.SENT, null));
+            } catch (RuntimeException ex) {
+                acks.add(new NotificationAck(outboxId, NotificationAck.FAILED, String.valueOf(ex.getMessage())));
+            }
+        }
+        if (repo != null) {
+            Set<Integer> failed;
+            try {
+                failed = repo.insertIgnoringDuplicates(built);
+            } catch (RuntimeException ex) {
+                log.error("Failed to persist notification batch", ex);
+                failed = new HashSet<>();
+                for (int j = 0; j < built.size(); j++) {
+                    failed.add(j);
+                }
+            }
+            for (int j : failed) {
+                NotificationAck ack = acks.get(positions.get(j));
+                ack.setStatus(NotificationAck.FAILED);
+                ack.setError("Could not persist notification");
+            }
+        }
+        return acks;
+    }
+
+    private Notification toNotification(NotificationMessage message) {
+        String transactionId = message.getTransactionId() != null ? message.getTransactionId() : "";
+        String type = message.getType() != null ? message.getType() : "INFO";
+        Long amount = message.getAmount();
+        String accountNumber = message.getAccountNumber() != null ? message.getAccountNumber() : message.getSourceAccount();
         String msg;
         if (amount != null) {
-            msg = String.format("%s of amount %s processed for account %s (txn=%s)", type, amount.toString(), accountNumber, transactionId);
+            msg = String.format("%s of amount %s processed for account %s (txn=%s)", type, formatAmount(amount), accountNumber, transactionId);
         } else {
             msg = String.format("%s notification for account %s (txn=%s)", type, accountNumber, transactionId);
         }
@@ -36,15 +101,11 @@ public class NotificationService {
 
         // Log to console for demo
         log.info("[NOTIFICATION] {}", msg);
-
-        if (repo != null) {
-            try {
-                repo.save(n);
-            } catch (Exception ex) {
-                log.error("Failed to persist notification", ex);
-            }
-        }
         return n;
     }
+
+    private static String formatAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MINOR_UNIT_DIGITS).toPlainString();
+    }
 }
 
@@ -0,0 +1,9 @@
+package com.example.transaction_service.client;
+
+/** Thrown instead of calling account-service when its concurrency limit is reached. */
+public class AccountCallRejectedException extends RuntimeException {
+
+    public AccountCallRejectedException(String message) {
+        super(message);
+    }
+}
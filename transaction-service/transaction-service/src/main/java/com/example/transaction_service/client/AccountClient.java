@@ -1,17 +1,31 @@
 package com.example.transaction_service.client;
 
+import com.example.transaction_service.dto.AccountView;
+import com.example.transaction_service.dto.BalanceDelta;
+import com.example.transaction_service.dto.BalanceDeltaResult;
+import com.example.transaction_service.dto.BalanceUpdateRequest;
+import com.example.transaction_service.dto.TransferRequest;
+import com.example.transaction_service.dto.TransferResult;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
-import java.util.Map;
+import java.util.List;
 
-@FeignClient(name = "account-service")
+@FeignClient(name = "account-service",
+        configuration = {AccountClientConfiguration.class, WireFormatConfiguration.class})
 public interface AccountClient {
 
     @GetMapping("/api/accounts/{accountNumber}")
-    Map<String,Object> getAccount(@PathVariable("accountNumber") String accountNumber);
+    AccountView getAccount(@PathVariable("accountNumber") String accountNumber);
 
     @PutMapping("/api/accounts/{accountNumber}/balance")
-    Map<String,Object> updateBalance(@PathVariable("accountNumber") String accountNumber,
-                                     @RequestBody Map<String,Double> body);
-}
+    AccountView updateBalance(@PathVariable("accountNumber") String accountNumber,
+                              @RequestBody BalanceUpdateRequest body);
+
+    // debit and credit happen in account-service
+    @PostMapping("/api/accounts/transfer")
+    TransferResult transfer(@RequestBody TransferRequest body);
 
+    // answered with one result per item, in order; a repeated Batch-Id returns the first call's results
+    @PostMapping("/api/accounts/balances:batch")
+    List<BalanceDeltaResult> updateBalances(@RequestHeader("Batch-Id") String batchId, @RequestBody List<BalanceDelta> items);
+}
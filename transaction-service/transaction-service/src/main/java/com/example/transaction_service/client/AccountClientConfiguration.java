@@ -0,0 +1,37 @@
+package com.example.transaction_service.client;
+
+import feign.Capability;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration of {@link AccountClient} only; not a {@code @Configuration}, so it is
+ * not picked up by component scanning and does not apply to other clients.
+ */
+class AccountClientConfiguration {
+
+    @Bean
+    Capability accountConcurrencyLimit(MeterRegistry registry,
+                                       @Value("${transactions.account-limiter.enabled:true}") boolean enabled,
+                                       @Value("${transactions.account-limiter.initial-limit:20}") int initialLimit,
+                                       @Value("${transactions.account-limiter.min-limit:4}") int minLimit,
+                                       @Value("${transactions.account-limiter.max-limit:200}") int maxLimit,
+                                       @Value("${transactions.account-limiter.rtt-threshold:250ms}") String rttThreshold,
+                                       @Value("${transactions.account-limiter.backoff-ratio:0.9}") double backoffRatio,
+                                       @Value("${transactions.account-limiter.batch.initial-limit:4}") int batchInitialLimit,
+                                       @Value("${transactions.account-limiter.batch.min-limit:1}") int batchMinLimit,
+                                       @Value("${transactions.account-limiter.batch.max-limit:32}") int batchMaxLimit,
+                                       @Value("${transactions.account-limiter.batch.rtt-threshold:5s}") String batchRttThreshold) {
+        if (!enabled) {
+            return new AccountLimitCapability(null, null);
+        }
+        // Feign client contexts have no Boot ConversionService, so durations are parsed here
+        return new AccountLimitCapability(
+                new AdaptiveLimiter("account.client", initialLimit, minLimit, maxLimit,
+                        DurationStyle.detectAndParse(rttThreshold), backoffRatio, registry),
+                new AdaptiveLimiter("account.client.batch", batchInitialLimit, batchMinLimit, batchMaxLimit,
+                        DurationStyle.detectAndParse(batchRttThreshold), backoffRatio, registry));
+    }
+}
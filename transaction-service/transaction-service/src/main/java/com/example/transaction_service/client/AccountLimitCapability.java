@@ -0,0 +1,24 @@
+package com.example.transaction_service.client;
+
+import feign.Capability;
+import feign.Client;
+
+/**
+ * Wraps the Feign {@link Client} of {@link AccountClient} in a {@link LimitedClient}. Public
+ * because Feign invokes {@code enrich} reflectively.
+ */
+public class AccountLimitCapability implements Capability {
+
+    private final AdaptiveLimiter limiter;      // null when the limit is disabled
+    private final AdaptiveLimiter batchLimiter; // for balances:batch calls
+
+    public AccountLimitCapability(AdaptiveLimiter limiter, AdaptiveLimiter batchLimiter) {
+        this.limiter = limiter;
+        this.batchLimiter = batchLimiter;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return limiter == null ? client : new LimitedClient(client, limiter, batchLimiter);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.transaction_service.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * AIMD concurrency limit for calls to one downstream service.
+ *
+ * A call is admitted only while fewer than {@code limit} calls are in flight; otherwise it is
+ * rejected at once, so callers do not queue behind a slow dependency. After each call the
+ * limit grows by one if the call was fast and the limit was actually in use (at least half of
+ * it in flight), and shrinks by {@code backoffRatio} if the call was slower than
+ * {@code rttThreshold} or failed with an I/O error or an overload status.
+ *
+ * State is two atomics updated with CAS, no locks, so it is safe on virtual threads.
+ * Meters: {@code <name>.limit}, {@code <name>.inflight}, {@code <name>.rejected} and
+ * {@code <name>.rtt}.
+ */
+public class AdaptiveLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long rttThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private final Timer rtt;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                           Duration rttThreshold, double backoffRatio, MeterRegistry registry) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoff-ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttThresholdNanos = rttThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(initialLimit);
+
+        Gauge.builder(name + ".limit", limit, AtomicInteger::get)
+                .description("Current concurrency limit")
+                .register(registry);
+        Gauge.builder(name + ".inflight", inFlight, AtomicInteger::get)
+                .description("Calls in flight")
+                .register(registry);
+        this.rejected = Counter.builder(name + ".rejected")
+                .description("Calls rejected because the limit was reached")
+                .register(registry);
+        this.rtt = Timer.builder(name + ".rtt")
+                .description("Round-trip time of admitted calls")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    /** Admits a call if the limit allows it; every {@code true} must be paired with {@link #release}. */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit.get()) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Ends an admitted call and adjusts the limit.
+     *
+     * @param rttNanos   time the call took
+     * @param overloaded the call failed in a way that points at an overloaded dependency
+     */
+    public void release(long rttNanos, boolean overloaded) {
+        int wasInFlight = inFlight.getAndDecrement();
+        rtt.record(rttNanos, TimeUnit.NANOSECONDS);
+        if (overloaded || rttNanos > rttThresholdNanos) {
+            limit.updateAndGet(l -> Math.max(minLimit, (int) (l * backoffRatio)));
+        } else if (wasInFlight * 2 >= limit.get()) {
+            limit.updateAndGet(l -> Math.min(maxLimit, l + 1));
+        }
+    }
+
+    public int getLimit() { return limit.get(); }
+    public int getInFlight() { return inFlight.get(); }
+}
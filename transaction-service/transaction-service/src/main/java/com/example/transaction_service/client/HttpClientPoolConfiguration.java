@@ -0,0 +1,46 @@
+package com.example.transaction_service.client;
+
+import java.time.Duration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection pool shared by all Feign clients. With feign-hc5 on the classpath Spring Cloud
+ * OpenFeign sends requests through Apache HttpClient 5 and builds it around this connection
+ * manager, so connections to account-service and notification-service are kept alive and reused
+ * instead of opened per call. Setting {@code spring.cloud.openfeign.httpclient.hc5.enabled=false}
+ * switches back to Feign's HttpURLConnection client.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+public class HttpClientPoolConfiguration {
+
+    @Bean
+    HttpClientConnectionManager feignConnectionManager(MeterRegistry registry,
+                                                       @Value("${transactions.http-client.max-connections:200}") int maxTotal,
+                                                       @Value("${transactions.http-client.max-connections-per-route:50}") int maxPerRoute,
+                                                       @Value("${transactions.http-client.connect-timeout:5s}") Duration connectTimeout,
+                                                       @Value("${transactions.http-client.idle-timeout:30s}") Duration idleTimeout,
+                                                       @Value("${transactions.http-client.time-to-live:5m}") Duration timeToLive) {
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        // a connection idle this long is checked before reuse, in case the server closed it
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        return new InstrumentedConnectionManager(pool, "feign", TimeValue.of(idleTimeout), registry);
+    }
+}
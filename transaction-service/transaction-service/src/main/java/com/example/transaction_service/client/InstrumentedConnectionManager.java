@@ -0,0 +1,139 @@
+package com.example.transaction_service.client;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.IdleConnectionEvictor;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Connection manager of the Feign HTTP client: delegates to a {@link PoolingHttpClientConnectionManager}
+ * and records how it is used. Meters, tagged {@code httpclient=<name>}:
+ * <ul>
+ *   <li>{@code httpcomponents.httpclient.pool.*} from Micrometer's pool binder: max, leased,
+ *       available and pending connections;</li>
+ *   <li>{@code ...pool.utilization}: leased / max total, 1.0 when saturated;</li>
+ *   <li>{@code ...pool.lease.wait} and {@code ...pool.lease.held}: time to obtain a connection and
+ *       time it is held by a request; {@code ...pool.lease.timeouts}: leases that gave up waiting;</li>
+ *   <li>{@code ...pool.leases{connection=reused|new}} and the {@code ...pool.reuse.ratio} gauge:
+ *       how often a lease got an open keep-alive connection.</li>
+ * </ul>
+ * Idle and expired connections are closed by a background evictor.
+ */
+final class InstrumentedConnectionManager implements HttpClientConnectionManager {
+
+    private static final String PREFIX = "httpcomponents.httpclient.pool.";
+
+    private final PoolingHttpClientConnectionManager pool;
+    private final IdleConnectionEvictor evictor;
+    private final Timer leaseWait;
+    private final Timer leaseHeld;
+    private final Counter leaseTimeouts;
+    private final Counter reused;
+    private final Counter opened;
+    private final Map<ConnectionEndpoint, Long> leasedAt = new ConcurrentHashMap<>();
+
+    InstrumentedConnectionManager(PoolingHttpClientConnectionManager pool, String name, TimeValue idleTimeout,
+                                  MeterRegistry registry) {
+        this.pool = pool;
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, name).bindTo(registry);
+        Gauge.builder(PREFIX + "utilization", pool,
+                        p -> p.getMaxTotal() == 0 ? 0 : (double) p.getTotalStats().getLeased() / p.getMaxTotal())
+                .tag("httpclient", name)
+                .register(registry);
+        this.leaseWait = Timer.builder(PREFIX + "lease.wait").tag("httpclient", name).register(registry);
+        this.leaseHeld = Timer.builder(PREFIX + "lease.held").tag("httpclient", name).register(registry);
+        this.leaseTimeouts = Counter.builder(PREFIX + "lease.timeouts").tag("httpclient", name).register(registry);
+        this.reused = Counter.builder(PREFIX + "leases").tag("httpclient", name).tag("connection", "reused").register(registry);
+        this.opened = Counter.builder(PREFIX + "leases").tag("httpclient", name).tag("connection", "new").register(registry);
+        Gauge.builder(PREFIX + "reuse.ratio", this, InstrumentedConnectionManager::reuseRatio)
+                .tag("httpclient", name)
+                .register(registry);
+
+        // checks at half the idle timeout, so an idle connection lives at most 1.5x the timeout
+        this.evictor = new IdleConnectionEvictor(pool,
+                TimeValue.ofMilliseconds(Math.max(1, idleTimeout.toMilliseconds() / 2)), idleTimeout);
+        this.evictor.start();
+    }
+
+    double reuseRatio() {
+        double total = reused.count() + opened.count();
+        return total == 0 ? 0 : reused.count() / total;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long started = System.nanoTime();
+        LeaseRequest request = pool.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                ConnectionEndpoint endpoint;
+                try {
+                    endpoint = request.get(timeout);
+                } catch (TimeoutException ex) {
+                    leaseTimeouts.increment();
+                    throw ex;
+                }
+                long now = System.nanoTime();
+                leaseWait.record(now - started, TimeUnit.NANOSECONDS);
+                (endpoint.isConnected() ? reused : opened).increment();
+                leasedAt.put(endpoint, now);
+                return endpoint;
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        Long at = leasedAt.remove(endpoint);
+        if (at != null) {
+            leaseHeld.record(System.nanoTime() - at, TimeUnit.NANOSECONDS);
+        }
+        pool.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        pool.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        pool.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        evictor.shutdown();
+        pool.close(closeMode);
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdown();
+        pool.close();
+    }
+}
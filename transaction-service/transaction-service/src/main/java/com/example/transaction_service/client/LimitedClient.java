@@ -0,0 +1,51 @@
+package com.example.transaction_service.client;
+
+import java.io.IOException;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+
+/**
+ * Feign {@link Client} that admits requests through an {@link AdaptiveLimiter}. Bulk calls
+ * ({@link AccountClient#updateBalances}) take much longer than single-account calls, so they
+ * go through their own limiter and never shrink the limit of the others.
+ */
+class LimitedClient implements Client {
+
+    static final String BATCH_METHOD = "updateBalances";
+
+    private final Client delegate;
+    private final AdaptiveLimiter limiter;
+    private final AdaptiveLimiter batchLimiter;
+
+    LimitedClient(Client delegate, AdaptiveLimiter limiter, AdaptiveLimiter batchLimiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.batchLimiter = batchLimiter;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        AdaptiveLimiter limiter = limiterFor(request);
+        if (!limiter.tryAcquire()) {
+            throw new AccountCallRejectedException("account-service concurrency limit of " + limiter.getLimit() + " reached");
+        }
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            Response response = delegate.execute(request, options);
+            overloaded = response.status() == 429 || response.status() == 503 || response.status() == 504;
+            return response;
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    private AdaptiveLimiter limiterFor(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        boolean batch = template != null && template.methodMetadata() != null
+                && BATCH_METHOD.equals(template.methodMetadata().method().getName());
+        return batch ? batchLimiter : limiter;
+    }
+}
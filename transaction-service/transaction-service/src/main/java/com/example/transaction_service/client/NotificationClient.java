@@ -1,14 +1,17 @@
 package com.example.transaction_service.client;
 
+import com.example.transaction_service.dto.NotificationAck;
+import com.example.transaction_service.dto.NotificationMessage;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import java.util.Map;
+import java.util.List;
 
-@FeignClient(name = "notification-service")
+@FeignClient(name = "notification-service", configuration = WireFormatConfiguration.class)
 public interface NotificationClient {
-    @PostMapping("/api/notifications/send")
-    String sendNotification(@RequestBody Map<String,Object> payload);
-}
 
+    // messages carry an outboxId; answered with one ack (SENT|FAILED) per message, in order
+    @PostMapping("/api/notifications/batch")
+    List<NotificationAck> sendBatch(@RequestBody List<NotificationMessage> messages);
+}
@@ -0,0 +1,47 @@
+package com.example.transaction_service.client;
+
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * Body format of calls to our own services, per {@code transactions.wire.format}:
+ * {@code json} (default) or {@code smile}, Jackson's binary JSON. With smile, request bodies
+ * are written as {@code application/x-jackson-smile} and responses are asked for in Smile,
+ * with JSON as the fallback. account-service and notification-service read and write Smile
+ * through Spring MVC's Smile converter; responses are decoded by whichever converter matches
+ * their content type.
+ */
+class WireFormatConfiguration {
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    @Bean
+    Encoder feignEncoder(ObjectFactory<HttpMessageConverters> converters,
+                         @Value("${transactions.wire.format:json}") String format) {
+        Encoder encoder = new SpringEncoder(converters);
+        if (!"smile".equalsIgnoreCase(format)) {
+            return encoder;
+        }
+        // SpringEncoder picks the converter from the Content-Type already on the template
+        return (body, bodyType, template) -> {
+            template.removeHeader(HttpHeaders.CONTENT_TYPE);
+            template.header(HttpHeaders.CONTENT_TYPE, SMILE);
+            encoder.encode(body, bodyType, template);
+        };
+    }
+
+    @Bean
+    RequestInterceptor acceptWireFormat(@Value("${transactions.wire.format:json}") String format) {
+        String accept = "smile".equalsIgnoreCase(format)
+                ? SMILE + ", " + MediaType.APPLICATION_JSON_VALUE
+                : MediaType.APPLICATION_JSON_VALUE;
+        return template -> template.header(HttpHeaders.ACCEPT, accept);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.transaction_service.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import com.example.transaction_service.model.IdempotencyRecord;
+import com.example.transaction_service.model.TransactionRecord;
+
+/**
+ * Creates the indexes declared on the documents ({@code @Indexed}, {@code @CompoundIndex})
+ * before the web server starts taking requests; Spring Data's automatic index creation is off.
+ * The unique index on transactionId is what rejects a repeated id, so a failure stops startup.
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        ensureIndexes(TransactionRecord.class);
+        ensureIndexes(IdempotencyRecord.class);
+    }
+
+    private void ensureIndexes(Class<?> type) {
+        IndexOperations indexOps = mongoTemplate.indexOps(type);
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        try {
+            resolver.resolveIndexFor(type).forEach(index -> {
+                String name = indexOps.ensureIndex(index);
+                log.info("Ensured index {} on {}", name, type.getSimpleName());
+            });
+        } catch (DataAccessException ex) {
+            log.error("Could not create indexes for {}", type.getSimpleName(), ex);
+            throw ex;
+        }
+    }
+}
@@ -1,45 +1,153 @@
 package com.example.transaction_service.controller;
 
+import com.example.transaction_service.dto.AccountAmountRequest;
+import com.example.transaction_service.dto.BatchItem;
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.dto.TransactionPage;
+import com.example.transaction_service.dto.TransferRequest;
 import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.service.AccountRejectedException;
+import com.example.transaction_service.service.IdempotencyConflictException;
+import com.example.transaction_service.service.IdempotencyService;
+import com.example.transaction_service.service.InvalidIdempotencyKeyException;
+import com.example.transaction_service.service.SpoolFullException;
+import com.example.transaction_service.service.TransactionBatchService;
+import com.example.transaction_service.service.TransactionHistoryService;
 import com.example.transaction_service.service.TransactionService;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
+import com.example.transaction_service.service.TransactionStatementService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final TransactionService svc;
+    private final IdempotencyService idempotency;
+    private final TransactionHistoryService history;
+    private final TransactionStatementService statements;
+    private final TransactionBatchService batches;
+
+    public TransactionController(TransactionService svc, IdempotencyService idempotency,
+                                 TransactionHistoryService history, TransactionStatementService statements,
+                                 TransactionBatchService batches) {
+        this.svc = svc;
+        this.idempotency = idempotency;
+        this.history = history;
+        this.statements = statements;
+        this.batches = batches;
+    }
 
-    public TransactionController(TransactionService svc) { this.svc = svc; }
+    // History of one account, newest first (?account=&from=&to=&type=&status=&after=&limit=)
+    @GetMapping
+    public ResponseEntity<?> list(TransactionFilter filter,
+                                  @RequestParam(required = false) String after,
+                                  @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try {
+            TransactionPage page = history.history(filter, after, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // Statement of one account, oldest first with a running balance, streamed from Mongo
+    // (?account=&from=&to=&format=csv|ndjson&openingBalance=); gzip when accepted. openingBalance is
+    // the account balance at from, in minor units, and is required
+    @GetMapping("/statement")
+    public ResponseEntity<?> statement(TransactionFilter filter,
+                                       @RequestParam(defaultValue = "csv") String format,
+                                       @RequestParam(required = false) Long openingBalance,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        TransactionStatementService.Format fmt;
+        try {
+            if (openingBalance == null) {
+                throw new IllegalArgumentException("openingBalance is required (the account balance at from, in minor units)");
+            }
+            fmt = TransactionStatementService.Format.parse(format);
+            statements.validate(filter);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = out -> statements.write(filter, fmt, openingBalance, gzip, out);
+
+        MediaType type = fmt == TransactionStatementService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String filename = "statement-" + filter.getAccount() + "." + fmt.name().toLowerCase(Locale.ROOT);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 
     @PostMapping("/deposit")
-    public ResponseEntity<TransactionRecord> deposit(@RequestBody Map<String,Object> body) {
-        String account = (String) body.get("accountNumber");
-        Double amount = Double.valueOf(body.get("amount").toString());
-        TransactionRecord tx = svc.deposit(account, amount);
-        return ResponseEntity.ok(tx);
+    public ResponseEntity<?> deposit(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key,
+                                     @Valid @RequestBody AccountAmountRequest req) {
+        String account = req.getAccountNumber();
+        long amount = req.getAmount();
+        return idempotent(key, "DEPOSIT|" + account + "|" + amount, () -> svc.deposit(account, amount));
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<TransactionRecord> withdraw(@RequestBody Map<String,Object> body) {
-        String account = (String) body.get("accountNumber");
-        Double amount = Double.valueOf(body.get("amount").toString());
-        TransactionRecord tx = svc.withdraw(account, amount);
-        return ResponseEntity.ok(tx);
+    public ResponseEntity<?> withdraw(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key,
+                                      @Valid @RequestBody AccountAmountRequest req) {
+        String account = req.getAccountNumber();
+        long amount = req.getAmount();
+        return idempotent(key, "WITHDRAW|" + account + "|" + amount, () -> svc.withdraw(account, amount));
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<TransactionRecord> transfer(@RequestBody Map<String,Object> body) {
-        String src = (String) body.get("sourceAccount");
-        String dst = (String) body.get("destinationAccount");
-        Double amount = Double.valueOf(body.get("amount").toString());
-        TransactionRecord tx = svc.transfer(src, dst, amount);
-        return ResponseEntity.ok(tx);
+    public ResponseEntity<?> transfer(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key,
+                                      @Valid @RequestBody TransferRequest req) {
+        String src = req.getSourceAccount();
+        String dst = req.getDestinationAccount();
+        long amount = req.getAmount();
+        return idempotent(key, "TRANSFER|" + src + "|" + dst + "|" + amount, () -> svc.transfer(src, dst, amount));
+    }
+
+    // Mixed deposits, withdrawals and transfers; one result per item, in submission order
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody List<BatchItem> items) {
+        try {
+            return ResponseEntity.ok(batches.submit(items));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // Same key + same request returns the first result; same key + different request is rejected
+    private ResponseEntity<?> idempotent(String key, String fingerprint, Supplier<TransactionRecord> action) {
+        try {
+            return ResponseEntity.ok(idempotency.execute(key, fingerprint, action));
+        } catch (AccountRejectedException ex) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", ex.getMessage()));
+        } catch (SpoolFullException ex) {
+            return ResponseEntity.status(503).body(Map.of("error", ex.getMessage()));
+        } catch (InvalidIdempotencyKeyException ex) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", ex.getMessage()));
+        } catch (IdempotencyConflictException ex) {
+            return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+        }
     }
 }
 
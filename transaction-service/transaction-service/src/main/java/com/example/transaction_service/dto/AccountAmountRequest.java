@@ -0,0 +1,27 @@
+package com.example.transaction_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/** Body of {@code POST /api/transactions/deposit} and {@code /withdraw}. */
+public class AccountAmountRequest {
+
+    @NotBlank
+    private String accountNumber;
+
+    @NotNull
+    @Positive
+    private Long amount; // minor units
+
+    public AccountAmountRequest() {}
+    public AccountAmountRequest(String accountNumber, Long amount) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+}
@@ -0,0 +1,26 @@
+package com.example.transaction_service.dto;
+
+/** The fields of an account-service account that transaction-service reads. */
+public class AccountView {
+    private String accountNumber;
+    private String holderName;
+    private long balance; // minor units
+    private boolean active;
+
+    public AccountView() {}
+    public AccountView(String accountNumber, String holderName, long balance, boolean active) {
+        this.accountNumber = accountNumber;
+        this.holderName = holderName;
+        this.balance = balance;
+        this.active = active;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public String getHolderName() { return holderName; }
+    public void setHolderName(String holderName) { this.holderName = holderName; }
+    public long getBalance() { return balance; }
+    public void setBalance(long balance) { this.balance = balance; }
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+}
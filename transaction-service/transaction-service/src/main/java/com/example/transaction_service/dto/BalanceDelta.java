@@ -0,0 +1,18 @@
+package com.example.transaction_service.dto;
+
+/** One item of account-service's {@code balances:batch} call. */
+public class BalanceDelta {
+    private String accountNumber;
+    private long amount; // signed delta, minor units
+
+    public BalanceDelta() {}
+    public BalanceDelta(String accountNumber, long amount) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+}
@@ -0,0 +1,23 @@
+package com.example.transaction_service.dto;
+
+public class BalanceDeltaResult {
+    public static final String APPLIED = "APPLIED"; // otherwise NOT_FOUND, INACTIVE, INSUFFICIENT_FUNDS, INVALID
+
+    private String accountNumber;
+    private Long amount;
+    private String status;
+
+    public BalanceDeltaResult() {}
+    public BalanceDeltaResult(String accountNumber, Long amount, String status) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.status = status;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
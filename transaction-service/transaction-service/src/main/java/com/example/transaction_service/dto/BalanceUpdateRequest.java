@@ -0,0 +1,11 @@
+package com.example.transaction_service.dto;
+
+public class BalanceUpdateRequest {
+    private long amount; // positive or negative delta, in minor units
+
+    public BalanceUpdateRequest() {}
+    public BalanceUpdateRequest(long amount) { this.amount = amount; }
+
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+}
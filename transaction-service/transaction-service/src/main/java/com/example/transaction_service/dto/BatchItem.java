@@ -0,0 +1,33 @@
+package com.example.transaction_service.dto;
+
+/**
+ * One operation of a batch: DEPOSIT and WITHDRAW use {@code accountNumber}, TRANSFER uses
+ * {@code sourceAccount} and {@code destinationAccount}. Amounts are positive minor units.
+ */
+public class BatchItem {
+    private String type;
+    private String accountNumber;
+    private String sourceAccount;
+    private String destinationAccount;
+    private Long amount;
+
+    public BatchItem() {}
+    public BatchItem(String type, String accountNumber, String sourceAccount, String destinationAccount, Long amount) {
+        this.type = type;
+        this.accountNumber = accountNumber;
+        this.sourceAccount = sourceAccount;
+        this.destinationAccount = destinationAccount;
+        this.amount = amount;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public String getSourceAccount() { return sourceAccount; }
+    public void setSourceAccount(String sourceAccount) { this.sourceAccount = sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public void setDestinationAccount(String destinationAccount) { this.destinationAccount = destinationAccount; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+}
@@ -0,0 +1,30 @@
+package com.example.transaction_service.dto;
+
+public class BatchItemResult {
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+    public static final String REJECTED = "REJECTED"; // invalid item, nothing recorded
+    public static final String UNKNOWN = "UNKNOWN";   // account-service did not answer; settled later
+
+    private int index;            // position in the submitted list
+    private String transactionId; // null when rejected
+    private String status;
+    private String error;
+
+    public BatchItemResult() {}
+    public BatchItemResult(int index, String transactionId, String status, String error) {
+        this.index = index;
+        this.transactionId = transactionId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
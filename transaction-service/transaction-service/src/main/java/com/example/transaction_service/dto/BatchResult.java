@@ -0,0 +1,43 @@
+package com.example.transaction_service.dto;
+
+import java.util.List;
+
+public class BatchResult {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int rejected;
+    private int unknown;
+    private long elapsedMillis;
+    private List<BatchItemResult> items; // same order as submitted
+
+    public BatchResult() {}
+    public BatchResult(List<BatchItemResult> items, long elapsedMillis) {
+        this.items = items;
+        this.elapsedMillis = elapsedMillis;
+        this.total = items.size();
+        for (BatchItemResult item : items) {
+            switch (item.getStatus()) {
+                case BatchItemResult.SUCCESS -> succeeded++;
+                case BatchItemResult.REJECTED -> rejected++;
+                case BatchItemResult.UNKNOWN -> unknown++;
+                default -> failed++;
+            }
+        }
+    }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+    public int getUnknown() { return unknown; }
+    public void setUnknown(int unknown) { this.unknown = unknown; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+    public List<BatchItemResult> getItems() { return items; }
+    public void setItems(List<BatchItemResult> items) { this.items = items; }
+}
@@ -0,0 +1,25 @@
+package com.example.transaction_service.dto;
+
+/** notification-service's answer for one message of a batch. */
+public class NotificationAck {
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    private String outboxId;
+    private String status;
+    private String error;
+
+    public NotificationAck() {}
+    public NotificationAck(String outboxId, String status, String error) {
+        this.outboxId = outboxId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public String getOutboxId() { return outboxId; }
+    public void setOutboxId(String outboxId) { this.outboxId = outboxId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
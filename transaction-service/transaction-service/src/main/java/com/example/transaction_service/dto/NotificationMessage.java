@@ -0,0 +1,64 @@
+package com.example.transaction_service.dto;
+
+/**
+ * A transaction notification as queued in the outbox and sent to notification-service.
+ * DEPOSIT and WITHDRAW use {@code accountNumber}; TRANSFER uses source and destination.
+ */
+public class NotificationMessage {
+    private String outboxId; // set when sent; notification-service uses it to drop redeliveries
+    private String transactionId;
+    private String type;
+    private String accountNumber;
+    private String sourceAccount;
+    private String destinationAccount;
+    private Long amount; // minor units
+
+    public NotificationMessage() {}
+
+    public static NotificationMessage forAccount(String transactionId, String type, String accountNumber, long amount) {
+        NotificationMessage m = new NotificationMessage();
+        m.transactionId = transactionId;
+        m.type = type;
+        m.accountNumber = accountNumber;
+        m.amount = amount;
+        return m;
+    }
+
+    public static NotificationMessage forTransfer(String transactionId, String sourceAccount, String destinationAccount, long amount) {
+        NotificationMessage m = new NotificationMessage();
+        m.transactionId = transactionId;
+        m.type = "TRANSFER";
+        m.sourceAccount = sourceAccount;
+        m.destinationAccount = destinationAccount;
+        m.amount = amount;
+        return m;
+    }
+
+    /** Copy carrying {@code outboxId}. */
+    public NotificationMessage withOutboxId(String outboxId) {
+        NotificationMessage m = new NotificationMessage();
+        m.outboxId = outboxId;
+        m.transactionId = transactionId;
+        m.type = type;
+        m.accountNumber = accountNumber;
+        m.sourceAccount = sourceAccount;
+        m.destinationAccount = destinationAccount;
+        m.amount = amount;
+        return m;
+    }
+
+    public String getOutboxId() { return outboxId; }
+    public void setOutboxId(String outboxId) { this.outboxId = outboxId; }
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+    public String getSourceAccount() { return sourceAccount; }
+    public void setSourceAccount(String sourceAccount) { this.sourceAccount = sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public void setDestinationAccount(String destinationAccount) { this.destinationAccount = destinationAccount; }
+    public Long getAmount() { return amount; }
+    public void setAmount(Long amount) { this.amount = amount; }
+}
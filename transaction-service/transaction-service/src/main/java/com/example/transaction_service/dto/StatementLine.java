@@ -0,0 +1,32 @@
+package com.example.transaction_service.dto;
+
+/** One row of an account statement; amounts and balance are minor units. */
+public class StatementLine {
+    private String timestamp; // ISO-8601
+    private String transactionId;
+    private String type;
+    private String direction; // CREDIT or DEBIT for the statement account
+    private long amount;
+    private String counterparty; // other account of a transfer, null otherwise
+    private String status;
+    private long balance; // running balance after this row (only SUCCESS rows move it)
+
+    public StatementLine() {}
+
+    public String getTimestamp() { return timestamp; }
+    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+    public String getCounterparty() { return counterparty; }
+    public void setCounterparty(String counterparty) { this.counterparty = counterparty; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public long getBalance() { return balance; }
+    public void setBalance(long balance) { this.balance = balance; }
+}
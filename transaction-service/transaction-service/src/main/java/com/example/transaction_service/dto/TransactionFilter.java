@@ -0,0 +1,25 @@
+package com.example.transaction_service.dto;
+
+import java.time.Instant;
+
+// Query parameters of GET /api/transactions; everything but account is optional
+public class TransactionFilter {
+    private String account;
+    private Instant from;   // inclusive
+    private Instant to;     // exclusive
+    private String type;    // DEPOSIT, WITHDRAW, TRANSFER
+    private String status;  // PENDING, SUCCESS, FAILED
+
+    public TransactionFilter() {}
+
+    public String getAccount() { return account; }
+    public void setAccount(String account) { this.account = account; }
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
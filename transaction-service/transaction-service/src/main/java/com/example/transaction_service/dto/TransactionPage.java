@@ -0,0 +1,20 @@
+package com.example.transaction_service.dto;
+
+import java.util.List;
+import com.example.transaction_service.model.TransactionRecord;
+
+public class TransactionPage {
+    private List<TransactionRecord> items;
+    private String nextCursor; // pass as ?after= for the next page; null on the last page
+
+    public TransactionPage() {}
+    public TransactionPage(List<TransactionRecord> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionRecord> getItems() { return items; }
+    public void setItems(List<TransactionRecord> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,51 @@
+package com.example.transaction_service.migration;
+
+import java.util.List;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-time conversion of transaction amounts stored as floating point major units
+ * (eg. 12.34) into Int64 minor units (eg. 1234).
+ *
+ * Only documents whose amount is still a double are touched, so running it again
+ * is a no-op. It scans the collection, so it is off unless explicitly enabled.
+ *
+ * It runs once all beans are created, before the web server accepts requests, so no
+ * request can {@code $inc} a long into a amount that is still a double; a failure stops startup.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.migration.minor-units.enabled", havingValue = "true")
+public class MinorUnitsMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MinorUnitsMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final long scale;
+
+    public MinorUnitsMigration(MongoTemplate mongoTemplate,
+                               @Value("${transactions.migration.minor-units.scale:100}") long scale) {
+        this.mongoTemplate = mongoTemplate;
+        this.scale = scale;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // { $set: { amount: { $toLong: { $round: [ { $multiply: ["$amount", scale] }, 0 ] } } } }
+        Document toMinorUnits = new Document("$toLong", new Document("$round",
+                List.of(new Document("$multiply", List.of("$amount", scale)), 0)));
+        UpdateResult result = mongoTemplate.getCollection("transactions").updateMany(
+                Filters.type("amount", BsonType.DOUBLE),
+                List.of(new Document("$set", new Document("amount", toMinorUnits))));
+        log.info("Converted {} transaction amounts to minor units", result.getModifiedCount());
+    }
+}
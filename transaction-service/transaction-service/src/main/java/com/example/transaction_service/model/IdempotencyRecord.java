@@ -0,0 +1,61 @@
+package com.example.transaction_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request made with an Idempotency-Key. The key is the document id, so the unique
+ * _id index decides which of several concurrent requests gets to execute; the TTL index
+ * removes keys a day after they were first seen. While IN_PROGRESS the key is leased to the
+ * executing request ({@code owner}) until {@code leaseUntil}; after that another request with
+ * the same parameters may take it over, so a crashed node does not block the key for a day.
+ */
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    private String key;
+    private String fingerprint;        // operation and parameters the key was first used with
+    private String status;             // IN_PROGRESS, COMPLETED
+    private TransactionRecord result;  // set when COMPLETED
+    private String owner;              // request that holds the key while IN_PROGRESS
+    private Instant leaseUntil;        // IN_PROGRESS only: others may take the key over after this
+    @Indexed(name = "createdAt_ttl", expireAfter = "1d")
+    private Instant createdAt;
+
+    public IdempotencyRecord() { }
+
+    public IdempotencyRecord(String key, String fingerprint, Instant createdAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = IN_PROGRESS;
+        this.createdAt = createdAt;
+    }
+
+    public IdempotencyRecord(String key, String fingerprint, String owner, Instant createdAt, Instant leaseUntil) {
+        this(key, fingerprint, createdAt);
+        this.owner = owner;
+        this.leaseUntil = leaseUntil;
+    }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public TransactionRecord getResult() { return result; }
+    public void setResult(TransactionRecord result) { this.result = result; }
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
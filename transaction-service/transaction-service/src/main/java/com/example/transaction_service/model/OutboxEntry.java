@@ -0,0 +1,41 @@
+package com.example.transaction_service.model;
+
+import java.time.Instant;
+
+/**
+ * The notification still owed for a transaction, embedded in its {@link TransactionRecord} as
+ * {@code outbox}. It is written in the same operation as the record's final status, so a
+ * SUCCESS transaction cannot exist without its notification or the other way round. The
+ * OutboxDispatcher builds the message from the record, removes the entry once notification-service
+ * has it, and keeps entries that keep failing as DEAD.
+ */
+public class OutboxEntry {
+
+    public static final String PENDING = "PENDING";
+    public static final String DEAD = "DEAD";
+
+    private String status;        // PENDING, DEAD
+    private int attempts;         // failed deliveries so far
+    private Instant availableAt;  // not claimed again before this (retry backoff or dispatch lease)
+    private String claimId;       // dispatcher run that holds the lease
+    private Instant createdAt;
+
+    public OutboxEntry() { }
+
+    public OutboxEntry(Instant createdAt) {
+        this.status = PENDING;
+        this.availableAt = createdAt;
+        this.createdAt = createdAt;
+    }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getAvailableAt() { return availableAt; }
+    public void setAvailableAt(Instant availableAt) { this.availableAt = availableAt; }
+    public String getClaimId() { return claimId; }
+    public void setClaimId(String claimId) { this.claimId = claimId; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
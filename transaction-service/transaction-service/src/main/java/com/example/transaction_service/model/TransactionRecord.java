@@ -1,25 +1,47 @@
 package com.example.transaction_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
+// Indexes are created at startup by MongoIndexInitializer; the compound ones back the keyset
+// history queries, the unique one on transactionId turns a repeated id into a write error and
+// the sparse one on outbox only holds transactions whose notification is not delivered yet, and
+// the partial one on batchId only holds batch transactions whose outcome is UNKNOWN
 @Document(collection = "transactions")
+@CompoundIndexes({
+        @CompoundIndex(name = "source_timestamp_id", def = "{'sourceAccount': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "destination_timestamp_id", def = "{'destinationAccount': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "outbox_status_availableAt", def = "{'outbox.status': 1, 'outbox.availableAt': 1}", sparse = true),
+        @CompoundIndex(name = "unknown_batchId_batchIndex", def = "{'batchId': 1, 'batchIndex': 1}",
+                partialFilter = "{ 'status': 'UNKNOWN' }")
+})
 public class TransactionRecord {
     @Id
     private String id;
+    @Indexed(name = "transactionId_unique", unique = true)
     private String transactionId; // e.g. TXN-2025001
     private String type; // DEPOSIT, WITHDRAW, TRANSFER
-    private Double amount;
+    private long amount; // minor units (eg. cents), stored as Int64
     private String sourceAccount;
     private String destinationAccount;
-    private String status; // SUCCESS, FAILED
+    private String status; // SUCCESS, FAILED, UNKNOWN (batch outcome not known yet)
     private Instant timestamp;
+    @JsonIgnore
+    private OutboxEntry outbox; // notification not delivered yet; written with the final status
+    @JsonIgnore
+    private String batchId; // balances:batch call that applied it (batch items only)
+    @JsonIgnore
+    private Integer batchIndex; // position in that call
 
     public TransactionRecord() { }
 
-    public TransactionRecord(String transactionId, String type, Double amount, String sourceAccount, String destinationAccount, String status, Instant timestamp) {
+    public TransactionRecord(String transactionId, String type, long amount, String sourceAccount, String destinationAccount, String status, Instant timestamp) {
         this.transactionId = transactionId;
         this.type = type;
         this.amount = amount;
@@ -37,8 +59,8 @@ public class TransactionRecord {
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
-    public Double getAmount() { return amount; }
-    public void setAmount(Double amount) { this.amount = amount; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
     public String getSourceAccount() { return sourceAccount; }
     public void setSourceAccount(String sourceAccount) { this.sourceAccount = sourceAccount; }
     public String getDestinationAccount() { return destinationAccount; }
@@ -47,5 +69,11 @@ public class TransactionRecord {
     public void setStatus(String status) { this.status = status; }
     public Instant getTimestamp() { return timestamp; }
     public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+    public Integer getBatchIndex() { return batchIndex; }
+    public void setBatchIndex(Integer batchIndex) { this.batchIndex = batchIndex; }
+    public OutboxEntry getOutbox() { return outbox; }
+    public void setOutbox(OutboxEntry outbox) { this.outbox = outbox; }
 }
 
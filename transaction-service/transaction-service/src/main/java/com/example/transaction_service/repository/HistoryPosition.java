@@ -0,0 +1,21 @@
+package com.example.transaction_service.repository;
+
+import java.time.Instant;
+
+/**
+ * Keyset position in a history listing ordered by (timestamp desc, id desc): the next page
+ * starts strictly after this transaction.
+ */
+public final class HistoryPosition {
+
+    private final Instant timestamp;
+    private final String id;
+
+    public HistoryPosition(Instant timestamp, String id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public Instant getTimestamp() { return timestamp; }
+    public String getId() { return id; }
+}
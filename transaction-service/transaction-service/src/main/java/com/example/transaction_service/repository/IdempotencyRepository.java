@@ -0,0 +1,7 @@
+package com.example.transaction_service.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import com.example.transaction_service.model.IdempotencyRecord;
+
+public interface IdempotencyRepository extends MongoRepository<IdempotencyRecord, String>, IdempotencyRepositoryCustom {
+}
@@ -0,0 +1,29 @@
+package com.example.transaction_service.repository;
+
+import java.time.Instant;
+import com.example.transaction_service.model.TransactionRecord;
+
+/**
+ * Writes on idempotency keys that only apply while a given request holds the key.
+ * Implemented by {@link IdempotencyRepositoryImpl}.
+ */
+public interface IdempotencyRepositoryCustom {
+
+    /**
+     * Hands an IN_PROGRESS key whose lease ended before {@code now} to {@code owner} until
+     * {@code leaseUntil}, if it was first used with {@code fingerprint}.
+     *
+     * @return false if the key is completed, still leased, or was taken over by someone else first
+     */
+    boolean takeOver(String key, String fingerprint, Instant now, String owner, Instant leaseUntil);
+
+    /**
+     * Stores the result of the request that holds the key.
+     *
+     * @return false if {@code owner} no longer holds the key
+     */
+    boolean complete(String key, String owner, TransactionRecord result);
+
+    /** Deletes the key if {@code owner} still holds it, so that a retry can execute again. */
+    void release(String key, String owner);
+}
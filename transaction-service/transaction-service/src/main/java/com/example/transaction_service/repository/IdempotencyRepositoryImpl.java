@@ -0,0 +1,45 @@
+package com.example.transaction_service.repository;
+
+import java.time.Instant;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import com.example.transaction_service.model.IdempotencyRecord;
+import com.example.transaction_service.model.TransactionRecord;
+
+class IdempotencyRepositoryImpl implements IdempotencyRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    IdempotencyRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean takeOver(String key, String fingerprint, Instant now, String owner, Instant leaseUntil) {
+        // keys claimed before leases existed have no leaseUntil and count as expired
+        Query abandoned = Query.query(Criteria.where("_id").is(key)
+                .and("status").is(IdempotencyRecord.IN_PROGRESS)
+                .and("fingerprint").is(fingerprint)
+                .and("leaseUntil").not().gte(now));
+        return mongoTemplate.updateFirst(abandoned, new Update().set("owner", owner).set("leaseUntil", leaseUntil),
+                IdempotencyRecord.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean complete(String key, String owner, TransactionRecord result) {
+        return mongoTemplate.updateFirst(held(key, owner),
+                new Update().set("status", IdempotencyRecord.COMPLETED).set("result", result).unset("leaseUntil"),
+                IdempotencyRecord.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        mongoTemplate.remove(held(key, owner), IdempotencyRecord.class);
+    }
+
+    private static Query held(String key, String owner) {
+        return Query.query(Criteria.where("_id").is(key).and("owner").is(owner).and("status").is(IdempotencyRecord.IN_PROGRESS));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.transaction_service.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import com.example.transaction_service.model.TransactionRecord;
+
+/**
+ * Notifications waiting for delivery: transactions whose {@code outbox} entry is still set.
+ * Implemented by {@link OutboxRepositoryImpl}.
+ */
+public interface OutboxRepository {
+
+    /**
+     * Leases up to {@code limit} transactions with a PENDING outbox entry that is available at
+     * {@code now} by moving its availableAt forward by {@code lease}. Entries leased by another
+     * dispatcher are not returned; if this dispatcher dies, its entries become available again
+     * when the lease ends.
+     */
+    List<TransactionRecord> claim(int limit, Duration lease, Instant now);
+
+    /** Stores attempts, status and availableAt of failed entries in one bulk write and drops their lease. */
+    void reschedule(List<TransactionRecord> records);
+
+    /** Removes the outbox entry of transactions whose notification was delivered. */
+    void delivered(Collection<String> ids);
+}
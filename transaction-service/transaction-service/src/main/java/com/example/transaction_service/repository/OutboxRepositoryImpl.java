@@ -0,0 +1,78 @@
+package com.example.transaction_service.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import com.example.transaction_service.model.OutboxEntry;
+import com.example.transaction_service.model.TransactionRecord;
+
+@Repository
+class OutboxRepositoryImpl implements OutboxRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    OutboxRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<TransactionRecord> claim(int limit, Duration lease, Instant now) {
+        Query available = Query.query(available(now))
+                .with(Sort.by(Sort.Direction.ASC, "outbox.availableAt"))
+                .limit(limit);
+        available.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(available, TransactionRecord.class).stream()
+                .map(tx -> (Object) tx.getId())
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // re-check availability so that an entry taken by a concurrent dispatcher is skipped
+        String claimId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids).andOperator(available(now))),
+                new Update().set("outbox.availableAt", now.plus(lease)).set("outbox.claimId", claimId),
+                TransactionRecord.class);
+        return mongoTemplate.find(Query.query(Criteria.where("_id").in(ids).and("outbox.claimId").is(claimId)),
+                TransactionRecord.class);
+    }
+
+    @Override
+    public void reschedule(List<TransactionRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionRecord.class);
+        for (TransactionRecord tx : records) {
+            OutboxEntry e = tx.getOutbox();
+            ops.updateOne(Query.query(Criteria.where("_id").is(tx.getId()).and("outbox.claimId").is(e.getClaimId())),
+                    new Update().set("outbox.status", e.getStatus())
+                            .set("outbox.attempts", e.getAttempts())
+                            .set("outbox.availableAt", e.getAvailableAt())
+                            .unset("outbox.claimId"));
+        }
+        ops.execute();
+    }
+
+    @Override
+    public void delivered(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)), new Update().unset("outbox"),
+                TransactionRecord.class);
+    }
+
+    private static Criteria available(Instant now) {
+        return Criteria.where("outbox.status").is(OutboxEntry.PENDING).and("outbox.availableAt").lte(now);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.transaction_service.repository;
+
+import com.example.transaction_service.model.OutboxEntry;
+
+/**
+ * A guarded status transition of one transaction: applied only while the stored status
+ * is still {@code expectedStatus}. A non-null {@code outbox} is set in the same update.
+ */
+public final class StatusChange {
+
+    private final String id;
+    private final String expectedStatus;
+    private final String newStatus;
+    private final OutboxEntry outbox;
+
+    public StatusChange(String id, String expectedStatus, String newStatus) {
+        this(id, expectedStatus, newStatus, null);
+    }
+
+    public StatusChange(String id, String expectedStatus, String newStatus, OutboxEntry outbox) {
+        this.id = id;
+        this.expectedStatus = expectedStatus;
+        this.newStatus = newStatus;
+        this.outbox = outbox;
+    }
+
+    public String getId() { return id; }
+    public String getExpectedStatus() { return expectedStatus; }
+    public String getNewStatus() { return newStatus; }
+    public OutboxEntry getOutbox() { return outbox; }
+}
@@ -0,0 +1,54 @@
+package com.example.transaction_service.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.model.TransactionRecord;
+
+/**
+ * Targeted writes on transactions that Spring Data cannot derive from method names.
+ * Implemented by {@link TransactionRepositoryImpl}.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Moves one transaction from {@code expectedStatus} to {@code newStatus}, and sets its
+     * outbox entry if the change carries one, without rewriting the rest of the document.
+     *
+     * @return false if the transaction does not exist or is no longer in {@code expectedStatus}
+     */
+    boolean updateStatus(StatusChange change);
+
+    /**
+     * Applies many status changes in one unordered bulk write.
+     *
+     * @return the number of transactions that were updated
+     */
+    long updateStatuses(List<StatusChange> changes);
+
+    /**
+     * Inserts records that already carry their id in one unordered bulk write. Records that
+     * are already stored (duplicate id, eg. from a retried batch) are skipped, so the call can
+     * safely be repeated.
+     */
+    void insertIgnoringDuplicates(List<TransactionRecord> records);
+
+    /** Ids of the batches that still have transactions in {@code status} (UNKNOWN only; index-backed). */
+    List<String> findBatchIdsWithStatus(String status);
+
+    /** The transactions of one batch that are in {@code status}, ordered by their position in the batch. */
+    List<TransactionRecord> findBatch(String batchId, String status);
+
+    /**
+     * Up to {@code limit} transactions where {@code accountField} ("sourceAccount" or
+     * "destinationAccount") equals {@code filter.account}, newest first by (timestamp, id),
+     * starting after {@code after} (from the newest when null).
+     */
+    List<TransactionRecord> findHistory(String accountField, TransactionFilter filter, HistoryPosition after, int limit);
+
+    /**
+     * All transactions matching {@code filter} on {@code accountField}, oldest first by
+     * (timestamp, id), read lazily from a cursor. The caller must close the stream.
+     */
+    Stream<TransactionRecord> streamHistory(String accountField, TransactionFilter filter);
+}
@@ -0,0 +1,139 @@
+package com.example.transaction_service.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.model.TransactionRecord;
+
+class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    TransactionRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean updateStatus(StatusChange change) {
+        return mongoTemplate.updateFirst(guarded(change.getId(), change.getExpectedStatus()), update(change),
+                TransactionRecord.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public long updateStatuses(List<StatusChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionRecord.class);
+        for (StatusChange change : changes) {
+            ops.updateOne(guarded(change.getId(), change.getExpectedStatus()), update(change));
+        }
+        return ops.execute().getModifiedCount();
+    }
+
+    @Override
+    public void insertIgnoringDuplicates(List<TransactionRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionRecord.class);
+        ops.insert(records);
+        try {
+            ops.execute();
+        } catch (BulkOperationException ex) {
+            if (!onlyDuplicates(ex.getErrors())) {
+                throw ex;
+            }
+        } catch (DataIntegrityViolationException ex) {
+            if (!(ex.getCause() instanceof MongoBulkWriteException bulk) || !onlyDuplicates(bulk.getWriteErrors())) {
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public List<String> findBatchIdsWithStatus(String status) {
+        return mongoTemplate.findDistinct(Query.query(Criteria.where("status").is(status).and("batchId").exists(true)),
+                "batchId", TransactionRecord.class, String.class);
+    }
+
+    @Override
+    public List<TransactionRecord> findBatch(String batchId, String status) {
+        Query query = Query.query(Criteria.where("batchId").is(batchId).and("status").is(status))
+                .with(Sort.by("batchIndex"));
+        return mongoTemplate.find(query, TransactionRecord.class);
+    }
+
+    @Override
+    public List<TransactionRecord> findHistory(String accountField, TransactionFilter filter,
+                                               HistoryPosition after, int limit) {
+        List<Criteria> parts = filtered(accountField, filter);
+        if (after != null) {
+            // seek: (timestamp, id) < (after.timestamp, after.id)
+            parts.add(new Criteria().orOperator(
+                    Criteria.where("timestamp").lt(after.getTimestamp()),
+                    Criteria.where("timestamp").is(after.getTimestamp()).and("id").lt(after.getId())));
+        }
+        Query query = Query.query(new Criteria().andOperator(parts))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, TransactionRecord.class);
+    }
+
+    @Override
+    public Stream<TransactionRecord> streamHistory(String accountField, TransactionFilter filter) {
+        Query query = Query.query(new Criteria().andOperator(filtered(accountField, filter)))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, TransactionRecord.class);
+    }
+
+    private static List<Criteria> filtered(String accountField, TransactionFilter filter) {
+        List<Criteria> parts = new ArrayList<>();
+        parts.add(Criteria.where(accountField).is(filter.getAccount()));
+        if (filter.getFrom() != null) {
+            parts.add(Criteria.where("timestamp").gte(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            parts.add(Criteria.where("timestamp").lt(filter.getTo()));
+        }
+        if (filter.getType() != null) {
+            parts.add(Criteria.where("type").is(filter.getType()));
+        }
+        if (filter.getStatus() != null) {
+            parts.add(Criteria.where("status").is(filter.getStatus()));
+        }
+        return parts;
+    }
+
+    private static boolean onlyDuplicates(List<BulkWriteError> errors) {
+        return errors.stream().allMatch(e -> e.getCode() == DUPLICATE_KEY);
+    }
+
+    private static Update update(StatusChange change) {
+        Update update = Update.update("status", change.getNewStatus());
+        if (change.getOutbox() != null) {
+            update.set("outbox", change.getOutbox());
+        }
+        return update;
+    }
+
+    private static Query guarded(String id, String expectedStatus) {
+        return Query.query(Criteria.where("_id").is(id).and("status").is(expectedStatus));
+    }
+}
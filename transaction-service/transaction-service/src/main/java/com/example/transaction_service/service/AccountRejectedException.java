@@ -0,0 +1,12 @@
+package com.example.transaction_service.service;
+
+/**
+ * The account of a transaction is known not to exist or to be inactive, so the transaction is
+ * refused before anything is recorded or sent to account-service.
+ */
+public class AccountRejectedException extends RuntimeException {
+
+    public AccountRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.transaction_service.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.transaction_service.client.AccountClient;
+
+/**
+ * Near cache of whether an account exists and is active, filled from
+ * {@link AccountClient#getAccount}. Transactions on an account cached as missing or inactive
+ * are refused with {@link AccountRejectedException} before any record is written.
+ *
+ * Entries expire after {@code ttl}; missing accounts after the shorter {@code negative-ttl},
+ * so a newly created account is usable soon. A failed lookup (account-service down, limit
+ * reached) is not cached and lets the transaction go ahead. Entries are dropped when a
+ * transaction on the account fails, and through {@code DELETE /actuator/accountstatus}.
+ *
+ * Lookups run on the caller's thread outside the map, so the remote call never holds a map
+ * lock (which would pin a virtual thread), and concurrent lookups of one account share it.
+ */
+@Component
+public class AccountStatusCache {
+
+    public enum Status { ACTIVE, INACTIVE, NOT_FOUND }
+
+    private final AccountClient accountClient;
+    private final boolean enabled;
+    private final AsyncCache<String, Status> cache;
+    private final Counter rejectedNotFound;
+    private final Counter rejectedInactive;
+
+    public AccountStatusCache(AccountClient accountClient, MeterRegistry registry,
+                              @Value("${transactions.account-status.enabled:true}") boolean enabled,
+                              @Value("${transactions.account-status.max-size:10000}") long maxSize,
+                              @Value("${transactions.account-status.ttl:30s}") Duration ttl,
+                              @Value("${transactions.account-status.negative-ttl:5s}") Duration negativeTtl) {
+        this.accountClient = accountClient;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Status>() {
+                    @Override
+                    public long expireAfterCreate(String account, Status status, long currentTime) {
+                        return (status == Status.NOT_FOUND ? negativeTtl : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String account, Status status, long currentTime, long currentDuration) {
+                        return expireAfterCreate(account, status, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String account, Status status, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        // cache.gets{cache=account-status,result=hit|miss}, cache.size, ...
+        CaffeineCacheMetrics.monitor(registry, cache, "account-status");
+        this.rejectedNotFound = Counter.builder("transactions.rejected.early")
+                .tag("reason", "not_found")
+                .description("Transactions refused from the account status cache")
+                .register(registry);
+        this.rejectedInactive = Counter.builder("transactions.rejected.early")
+                .tag("reason", "inactive")
+                .description("Transactions refused from the account status cache")
+                .register(registry);
+    }
+
+    /** Throws {@link AccountRejectedException} if the account is known to be missing or inactive. */
+    public void check(String accountNumber) {
+        if (!enabled || accountNumber == null) {
+            return;
+        }
+        Status status = lookup(accountNumber);
+        if (status == Status.NOT_FOUND) {
+            rejectedNotFound.increment();
+            throw new AccountRejectedException("Account not found: " + accountNumber);
+        }
+        if (status == Status.INACTIVE) {
+            rejectedInactive.increment();
+            throw new AccountRejectedException("Account is inactive: " + accountNumber);
+        }
+    }
+
+    /** The cached status, without loading; null when not cached. */
+    public Status peek(String accountNumber) {
+        CompletableFuture<Status> entry = cache.getIfPresent(accountNumber);
+        return entry != null && entry.isDone() && !entry.isCompletedExceptionally() ? entry.join() : null;
+    }
+
+    public void invalidate(String accountNumber) {
+        cache.synchronous().invalidate(accountNumber);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private Status lookup(String accountNumber) {
+        CompletableFuture<Status> mine = new CompletableFuture<>();
+        boolean[] installed = {false};
+        CompletableFuture<Status> entry = cache.get(accountNumber, (n, executor) -> {
+            installed[0] = true;
+            return mine;
+        });
+        if (installed[0]) {
+            // null (unknown) is not cached
+            mine.complete(load(accountNumber));
+        }
+        try {
+            return entry.join();
+        } catch (CompletionException ex) {
+            return null;
+        }
+    }
+
+    private Status load(String accountNumber) {
+        try {
+            return accountClient.getAccount(accountNumber).isActive() ? Status.ACTIVE : Status.INACTIVE;
+        } catch (FeignException.NotFound ex) {
+            return Status.NOT_FOUND;
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
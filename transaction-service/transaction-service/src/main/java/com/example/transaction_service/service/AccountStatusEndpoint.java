@@ -0,0 +1,43 @@
+package com.example.transaction_service.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/accountstatus/{accountNumber}} shows the cached status of an account;
+ * {@code DELETE /actuator/accountstatus/{accountNumber}} drops it (e.g. after its status was
+ * changed in account-service) and {@code DELETE /actuator/accountstatus} drops all entries.
+ */
+@Component
+@Endpoint(id = "accountstatus")
+public class AccountStatusEndpoint {
+
+    private final AccountStatusCache cache;
+
+    public AccountStatusEndpoint(AccountStatusCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status(@Selector String accountNumber) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("accountNumber", accountNumber);
+        body.put("status", cache.peek(accountNumber)); // null when not cached
+        return body;
+    }
+
+    @DeleteOperation
+    public void invalidate(@Selector String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    @DeleteOperation
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
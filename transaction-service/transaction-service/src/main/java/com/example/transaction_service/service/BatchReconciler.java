@@ -0,0 +1,84 @@
+package com.example.transaction_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.transaction_service.dto.BalanceDelta;
+import com.example.transaction_service.dto.BalanceDeltaResult;
+import com.example.transaction_service.dto.BatchItemResult;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.TransactionRepository;
+
+/**
+ * Settles batch transactions left UNKNOWN by {@link TransactionBatchService}. Each batch is
+ * sent again to {@code balances:batch} with its original batch id: account-service returns the
+ * stored results if it applied the batch, or applies it now if it never saw it. Records then
+ * move from UNKNOWN to SUCCESS (with their notification) or FAILED. A batch account-service
+ * still reports in progress, or that cannot be reached, stays UNKNOWN until the next run.
+ * Runs on every node; the batch id and the status guard make overlapping runs harmless.
+ */
+@Component
+public class BatchReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchReconciler.class);
+
+    private final TransactionRepository repo;
+    private final TransactionService svc;
+    private final TransactionRecorder recorder;
+    private final NotificationOutbox outbox;
+
+    public BatchReconciler(TransactionRepository repo, TransactionService svc,
+                           TransactionRecorder recorder, NotificationOutbox outbox) {
+        this.repo = repo;
+        this.svc = svc;
+        this.recorder = recorder;
+        this.outbox = outbox;
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.batch.reconcile-interval:PT1M}",
+               initialDelayString = "${transactions.batch.reconcile-interval:PT1M}")
+    public void reconcile() {
+        for (String batchId : repo.findBatchIdsWithStatus(BatchItemResult.UNKNOWN)) {
+            try {
+                reconcile(batchId);
+            } catch (RuntimeException ex) {
+                log.warn("Batch {} still unknown: {}", batchId, ex.getMessage());
+            }
+        }
+    }
+
+    void reconcile(String batchId) {
+        List<TransactionRecord> records = repo.findBatch(batchId, BatchItemResult.UNKNOWN);
+        if (records.isEmpty()) {
+            return;
+        }
+        List<BalanceDelta> deltas = new ArrayList<>(records.size());
+        for (TransactionRecord tx : records) {
+            boolean deposit = "DEPOSIT".equals(tx.getType());
+            deltas.add(deposit ? new BalanceDelta(tx.getDestinationAccount(), tx.getAmount())
+                               : new BalanceDelta(tx.getSourceAccount(), -tx.getAmount()));
+        }
+        List<BalanceDeltaResult> results = svc.updateBalances(batchId, deltas);
+
+        List<TransactionRecord> settled = new ArrayList<>(records.size());
+        for (TransactionRecord tx : records) {
+            int k = tx.getBatchIndex();
+            if (k >= results.size()) {
+                log.warn("Batch {} has no result for item {}; left UNKNOWN", batchId, k);
+                continue;
+            }
+            if (BalanceDeltaResult.APPLIED.equals(results.get(k).getStatus())) {
+                tx.setStatus(BatchItemResult.SUCCESS);
+                outbox.queue(tx);
+            } else {
+                tx.setStatus(BatchItemResult.FAILED);
+            }
+            settled.add(tx);
+        }
+        long updated = recorder.settleAll(settled);
+        log.info("Batch {} reconciled: {} of {} transactions settled", batchId, updated, records.size());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.transaction_service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects items in a bounded queue and hands them to {@code sink} in batches, either when
+ * {@code maxBatch} items are waiting or every {@code interval}, on one background thread.
+ *
+ * When the queue is full the submitting thread writes its own item (caller runs), which slows
+ * producers down to the speed of the database instead of dropping work or growing the heap.
+ * {@link #close()} stops the timer and drains what is left.
+ *
+ * Meters are tagged {@code pipeline=<name>}: {@code transactions.flusher.queue.depth},
+ * {@code transactions.flusher.batch.size}, {@code transactions.flusher.flush.latency},
+ * {@code transactions.flusher.caller.runs} and {@code transactions.flusher.dropped}.
+ */
+public class BatchingFlusher<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingFlusher.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final String name;
+    private final int maxBatch;
+    private final Consumer<List<T>> sink;
+    private final BlockingQueue<T> queue;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+    private final Counter callerRuns;
+    private final Counter dropped;
+
+    public BatchingFlusher(String name, int capacity, int maxBatch, Duration interval,
+                           Consumer<List<T>> sink, MeterRegistry registry) {
+        this.name = name;
+        this.maxBatch = maxBatch;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flusher-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        Gauge.builder("transactions.flusher.queue.depth", queue, BlockingQueue::size)
+                .tag("pipeline", name)
+                .description("Items waiting to be written")
+                .register(registry);
+        this.batchSize = DistributionSummary.builder("transactions.flusher.batch.size")
+                .tag("pipeline", name)
+                .description("Items per write")
+                .register(registry);
+        this.flushLatency = Timer.builder("transactions.flusher.flush.latency")
+                .tag("pipeline", name)
+                .description("Time to write one batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.callerRuns = Counter.builder("transactions.flusher.caller.runs")
+                .tag("pipeline", name)
+                .description("Items written by the submitting thread because the queue was full")
+                .register(registry);
+        this.dropped = Counter.builder("transactions.flusher.dropped")
+                .tag("pipeline", name)
+                .description("Items given up on after repeated write failures")
+                .register(registry);
+        long millis = Math.max(1, interval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flushAll, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void submit(T item) {
+        if (closed || !queue.offer(item)) {
+            // backpressure: the caller pays for its own write
+            callerRuns.increment();
+            write(List.of(item));
+            return;
+        }
+        if (queue.size() >= maxBatch && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flushAll();
+            });
+        }
+    }
+
+    private void flushAll() {
+        List<T> batch = new ArrayList<>(maxBatch);
+        while (queue.drainTo(batch, maxBatch) > 0) {
+            write(batch);
+            batch = new ArrayList<>(maxBatch);
+        }
+    }
+
+    private void write(List<T> batch) {
+        batchSize.record(batch.size());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushLatency.record(() -> sink.accept(batch));
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt == MAX_ATTEMPTS) {
+                    dropped.increment(batch.size());
+                    log.error("Flusher {} dropped {} items after {} attempts", name, batch.size(), attempt, ex);
+                    return;
+                }
+                log.warn("Flusher {} write failed (attempt {}), retrying", name, attempt, ex);
+                try {
+                    Thread.sleep(50L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /** Stops the timer and writes everything still queued on the calling thread. */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Flusher {} did not stop in time", name);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.transaction_service.service;
+
+/**
+ * Another request with the same Idempotency-Key is still running (or its claim vanished while
+ * this one waited), so this one is neither executed nor answered; the client should retry.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
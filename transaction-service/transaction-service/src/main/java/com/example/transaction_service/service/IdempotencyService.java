@@ -0,0 +1,137 @@
+package com.example.transaction_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import com.example.transaction_service.model.IdempotencyRecord;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.IdempotencyRepository;
+
+/**
+ * Runs a transaction at most once per Idempotency-Key.
+ *
+ * Requests with the same key on this node share one future in a bounded Caffeine map, so they
+ * collapse into a single execution and repeats are answered from memory. Across nodes (and
+ * after the local entry is gone) the {@code idempotency_keys} collection decides: the first
+ * insert of the key wins and stores the result; later requests get the stored result back, or
+ * an {@link IdempotencyConflictException} while the first one is still running.
+ *
+ * The first request holds the key for {@code transactions.idempotency.lease}. If it does not
+ * finish by then (its node crashed between claiming the key and storing the result), the next
+ * request with the same parameters takes the key over and executes. The lease must therefore
+ * be longer than any request can take, account-service timeouts included.
+ *
+ * A malformed key, or a key reused with a different operation or parameters, is rejected with
+ * {@link InvalidIdempotencyKeyException}.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRepository repo;
+    private final Duration lease;
+    private final Cache<String, CompletableFuture<IdempotencyRecord>> recent;
+
+    public IdempotencyService(IdempotencyRepository repo, MeterRegistry registry,
+                              @Value("${transactions.idempotency.local-max-size:100000}") long localMaxSize,
+                              @Value("${transactions.idempotency.local-ttl:10m}") Duration localTtl,
+                              @Value("${transactions.idempotency.lease:2m}") Duration lease) {
+        this.repo = repo;
+        this.lease = lease;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, recent, "idempotency");
+    }
+
+    public TransactionRecord execute(String key, String fingerprint, Supplier<TransactionRecord> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> existing = recent.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            return resultOf(awaitOther(existing), fingerprint);
+        }
+        try {
+            IdempotencyRecord done = executeOnce(key, fingerprint, action);
+            mine.complete(done);
+            return resultOf(done, fingerprint);
+        } catch (RuntimeException ex) {
+            // let a later retry execute again
+            recent.asMap().remove(key, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private IdempotencyRecord executeOnce(String key, String fingerprint, Supplier<TransactionRecord> action) {
+        Instant now = Instant.now();
+        String owner = UUID.randomUUID().toString();
+        IdempotencyRecord claim = new IdempotencyRecord(key, fingerprint, owner, now, now.plus(lease));
+        try {
+            repo.insert(claim);
+        } catch (DuplicateKeyException ex) {
+            IdempotencyRecord stored = repo.findById(key)
+                    .orElseThrow(() -> new IdempotencyConflictException("Idempotency-Key " + key + " expired while in use, retry"));
+            if (IdempotencyRecord.COMPLETED.equals(stored.getStatus()) || !stored.getFingerprint().equals(fingerprint)) {
+                return stored;
+            }
+            if (!repo.takeOver(key, fingerprint, now, owner, now.plus(lease))) {
+                throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+            }
+            log.warn("Idempotency-Key {} was abandoned by the request that claimed it at {}; executing again", key, stored.getCreatedAt());
+        }
+        TransactionRecord result;
+        try {
+            result = action.get();
+        } catch (RuntimeException ex) {
+            repo.release(key, owner);
+            throw ex;
+        }
+        if (!repo.complete(key, owner, result)) {
+            log.warn("Idempotency-Key {} was taken over while its request ran longer than {}", key, lease);
+        }
+        claim.setStatus(IdempotencyRecord.COMPLETED);
+        claim.setResult(result);
+        return claim;
+    }
+
+    private static IdempotencyRecord awaitOther(CompletableFuture<IdempotencyRecord> other) {
+        try {
+            return other.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static TransactionRecord resultOf(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key " + record.getKey() + " was already used for a different request");
+        }
+        return record.getResult();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.transaction_service.service;
+
+/**
+ * The Idempotency-Key cannot be used for this request: it is malformed, or it was already used
+ * with a different operation or different parameters.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.transaction_service.service;
+
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+import com.example.transaction_service.model.OutboxEntry;
+import com.example.transaction_service.model.TransactionRecord;
+
+/**
+ * Queues notifications for asynchronous delivery instead of a blocking call to
+ * notification-service. The notification is an {@link OutboxEntry} on the transaction record
+ * itself, so it is stored by the same write as the record's final status, in every recording
+ * mode and through the spool. {@link OutboxDispatcher} sends them.
+ */
+@Component
+public class NotificationOutbox {
+
+    /** Attaches a notification to {@code tx}; call before the record is completed. */
+    public void queue(TransactionRecord tx) {
+        tx.setOutbox(new OutboxEntry(Instant.now()));
+    }
+}
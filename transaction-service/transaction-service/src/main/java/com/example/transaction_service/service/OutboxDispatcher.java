@@ -0,0 +1,173 @@
+package com.example.transaction_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.transaction_service.client.NotificationClient;
+import com.example.transaction_service.dto.NotificationAck;
+import com.example.transaction_service.dto.NotificationMessage;
+import com.example.transaction_service.model.OutboxEntry;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.OutboxRepository;
+
+/**
+ * Delivers the notifications queued on transaction records ({@link OutboxEntry}) to
+ * notification-service in batches.
+ *
+ * Each poll leases a batch, sends it to {@code POST /api/notifications/batch} and reads one
+ * acknowledgement per entry: SENT entries are removed from their record, the rest are retried with exponential
+ * backoff and marked DEAD after {@code max-attempts}. When the batch cannot be sent at all
+ * (notification-service down or unreachable), no entry is charged an attempt: the batch is put
+ * back with a backoff that grows with the number of consecutive failed sends, so an outage
+ * delays notifications but does not kill them. Delivery is at least once; the record id
+ * travels with the message as its outbox id so notification-service can drop redeliveries.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxRepository outboxRepo;
+    private final NotificationClient notificationClient;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Timer sendTimer;
+    private int failedSends; // consecutive batches that could not be sent; only the poll thread touches it
+
+    public OutboxDispatcher(OutboxRepository outboxRepo, NotificationClient notificationClient, MeterRegistry registry,
+                            @Value("${notifications.outbox.batch-size:100}") int batchSize,
+                            @Value("${notifications.outbox.lease:30s}") Duration lease,
+                            @Value("${notifications.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${notifications.outbox.initial-backoff:1s}") Duration initialBackoff,
+                            @Value("${notifications.outbox.max-backoff:5m}") Duration maxBackoff) {
+        this.outboxRepo = outboxRepo;
+        this.notificationClient = notificationClient;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.sent = Counter.builder("notifications.outbox.entries").tag("result", "sent").register(registry);
+        this.retried = Counter.builder("notifications.outbox.entries").tag("result", "retry").register(registry);
+        this.dead = Counter.builder("notifications.outbox.entries").tag("result", "dead").register(registry);
+        this.sendTimer = Timer.builder("notifications.outbox.send")
+                .description("Time to deliver one outbox batch")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval:PT1S}")
+    public void poll() {
+        try {
+            // keep going while batches come back full, so a backlog drains without waiting for the next tick
+            while (dispatchBatch() == batchSize) {
+                // next batch
+            }
+        } catch (RuntimeException ex) {
+            log.error("Outbox dispatch failed", ex);
+        }
+    }
+
+    /**
+     * Leases, sends and settles one batch; returns the number of entries claimed, or 0 when the
+     * batch could not be sent, so that {@link #poll} waits for the next tick.
+     */
+    int dispatchBatch() {
+        Instant now = Instant.now();
+        List<TransactionRecord> batch = outboxRepo.claim(batchSize, lease, now);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<NotificationMessage> messages = new ArrayList<>(batch.size());
+        for (TransactionRecord tx : batch) {
+            messages.add(message(tx).withOutboxId(tx.getId()));
+        }
+
+        Set<String> delivered = new HashSet<>();
+        boolean sendFailed = false;
+        try {
+            List<NotificationAck> acks = sendTimer.record(() -> notificationClient.sendBatch(messages));
+            if (acks != null) {
+                for (NotificationAck ack : acks) {
+                    if (NotificationAck.SENT.equals(ack.getStatus()) && ack.getOutboxId() != null) {
+                        delivered.add(ack.getOutboxId());
+                    }
+                }
+            }
+            failedSends = 0;
+        } catch (RuntimeException ex) {
+            sendFailed = true;
+            failedSends++;
+            log.warn("Could not deliver {} notifications, will retry", batch.size(), ex);
+        }
+
+        List<TransactionRecord> failed = new ArrayList<>();
+        for (TransactionRecord tx : batch) {
+            if (sendFailed) {
+                failed.add(sendLater(tx, now));
+            } else if (!delivered.contains(tx.getId())) {
+                failed.add(retryLater(tx, now));
+            }
+        }
+        if (!delivered.isEmpty()) {
+            outboxRepo.delivered(delivered);
+            sent.increment(delivered.size());
+        }
+        outboxRepo.reschedule(failed);
+        return sendFailed ? 0 : batch.size();
+    }
+
+    // not delivered because nothing could be sent: the entry itself did not fail
+    private TransactionRecord sendLater(TransactionRecord tx, Instant now) {
+        retried.increment();
+        tx.getOutbox().setAvailableAt(now.plus(backoff(failedSends)));
+        return tx;
+    }
+
+    private TransactionRecord retryLater(TransactionRecord tx, Instant now) {
+        OutboxEntry entry = tx.getOutbox();
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            entry.setStatus(OutboxEntry.DEAD);
+            dead.increment();
+            log.error("Giving up on notification for transaction {} after {} attempts", tx.getTransactionId(), attempts);
+        } else {
+            retried.increment();
+        }
+        entry.setAvailableAt(now.plus(backoff(attempts)));
+        return tx;
+    }
+
+    // DEPOSIT notifies the credited account, WITHDRAW the debited one, TRANSFER both
+    static NotificationMessage message(TransactionRecord tx) {
+        return switch (tx.getType()) {
+            case "TRANSFER" -> NotificationMessage.forTransfer(tx.getTransactionId(), tx.getSourceAccount(),
+                    tx.getDestinationAccount(), tx.getAmount());
+            case "DEPOSIT" -> NotificationMessage.forAccount(tx.getTransactionId(), "DEPOSIT", tx.getDestinationAccount(), tx.getAmount());
+            default -> NotificationMessage.forAccount(tx.getTransactionId(), tx.getType(), tx.getSourceAccount(), tx.getAmount());
+        };
+    }
+
+    Duration backoff(int attempts) {
+        long factor = 1L << Math.min(attempts - 1, 20);
+        Duration next = initialBackoff.multipliedBy(factor);
+        return next.compareTo(maxBackoff) > 0 ? maxBackoff : next;
+    }
+}
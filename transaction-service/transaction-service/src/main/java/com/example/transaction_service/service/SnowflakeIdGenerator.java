@@ -0,0 +1,97 @@
+package com.example.transaction_service.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Snowflake-style ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id and a
+ * 12-bit per-millisecond sequence, written as "TXN-" plus 13 Crockford base32 characters.
+ * The encoding is fixed width and its alphabet is in ASCII order, so ids sort by creation
+ * time as strings and new index entries go to the right edge of the B-tree.
+ *
+ * The (millisecond, sequence) pair lives in one {@link AtomicLong} that only moves forward
+ * with a CAS, so ids are strictly increasing per node without locks. When the sequence runs
+ * out, or the wall clock steps back, the generator keeps counting from the last value, which
+ * borrows from the next millisecond instead of waiting for it.
+ *
+ * Every replica needs its own {@code transactions.id.node-id} (0-1023). There is no default:
+ * two replicas on the same node id hand out the same ids, so startup fails when it is not set.
+ */
+@Component
+public class SnowflakeIdGenerator implements TransactionIdGenerator {
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13; // ceil(64 / 5)
+    private static final String PREFIX = "TXN-";
+
+    private final long node;
+    private final LongSupplier clock;
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${transactions.id.node-id:}") String nodeId) {
+        this(parseNodeId(nodeId), System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("transactions.id.node-id must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    private static int parseNodeId(String nodeId) {
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalStateException(
+                    "transactions.id.node-id (TRANSACTIONS_NODE_ID) is not set; give every replica its own value between 0 and " + MAX_NODE);
+        }
+        try {
+            return Integer.parseInt(nodeId.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("transactions.id.node-id must be a number between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+    }
+
+    @Override
+    public String nextId() {
+        return encode(nextLong());
+    }
+
+    long nextLong() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = now > prev ? now : prev + 1;
+        } while (!last.compareAndSet(prev, next));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    static String encode(long id) {
+        char[] out = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), out, 0);
+        for (int i = out.length - 1; i >= PREFIX.length(); i--) {
+            out[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(out);
+    }
+}
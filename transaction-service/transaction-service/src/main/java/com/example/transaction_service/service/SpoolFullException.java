@@ -0,0 +1,12 @@
+package com.example.transaction_service.service;
+
+/**
+ * The local transaction spool has used all its segments, so a record can be stored neither in
+ * Mongo nor on disk; the transaction service is unavailable until the spool drains.
+ */
+public class SpoolFullException extends RuntimeException {
+
+    public SpoolFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.transaction_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import com.example.transaction_service.model.OutboxEntry;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.StatusChange;
+import com.example.transaction_service.repository.TransactionRepository;
+
+/**
+ * Writes transaction records to Mongo, or to a local {@link TransactionSpool} while Mongo is
+ * unavailable, so a transaction does not fail only because its record could not be stored.
+ *
+ * With {@code transactions.spool.enabled}, a write that fails with a data access error, or
+ * that succeeds but takes longer than {@code latency-budget}, switches the writer to spooling:
+ * later writes go to the spool without trying Mongo. Every {@code replay-interval} the spool is
+ * drained into Mongo in append order; once a replayed batch is written within the budget,
+ * writes go to Mongo again. A status change for a record whose insert is still in the spool is
+ * spooled behind it. Replay is idempotent (inserts ignore duplicate ids, status updates are
+ * guarded by {@code status == PENDING}), so entries replayed again after a crash are harmless.
+ *
+ * Spooled records are not readable through the history endpoints until they are replayed.
+ * When the spool is disabled, writes go to Mongo and errors reach the caller.
+ *
+ * Meters: {@code transactions.spool.active}, {@code transactions.spool.pending},
+ * {@code transactions.spool.segments}, {@code transactions.spool.appended{kind}} and
+ * {@code transactions.spool.replayed}.
+ */
+@Component
+public class SpoolingRecordWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolingRecordWriter.class);
+
+    private static final byte INSERT = 1;
+    private static final byte STATUS = 2;
+
+    private final TransactionRepository txRepo;
+    private final TransactionSpool spool; // null when disabled
+    private final long budgetNanos;
+    private final int replayBatch;
+    private final Set<String> spooledInserts = ConcurrentHashMap.newKeySet(); // record ids not yet replayed
+    private volatile boolean spooling;
+
+    private final Counter insertsSpooled;
+    private final Counter statusesSpooled;
+    private final Counter replayed;
+
+    public SpoolingRecordWriter(TransactionRepository txRepo, MeterRegistry registry,
+                                @Value("${transactions.spool.enabled:false}") boolean enabled,
+                                @Value("${transactions.spool.dir:./spool}") String dir,
+                                @Value("${transactions.spool.segment-size:64MB}") DataSize segmentSize,
+                                @Value("${transactions.spool.max-segments:16}") int maxSegments,
+                                @Value("${transactions.spool.fsync:true}") boolean fsync,
+                                @Value("${transactions.spool.latency-budget:500ms}") Duration latencyBudget,
+                                @Value("${transactions.spool.replay-batch:500}") int replayBatch) {
+        this.txRepo = txRepo;
+        this.spool = enabled
+                ? new TransactionSpool(Path.of(dir), Math.toIntExact(segmentSize.toBytes()), maxSegments, fsync)
+                : null;
+        this.budgetNanos = latencyBudget.toNanos();
+        this.replayBatch = replayBatch;
+        this.insertsSpooled = Counter.builder("transactions.spool.appended").tag("kind", "insert").register(registry);
+        this.statusesSpooled = Counter.builder("transactions.spool.appended").tag("kind", "status").register(registry);
+        this.replayed = Counter.builder("transactions.spool.replayed").register(registry);
+        if (spool != null) {
+            Gauge.builder("transactions.spool.active", this, w -> w.spooling ? 1 : 0).register(registry);
+            Gauge.builder("transactions.spool.pending", spool, TransactionSpool::pending).register(registry);
+            Gauge.builder("transactions.spool.segments", spool, TransactionSpool::segmentCount).register(registry);
+            // inserts left over from before a restart still have to precede their status changes
+            spool.forEachPending(bytes -> {
+                if (bytes[0] == INSERT) {
+                    spooledInserts.add(decodeInsert(bytes).getId());
+                }
+            });
+        }
+    }
+
+    /** Inserts a record; with the spool enabled its id is assigned here, before any attempt. */
+    public TransactionRecord insert(TransactionRecord tx) {
+        if (spool == null) {
+            return txRepo.insert(tx);
+        }
+        assignId(tx);
+        return write(() -> txRepo.insert(tx), () -> spoolInsert(tx), tx, false);
+    }
+
+    /** Inserts records, ignoring ids that are already stored. */
+    public List<TransactionRecord> insertAll(List<TransactionRecord> txs) {
+        if (txs.isEmpty()) {
+            return txs;
+        }
+        txs.forEach(SpoolingRecordWriter::assignId);
+        return write(() -> {
+            txRepo.insertIgnoringDuplicates(txs);
+            return txs;
+        }, () -> txs.forEach(this::spoolInsert), txs, false);
+    }
+
+    /** Guarded status update; a spooled change is reported as applied. */
+    public boolean updateStatus(StatusChange change) {
+        return write(() -> txRepo.updateStatus(change),
+                () -> spoolStatus(change), true, spooledInserts.contains(change.getId()));
+    }
+
+    /** Guarded status updates; returns how many were applied, counting spooled ones. */
+    public long updateStatuses(List<StatusChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        boolean behindSpool = !spooledInserts.isEmpty()
+                && changes.stream().anyMatch(c -> spooledInserts.contains(c.getId()));
+        return write(() -> txRepo.updateStatuses(changes), () -> changes.forEach(this::spoolStatus),
+                (long) changes.size(), behindSpool);
+    }
+
+    private <R> R write(Supplier<R> direct, Runnable toSpool, R spooledResult, boolean mustSpool) {
+        if (spool == null) {
+            return direct.get();
+        }
+        if (!spooling && !mustSpool) {
+            long started = System.nanoTime();
+            try {
+                R result = direct.get();
+                if (System.nanoTime() - started > budgetNanos) {
+                    startSpooling("a write took longer than the latency budget", null);
+                }
+                return result;
+            } catch (DataIntegrityViolationException ex) {
+                throw ex; // not an outage
+            } catch (DataAccessException ex) {
+                startSpooling("a write failed", ex);
+            }
+        }
+        toSpool.run();
+        return spooledResult;
+    }
+
+    private void startSpooling(String reason, Exception ex) {
+        if (!spooling) {
+            spooling = true;
+            log.warn("Spooling transaction records locally: {}", reason, ex);
+        }
+    }
+
+    private void spoolInsert(TransactionRecord tx) {
+        spooledInserts.add(tx.getId());
+        try {
+            spool.append(encodeInsert(tx));
+        } catch (RuntimeException ex) {
+            spooledInserts.remove(tx.getId());
+            throw ex;
+        }
+        insertsSpooled.increment();
+    }
+
+    private void spoolStatus(StatusChange change) {
+        spool.append(encodeStatus(change));
+        statusesSpooled.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.spool.replay-interval:PT1S}")
+    public void replay() {
+        if (spool == null) {
+            return;
+        }
+        try {
+            // keep going while batches come back full, so a backlog drains without waiting for the next tick
+            while (replayBatch() == replayBatch) {
+                // next batch
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Spool replay failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    /** Writes the oldest spooled entries to Mongo; returns how many were replayed. */
+    int replayBatch() {
+        TransactionSpool.Batch batch = spool.read(replayBatch);
+        if (batch.entries().isEmpty()) {
+            if (spooling) {
+                // nothing was spooled since a slow write; try Mongo again
+                spooling = false;
+                log.info("Transaction records go to Mongo again");
+            }
+            return 0;
+        }
+        long started = System.nanoTime();
+        List<TransactionRecord> inserts = new ArrayList<>();
+        List<StatusChange> changes = new ArrayList<>();
+        for (byte[] bytes : batch.entries()) {
+            // runs of one kind are written together; a status change never overtakes its insert
+            if (bytes[0] == INSERT) {
+                flushStatuses(changes);
+                inserts.add(decodeInsert(bytes));
+            } else if (bytes[0] == STATUS) {
+                flushInserts(inserts);
+                changes.add(decodeStatus(bytes));
+            } else {
+                log.error("Skipping spool entry of unknown kind {}", bytes[0]);
+            }
+        }
+        flushInserts(inserts);
+        flushStatuses(changes);
+        spool.commit(batch);
+        replayed.increment(batch.entries().size());
+
+        if (spooling && System.nanoTime() - started <= budgetNanos) {
+            spooling = false;
+            log.info("Transaction records go to Mongo again; {} entries left to replay", spool.pending());
+        }
+        return batch.entries().size();
+    }
+
+    private void flushInserts(List<TransactionRecord> inserts) {
+        if (!inserts.isEmpty()) {
+            txRepo.insertIgnoringDuplicates(List.copyOf(inserts));
+            inserts.forEach(tx -> spooledInserts.remove(tx.getId()));
+            inserts.clear();
+        }
+    }
+
+    private void flushStatuses(List<StatusChange> changes) {
+        if (!changes.isEmpty()) {
+            txRepo.updateStatuses(List.copyOf(changes));
+            changes.clear();
+        }
+    }
+
+    private static void assignId(TransactionRecord tx) {
+        if (tx.getId() == null) {
+            tx.setId(new ObjectId().toHexString());
+        }
+    }
+
+    static byte[] encodeInsert(TransactionRecord tx) {
+        return encode(out -> {
+            out.writeByte(INSERT);
+            out.writeUTF(tx.getId());
+            writeNullable(out, tx.getTransactionId());
+            writeNullable(out, tx.getType());
+            out.writeLong(tx.getAmount());
+            writeNullable(out, tx.getSourceAccount());
+            writeNullable(out, tx.getDestinationAccount());
+            writeNullable(out, tx.getStatus());
+            writeInstant(out, tx.getTimestamp());
+            writeOutbox(out, tx.getOutbox());
+            writeNullable(out, tx.getBatchId());
+            out.writeInt(tx.getBatchIndex() == null ? -1 : tx.getBatchIndex());
+        });
+    }
+
+    static TransactionRecord decodeInsert(byte[] bytes) {
+        return decode(bytes, in -> {
+            TransactionRecord tx = new TransactionRecord();
+            tx.setId(in.readUTF());
+            tx.setTransactionId(readNullable(in));
+            tx.setType(readNullable(in));
+            tx.setAmount(in.readLong());
+            tx.setSourceAccount(readNullable(in));
+            tx.setDestinationAccount(readNullable(in));
+            tx.setStatus(readNullable(in));
+            tx.setTimestamp(readInstant(in));
+            tx.setOutbox(readOutbox(in));
+            // batch fields came after the outbox; older entries end before them
+            if (in.available() > 0) {
+                tx.setBatchId(readNullable(in));
+                int batchIndex = in.readInt();
+                tx.setBatchIndex(batchIndex < 0 ? null : batchIndex);
+            }
+            return tx;
+        });
+    }
+
+    static byte[] encodeStatus(StatusChange change) {
+        return encode(out -> {
+            out.writeByte(STATUS);
+            out.writeUTF(change.getId());
+            writeNullable(out, change.getExpectedStatus());
+            writeNullable(out, change.getNewStatus());
+            writeOutbox(out, change.getOutbox());
+        });
+    }
+
+    static StatusChange decodeStatus(byte[] bytes) {
+        return decode(bytes, in -> new StatusChange(in.readUTF(), readNullable(in), readNullable(in), readOutbox(in)));
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static byte[] encode(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T decode(byte[] bytes, Reader<T> reader) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            return reader.read(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unreadable spool entry", ex);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    // appended last, so entries spooled before the outbox moved onto the record still decode
+    private static void writeOutbox(DataOutputStream out, OutboxEntry outbox) throws IOException {
+        out.writeBoolean(outbox != null);
+        if (outbox != null) {
+            writeNullable(out, outbox.getStatus());
+            out.writeInt(outbox.getAttempts());
+            writeInstant(out, outbox.getAvailableAt());
+            writeInstant(out, outbox.getCreatedAt());
+        }
+    }
+
+    private static OutboxEntry readOutbox(DataInputStream in) throws IOException {
+        if (in.available() == 0 || !in.readBoolean()) {
+            return null;
+        }
+        OutboxEntry outbox = new OutboxEntry();
+        outbox.setStatus(readNullable(in));
+        outbox.setAttempts(in.readInt());
+        outbox.setAvailableAt(readInstant(in));
+        outbox.setCreatedAt(readInstant(in));
+        return outbox;
+    }
+
+    @PreDestroy
+    void close() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.transaction_service.service;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.example.transaction_service.client.AccountCallRejectedException;
+import com.example.transaction_service.dto.BalanceDelta;
+import com.example.transaction_service.dto.BalanceDeltaResult;
+import com.example.transaction_service.dto.BatchItem;
+import com.example.transaction_service.dto.BatchItemResult;
+import com.example.transaction_service.dto.BatchResult;
+import com.example.transaction_service.model.TransactionRecord;
+
+/**
+ * Runs a list of mixed deposits, withdrawals and transfers.
+ *
+ * Items are grouped by account so every account sees its items in submission order:
+ * <ul>
+ *   <li>Accounts linked by a transfer form one group whose items run one after another
+ *       through {@link TransactionService}.</li>
+ *   <li>All other accounts only have deposits and withdrawals. They are spread over buckets by
+ *       account, and each bucket sends its items in chunks to account-service's
+ *       {@code balances:batch} endpoint (through the {@code account} circuit breaker of
+ *       {@link TransactionService}), which applies them in order per account. Records are
+ *       written with one bulk insert and one bulk status update per chunk; the status update
+ *       also queues the notifications.</li>
+ * </ul>
+ * Every chunk carries a batch id, so account-service applies it at most once. A chunk whose
+ * outcome is unclear (read timeout, 5xx) is sent once more with the same id; if that does not
+ * answer either, its items are recorded UNKNOWN, without a notification, and
+ * {@link BatchReconciler} settles them later. Only errors that prove the chunk was never
+ * applied (open circuit, rejected by the limiter, 4xx, connection refused) mark it FAILED.
+ * Groups and buckets run in parallel on at most {@code transactions.batch.max-concurrency}
+ * threads, virtual ones when {@code spring.threads.virtual.enabled} is set.
+ */
+@Service
+public class TransactionBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    private final TransactionService svc;
+    private final TransactionRecorder recorder;
+    private final NotificationOutbox outbox;
+    private final TransactionIdGenerator ids;
+    private final int maxItems;
+    private final int chunkSize;
+    private final int concurrency;
+    private final ExecutorService executor;
+
+    public TransactionBatchService(TransactionService svc, TransactionRecorder recorder,
+                                   NotificationOutbox outbox, TransactionIdGenerator ids,
+                                   @Value("${transactions.batch.max-items:10000}") int maxItems,
+                                   @Value("${transactions.batch.chunk-size:500}") int chunkSize,
+                                   @Value("${transactions.batch.max-concurrency:8}") int concurrency,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("transactions.batch.chunk-size must be at least 1");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("transactions.batch.max-concurrency must be at least 1");
+        }
+        this.svc = svc;
+        this.recorder = recorder;
+        this.outbox = outbox;
+        this.ids = ids;
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = virtualThreads
+                ? Thread.ofVirtual().name("tx-batch-", 1).factory()
+                : r -> {
+                    Thread t = new Thread(r, "tx-batch-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                };
+        this.executor = Executors.newFixedThreadPool(concurrency, factory);
+    }
+
+    public BatchResult submit(List<BatchItem> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A batch holds at most " + maxItems + " items");
+        }
+        long started = System.nanoTime();
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+
+        AccountGroups groups = new AccountGroups();
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            String error = validate(item);
+            if (error != null) {
+                results[i] = new BatchItemResult(i, null, BatchItemResult.REJECTED, error);
+            } else if (isTransfer(item)) {
+                groups.union(item.getSourceAccount(), item.getDestinationAccount());
+            } else {
+                groups.find(item.getAccountNumber());
+            }
+        }
+        Set<String> transferGroups = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] == null && isTransfer(items.get(i))) {
+                transferGroups.add(groups.find(items.get(i).getSourceAccount()));
+            }
+        }
+
+        Map<String, List<Integer>> sequential = new LinkedHashMap<>();
+        List<List<Integer>> buckets = new ArrayList<>(concurrency);
+        for (int b = 0; b < concurrency; b++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BatchItem item = items.get(i);
+            String group = groups.find(isTransfer(item) ? item.getSourceAccount() : item.getAccountNumber());
+            if (transferGroups.contains(group)) {
+                sequential.computeIfAbsent(group, g -> new ArrayList<>()).add(i);
+            } else {
+                buckets.get(Math.floorMod(group.hashCode(), concurrency)).add(i);
+            }
+        }
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (List<Integer> bucket : buckets) {
+            if (!bucket.isEmpty()) {
+                tasks.add(run(bucket, results, () -> applyDeltas(items, bucket, results)));
+            }
+        }
+        for (List<Integer> group : sequential.values()) {
+            tasks.add(run(group, results, () -> applyInOrder(items, group, results)));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new BatchResult(Arrays.asList(results), elapsedMillis);
+    }
+
+    // Items left without a result by an unexpected error are reported as FAILED
+    private CompletableFuture<Void> run(List<Integer> indices, BatchItemResult[] results, Runnable work) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                work.run();
+            } catch (RuntimeException ex) {
+                log.error("Batch group of {} items failed", indices.size(), ex);
+                for (int i : indices) {
+                    if (results[i] == null) {
+                        results[i] = new BatchItemResult(i, null, BatchItemResult.FAILED, ex.getMessage());
+                    }
+                }
+            }
+        }, executor);
+    }
+
+    private void applyInOrder(List<BatchItem> items, List<Integer> indices, BatchItemResult[] results) {
+        for (int i : indices) {
+            BatchItem item = items.get(i);
+            long amount = item.getAmount();
+            try {
+                TransactionRecord tx = switch (type(item)) {
+                    case "DEPOSIT" -> svc.deposit(item.getAccountNumber(), amount);
+                    case "WITHDRAW" -> svc.withdraw(item.getAccountNumber(), amount);
+                    default -> svc.transfer(item.getSourceAccount(), item.getDestinationAccount(), amount);
+                };
+                results[i] = new BatchItemResult(i, tx.getTransactionId(), tx.getStatus(), null);
+            } catch (AccountRejectedException ex) {
+                results[i] = new BatchItemResult(i, null, BatchItemResult.REJECTED, ex.getMessage());
+            }
+        }
+    }
+
+    private void applyDeltas(List<BatchItem> items, List<Integer> indices, BatchItemResult[] results) {
+        for (int from = 0; from < indices.size(); from += chunkSize) {
+            applyChunk(items, indices.subList(from, Math.min(indices.size(), from + chunkSize)), results);
+        }
+    }
+
+    private void applyChunk(List<BatchItem> items, List<Integer> indices, BatchItemResult[] results) {
+        List<TransactionRecord> records = new ArrayList<>(indices.size());
+        List<BalanceDelta> deltas = new ArrayList<>(indices.size());
+        for (int i : indices) {
+            BatchItem item = items.get(i);
+            boolean deposit = "DEPOSIT".equals(type(item));
+            long amount = item.getAmount();
+            records.add(new TransactionRecord(ids.nextId(), deposit ? "DEPOSIT" : "WITHDRAW", amount,
+                    deposit ? null : item.getAccountNumber(), deposit ? item.getAccountNumber() : null, null, null));
+            deltas.add(new BalanceDelta(item.getAccountNumber(), deposit ? amount : -amount));
+        }
+        String batchId = ids.nextId();
+        for (int k = 0; k < records.size(); k++) {
+            records.get(k).setBatchId(batchId);
+            records.get(k).setBatchIndex(k);
+        }
+        records = recorder.beginAll(records);
+
+        String[] errors = new String[indices.size()];
+        String outcome = BatchItemResult.SUCCESS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<BalanceDeltaResult> applied = svc.updateBalances(batchId, deltas);
+                if (applied.size() != deltas.size()) {
+                    throw new IllegalStateException("Expected " + deltas.size() + " results, got " + applied.size());
+                }
+                for (int k = 0; k < applied.size(); k++) {
+                    String status = applied.get(k).getStatus();
+                    if (!BalanceDeltaResult.APPLIED.equals(status)) {
+                        errors[k] = String.valueOf(status);
+                    }
+                }
+                break;
+            } catch (Exception ex) {
+                if (notApplied(ex)) {
+                    log.warn("Batch {} of {} items failed: {}", batchId, deltas.size(), ex.getMessage());
+                    outcome = BatchItemResult.FAILED;
+                    Arrays.fill(errors, "Account service unavailable");
+                    break;
+                }
+                if (attempt == 2) {
+                    log.warn("Outcome of batch {} ({} items) unknown, left for reconciliation: {}",
+                            batchId, deltas.size(), ex.getMessage());
+                    outcome = BatchItemResult.UNKNOWN;
+                    Arrays.fill(errors, "Outcome unknown; batch " + batchId + " is reconciled later");
+                    break;
+                }
+                log.info("Retrying batch {} after: {}", batchId, ex.getMessage());
+            }
+        }
+
+        for (int k = 0; k < records.size(); k++) {
+            TransactionRecord tx = records.get(k);
+            if (outcome.equals(BatchItemResult.SUCCESS) && errors[k] == null) {
+                tx.setStatus(BatchItemResult.SUCCESS);
+                outbox.queue(tx);
+            } else {
+                tx.setStatus(outcome.equals(BatchItemResult.UNKNOWN) ? BatchItemResult.UNKNOWN : BatchItemResult.FAILED);
+            }
+        }
+        recorder.completeAll(records);
+
+        for (int k = 0; k < indices.size(); k++) {
+            int i = indices.get(k);
+            results[i] = new BatchItemResult(i, records.get(k).getTransactionId(), records.get(k).getStatus(), errors[k]);
+        }
+    }
+
+    // The call never reached account-service, or was refused before anything was applied
+    static boolean notApplied(Exception ex) {
+        if (ex instanceof CallNotPermittedException || ex instanceof AccountCallRejectedException) {
+            return true;
+        }
+        if (ex instanceof RetryableException && ex.getCause() instanceof ConnectException) {
+            return true;
+        }
+        if (ex instanceof FeignException feign) {
+            int status = feign.status();
+            return status >= 400 && status < 500 && status != 408 && status != 409;
+        }
+        return false;
+    }
+
+    static String validate(BatchItem item) {
+        if (item == null || item.getType() == null) {
+            return "type is required";
+        }
+        if (item.getAmount() == null || item.getAmount() <= 0) {
+            return "amount must be positive";
+        }
+        switch (type(item)) {
+            case "DEPOSIT", "WITHDRAW" -> {
+                if (isBlank(item.getAccountNumber())) {
+                    return "accountNumber is required";
+                }
+            }
+            case "TRANSFER" -> {
+                if (isBlank(item.getSourceAccount()) || isBlank(item.getDestinationAccount())) {
+                    return "sourceAccount and destinationAccount are required";
+                }
+                if (item.getSourceAccount().equals(item.getDestinationAccount())) {
+                    return "sourceAccount and destinationAccount must differ";
+                }
+            }
+            default -> {
+                return "Unsupported type: " + item.getType();
+            }
+        }
+        return null;
+    }
+
+    private static String type(BatchItem item) {
+        return item.getType().toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isTransfer(BatchItem item) {
+        return "TRANSFER".equals(type(item));
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Union-find over account numbers; accounts joined by a transfer share a root
+    private static final class AccountGroups {
+        private final Map<String, String> parent = new HashMap<>();
+
+        String find(String account) {
+            parent.putIfAbsent(account, account);
+            String x = account;
+            while (!x.equals(parent.get(x))) {
+                parent.put(x, parent.get(parent.get(x))); // path halving
+                x = parent.get(x);
+            }
+            return x;
+        }
+
+        void union(String a, String b) {
+            String ra = find(a);
+            String rb = find(b);
+            if (!ra.equals(rb)) {
+                parent.put(rb, ra);
+            }
+        }
+    }
+}
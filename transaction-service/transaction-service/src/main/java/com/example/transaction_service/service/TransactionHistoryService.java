@@ -0,0 +1,77 @@
+package com.example.transaction_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.dto.TransactionPage;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.HistoryPosition;
+import com.example.transaction_service.repository.TransactionRepository;
+
+/**
+ * Account history newest first. An account appears as sourceAccount (withdrawals, outgoing
+ * transfers) or destinationAccount (deposits, incoming transfers), so each page reads up to
+ * {@code limit} rows from each side with an index-backed keyset query and merges them. Page
+ * cost depends on the page size, not on how many transactions the account has.
+ */
+@Service
+public class TransactionHistoryService {
+
+    // newest first; ids (ObjectId hex) break timestamp ties the same way Mongo sorts them
+    private static final Comparator<TransactionRecord> NEWEST_FIRST =
+            Comparator.comparing(TransactionRecord::getTimestamp)
+                    .thenComparing(TransactionRecord::getId)
+                    .reversed();
+
+    private final TransactionRepository txRepo;
+
+    public TransactionHistoryService(TransactionRepository txRepo) {
+        this.txRepo = txRepo;
+    }
+
+    public TransactionPage history(TransactionFilter filter, String after, int limit) {
+        if (filter.getAccount() == null || filter.getAccount().isBlank()) {
+            throw new IllegalArgumentException("account is required");
+        }
+        HistoryPosition position = after == null ? null : decodeCursor(after);
+        List<TransactionRecord> merged = new ArrayList<>(2 * limit);
+        merged.addAll(txRepo.findHistory("sourceAccount", filter, position, limit));
+        merged.addAll(txRepo.findHistory("destinationAccount", filter, position, limit));
+        merged.sort(NEWEST_FIRST);
+
+        List<TransactionRecord> items = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (TransactionRecord tx : merged) {
+            if (items.size() == limit) {
+                break;
+            }
+            if (seen.add(tx.getId())) {
+                items.add(tx);
+            }
+        }
+        String next = items.size() < limit ? null : encodeCursor(items.get(items.size() - 1));
+        return new TransactionPage(items, next);
+    }
+
+    static String encodeCursor(TransactionRecord tx) {
+        String raw = tx.getTimestamp().toEpochMilli() + ":" + tx.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static HistoryPosition decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new HistoryPosition(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), raw.substring(sep + 1));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
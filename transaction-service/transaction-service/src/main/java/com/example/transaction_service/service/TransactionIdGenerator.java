@@ -0,0 +1,10 @@
+package com.example.transaction_service.service;
+
+/**
+ * Source of {@code transactionId} values. Implementations must be thread-safe and must not
+ * repeat an id, including across replicas.
+ */
+public interface TransactionIdGenerator {
+
+    String nextId();
+}
@@ -0,0 +1,152 @@
+package com.example.transaction_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.StatusChange;
+
+/**
+ * Persists the lifecycle of a transaction. {@code transactions.recording.mode} selects how:
+ * <ul>
+ *   <li>{@code sync} (default): one insert of the PENDING record and one status update
+ *       guarded by {@code status == PENDING}, both on the request thread.</li>
+ *   <li>{@code background}: as sync, but the status updates are written by a
+ *       {@link BatchingFlusher} in unordered bulk updates.</li>
+ *   <li>{@code write-behind}: nothing is written on the request thread. Ids are assigned up
+ *       front and only the final record is queued, then inserted in bulk. A record is not
+ *       readable until its batch is flushed, and queued records are lost if the process
+ *       dies without a clean shutdown.</li>
+ * </ul>
+ * Writes go through {@link SpoolingRecordWriter}, which can hold them in a local spool while
+ * Mongo is unavailable.
+ */
+@Component
+public class TransactionRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionRecorder.class);
+
+    static final String PENDING = "PENDING";
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final SpoolingRecordWriter writer;
+    private final BatchingFlusher<StatusChange> statusFlusher;       // background mode only
+    private final BatchingFlusher<TransactionRecord> insertFlusher;  // write-behind mode only
+
+    public TransactionRecorder(SpoolingRecordWriter writer, MeterRegistry registry,
+                               @Value("${transactions.recording.mode:sync}") String mode,
+                               @Value("${transactions.recording.queue-capacity:10000}") int queueCapacity,
+                               @Value("${transactions.recording.max-batch:500}") int maxBatch,
+                               @Value("${transactions.recording.flush-interval:50ms}") Duration flushInterval) {
+        this.writer = writer;
+        this.statusFlusher = "background".equalsIgnoreCase(mode)
+                ? new BatchingFlusher<>("status", queueCapacity, maxBatch, flushInterval, writer::updateStatuses, registry)
+                : null;
+        this.insertFlusher = "write-behind".equalsIgnoreCase(mode)
+                ? new BatchingFlusher<>("insert", queueCapacity, maxBatch, flushInterval, writer::insertAll, registry)
+                : null;
+    }
+
+    /** Starts a PENDING transaction; its id is set on {@code tx}. */
+    public TransactionRecord begin(TransactionRecord tx) {
+        tx.setStatus(PENDING);
+        tx.setTimestamp(Instant.now());
+        if (insertFlusher != null) {
+            // written once, by complete(), with its final status
+            tx.setId(new ObjectId().toHexString());
+            return tx;
+        }
+        return writer.insert(tx);
+    }
+
+    /**
+     * Moves a transaction started with {@link #begin} to the status already set on {@code tx}.
+     * Its outbox entry, if any, is written in the same operation.
+     */
+    public void complete(TransactionRecord tx) {
+        if (insertFlusher != null) {
+            insertFlusher.submit(tx);
+            return;
+        }
+        StatusChange change = new StatusChange(tx.getId(), PENDING, tx.getStatus(), tx.getOutbox());
+        if (statusFlusher != null) {
+            statusFlusher.submit(change);
+            return;
+        }
+        if (!writer.updateStatus(change)) {
+            log.warn("Transaction {} was not PENDING when completing it as {}", tx.getTransactionId(), tx.getStatus());
+        }
+    }
+
+    /** {@link #begin} for many transactions with one bulk insert. */
+    public List<TransactionRecord> beginAll(List<TransactionRecord> txs) {
+        Instant now = Instant.now();
+        for (TransactionRecord tx : txs) {
+            tx.setStatus(PENDING);
+            tx.setTimestamp(now);
+            if (insertFlusher != null) {
+                tx.setId(new ObjectId().toHexString());
+            }
+        }
+        return insertFlusher != null || txs.isEmpty() ? txs : writer.insertAll(txs);
+    }
+
+    /** {@link #complete} for many transactions with one bulk update (sync mode). */
+    public void completeAll(List<TransactionRecord> txs) {
+        if (insertFlusher != null || statusFlusher != null) {
+            txs.forEach(this::complete);
+            return;
+        }
+        List<StatusChange> changes = new ArrayList<>(txs.size());
+        for (TransactionRecord tx : txs) {
+            changes.add(new StatusChange(tx.getId(), PENDING, tx.getStatus(), tx.getOutbox()));
+        }
+        long updated = writer.updateStatuses(changes);
+        if (updated < changes.size()) {
+            log.warn("{} of {} transactions were not PENDING when completing them", changes.size() - updated, changes.size());
+        }
+    }
+
+    /**
+     * Moves stored UNKNOWN transactions to the status set on each, with its outbox entry.
+     * Written right away in every mode, since the records were read back from Mongo.
+     *
+     * @return the number of transactions that were still UNKNOWN and got updated
+     */
+    public long settleAll(List<TransactionRecord> txs) {
+        List<StatusChange> changes = new ArrayList<>(txs.size());
+        for (TransactionRecord tx : txs) {
+            changes.add(new StatusChange(tx.getId(), UNKNOWN, tx.getStatus(), tx.getOutbox()));
+        }
+        return writer.updateStatuses(changes);
+    }
+
+    /** Single insert of a transaction that is already final (eg. rejected by the circuit breaker). */
+    public TransactionRecord insert(TransactionRecord tx) {
+        tx.setTimestamp(Instant.now());
+        if (insertFlusher != null) {
+            tx.setId(new ObjectId().toHexString());
+            insertFlusher.submit(tx);
+            return tx;
+        }
+        return writer.insert(tx);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (statusFlusher != null) {
+            statusFlusher.close();
+        }
+        if (insertFlusher != null) {
+            insertFlusher.close();
+        }
+    }
+}
@@ -2,160 +2,147 @@ package com.example.transaction_service.service;
 
 
 import com.example.transaction_service.client.AccountClient;
-import com.example.transaction_service.client.NotificationClient;
+import com.example.transaction_service.dto.BalanceDelta;
+import com.example.transaction_service.dto.BalanceDeltaResult;
+import com.example.transaction_service.dto.BalanceUpdateRequest;
+import com.example.transaction_service.dto.TransferRequest;
 import com.example.transaction_service.model.TransactionRecord;
-import com.example.transaction_service.repository.TransactionRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.List;
 
 @Service
 public class TransactionService {
 
-    private final TransactionRepository txRepo;
+    private final TransactionRecorder recorder;
     private final AccountClient accountClient;
-    private final NotificationClient notificationClient;
+    private final NotificationOutbox outbox;
+    private final TransactionIdGenerator ids;
+    private final AccountStatusCache statuses;
 
-    public TransactionService(TransactionRepository txRepo, AccountClient accountClient, NotificationClient notificationClient) {
-        this.txRepo = txRepo;
+    public TransactionService(TransactionRecorder recorder, AccountClient accountClient, NotificationOutbox outbox,
+                              TransactionIdGenerator ids, AccountStatusCache statuses) {
+        this.recorder = recorder;
         this.accountClient = accountClient;
-        this.notificationClient = notificationClient;
+        this.outbox = outbox;
+        this.ids = ids;
+        this.statuses = statuses;
     }
 
     private String newTxnId() {
-        return "TXN-" + UUID.randomUUID().toString().substring(0,8).toUpperCase();
-    }
-
-    public TransactionRecord record(TransactionRecord tx) {
-        tx.setTimestamp(Instant.now());
-        return txRepo.save(tx);
+        return ids.nextId();
     }
 
     // deposit: add amount to account
     @CircuitBreaker(name = "account", fallbackMethod = "depositFallback")
-    public TransactionRecord deposit(String accountNumber, Double amount) {
+    public TransactionRecord deposit(String accountNumber, long amount) {
+        statuses.check(accountNumber); // known missing/inactive accounts fail before anything is written
         String txnId = newTxnId();
         TransactionRecord tx = new TransactionRecord(txnId, "DEPOSIT", amount, null, accountNumber, "PENDING", Instant.now());
-        tx = record(tx);
+        tx = recorder.begin(tx);
 
-        Map<String, Double> body = new HashMap<>();
-        body.put("amount", Math.abs(amount)); // deposit is positive
         try {
-            accountClient.updateBalance(accountNumber, body); // may throw FeignException
+            // deposit is positive
+            accountClient.updateBalance(accountNumber, new BalanceUpdateRequest(Math.abs(amount))); // may throw FeignException
             tx.setStatus("SUCCESS");
-            record(tx);
-            // notify
-            Map<String,Object> notify = new HashMap<>();
-            notify.put("accountNumber", accountNumber);
-            notify.put("transactionId", txnId);
-            notify.put("type", "DEPOSIT");
-            notify.put("amount", amount);
-            notificationClient.sendNotification(notify);
+            outbox.queue(tx); // stored with the SUCCESS status
+            recorder.complete(tx);
         } catch (Exception ex) {
-            tx.setStatus("FAILED");
-            record(tx);
+            // a failure after the balance moved leaves the transaction SUCCESS
+            if ("PENDING".equals(tx.getStatus())) {
+                tx.setStatus("FAILED");
+                recorder.complete(tx);
+                statuses.invalidate(accountNumber); // the cached status may be what changed
+            }
         }
         return tx;
     }
 
-    public TransactionRecord depositFallback(String accountNumber, Double amount, Throwable t) {
+    public TransactionRecord depositFallback(String accountNumber, long amount, Throwable t) {
+        if (t instanceof AccountRejectedException rejected) {
+            throw rejected;
+        }
         TransactionRecord tx = new TransactionRecord(newTxnId(), "DEPOSIT", amount, null, accountNumber, "FAILED", Instant.now());
-        record(tx);
+        recorder.insert(tx);
         return tx;
     }
 
     // withdraw: subtract amount (amount passed positive, we send negative delta)
     @CircuitBreaker(name = "account", fallbackMethod = "withdrawFallback")
-    public TransactionRecord withdraw(String accountNumber, Double amount) {
+    public TransactionRecord withdraw(String accountNumber, long amount) {
+        statuses.check(accountNumber);
         String txnId = newTxnId();
         TransactionRecord tx = new TransactionRecord(txnId, "WITHDRAW", amount, accountNumber, null, "PENDING", Instant.now());
-        tx = record(tx);
+        tx = recorder.begin(tx);
 
-        Map<String, Double> body = new HashMap<>();
-        body.put("amount", -Math.abs(amount)); // negative delta for withdrawal
         try {
-            accountClient.updateBalance(accountNumber, body);
+            // negative delta for withdrawal
+            accountClient.updateBalance(accountNumber, new BalanceUpdateRequest(-Math.abs(amount)));
             tx.setStatus("SUCCESS");
-            record(tx);
-            Map<String,Object> notify = new HashMap<>();
-            notify.put("accountNumber", accountNumber);
-            notify.put("transactionId", txnId);
-            notify.put("type", "WITHDRAW");
-            notify.put("amount", amount);
-            notificationClient.sendNotification(notify);
+            outbox.queue(tx); // stored with the SUCCESS status
+            recorder.complete(tx);
         } catch (Exception ex) {
-            tx.setStatus("FAILED");
-            record(tx);
+            // a failure after the balance moved leaves the transaction SUCCESS
+            if ("PENDING".equals(tx.getStatus())) {
+                tx.setStatus("FAILED");
+                recorder.complete(tx);
+                statuses.invalidate(accountNumber); // the cached status may be what changed
+            }
         }
         return tx;
     }
 
-    public TransactionRecord withdrawFallback(String accountNumber, Double amount, Throwable t) {
+    public TransactionRecord withdrawFallback(String accountNumber, long amount, Throwable t) {
+        if (t instanceof AccountRejectedException rejected) {
+            throw rejected;
+        }
         TransactionRecord tx = new TransactionRecord(newTxnId(), "WITHDRAW", amount, accountNumber, null, "FAILED", Instant.now());
-        record(tx);
+        recorder.insert(tx);
         return tx;
     }
 
-    // transfer: withdraw from source, deposit to destination, simple orchestration (not a full saga)
+    // transfer: one call to account-service, which debits and credits in a single request
     @CircuitBreaker(name = "account", fallbackMethod = "transferFallback")
-    public TransactionRecord transfer(String sourceAccount, String destinationAccount, Double amount) {
+    public TransactionRecord transfer(String sourceAccount, String destinationAccount, long amount) {
+        statuses.check(sourceAccount);
+        statuses.check(destinationAccount);
         String txnId = newTxnId();
         TransactionRecord tx = new TransactionRecord(txnId, "TRANSFER", amount, sourceAccount, destinationAccount, "PENDING", Instant.now());
-        tx = record(tx);
+        tx = recorder.begin(tx);
 
-        // 1) withdraw from source
-        Map<String, Double> withdrawBody = new HashMap<>();
-        withdrawBody.put("amount", -Math.abs(amount));
         try {
-            accountClient.updateBalance(sourceAccount, withdrawBody);
+            accountClient.transfer(new TransferRequest(sourceAccount, destinationAccount, Math.abs(amount)));
         } catch (Exception ex) {
             tx.setStatus("FAILED");
-            record(tx);
+            recorder.complete(tx);
+            statuses.invalidate(sourceAccount);
+            statuses.invalidate(destinationAccount);
             return tx;
         }
 
-        // 2) deposit to destination
-        Map<String, Double> depositBody = new HashMap<>();
-        depositBody.put("amount", Math.abs(amount));
-        try {
-            accountClient.updateBalance(destinationAccount, depositBody);
-        } catch (Exception ex) {
-            // compensation: refund source by depositing back
-            Map<String, Double> refund = new HashMap<>();
-            refund.put("amount", Math.abs(amount));
-            try {
-                accountClient.updateBalance(sourceAccount, refund);
-            } catch (Exception compEx) {
-                // log compensation failure; tx remains FAILED
-            }
-            tx.setStatus("FAILED");
-            record(tx);
-            return tx;
-        }
-
-        // success
+        // success; the notification goes to both accounts
         tx.setStatus("SUCCESS");
-        record(tx);
-        // notify both accounts
-        Map<String,Object> notify = new HashMap<>();
-        notify.put("sourceAccount", sourceAccount);
-        notify.put("destinationAccount", destinationAccount);
-        notify.put("transactionId", txnId);
-        notify.put("type", "TRANSFER");
-        notify.put("amount", amount);
-        notificationClient.sendNotification(notify);
+        outbox.queue(tx);
+        recorder.complete(tx);
 
         return tx;
     }
 
-    public TransactionRecord transferFallback(String sourceAccount, String destinationAccount, Double amount, Throwable t) {
+    public TransactionRecord transferFallback(String sourceAccount, String destinationAccount, long amount, Throwable t) {
+        if (t instanceof AccountRejectedException rejected) {
+            throw rejected;
+        }
         TransactionRecord tx = new TransactionRecord(newTxnId(), "TRANSFER", amount, sourceAccount, destinationAccount, "FAILED", Instant.now());
-        record(tx);
+        recorder.insert(tx);
         return tx;
     }
-}
 
+    // batch of deposits/withdrawals for TransactionBatchService, behind the same circuit breaker
+    // as the single operations; fails with CallNotPermittedException while it is open
+    @CircuitBreaker(name = "account")
+    public List<BalanceDeltaResult> updateBalances(String batchId, List<BalanceDelta> deltas) {
+        return accountClient.updateBalances(batchId, deltas);
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.transaction_service.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal on local disk, in memory-mapped segment files of {@code segmentSize} bytes
+ * ({@code spool-<seq>.seg}). Each entry is {@code [int length][int crc32c][payload]}; the length
+ * is written last, so an entry torn by a crash reads as the end of the segment. A new segment is
+ * started when an entry does not fit, up to {@code maxSegments} files; beyond that appends fail
+ * with {@link SpoolFullException}. With {@code force}, {@link #append} returns once its entry is
+ * on disk; appenders waiting at the same time share one flush.
+ *
+ * {@link #read} returns entries from the checkpoint onwards without consuming them; {@link #commit}
+ * moves the checkpoint, stored in the {@code checkpoint} file (replaced atomically), and deletes
+ * segments that are wholly behind it. After a crash, reading resumes at the last checkpoint, so
+ * entries read but not yet committed are read again: consumers must apply them idempotently.
+ *
+ * Thread-safe, with {@link ReentrantLock}s rather than monitors so virtual threads waiting on a
+ * flush do not pin their carrier; {@link #read} and {@link #commit} are meant for a single consumer.
+ */
+public class TransactionSpool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSpool.class);
+
+    static final int HEADER = 8;
+    private static final String CHECKPOINT = "checkpoint";
+
+    /** Where an entry starts: a segment sequence number and an offset in it. */
+    public record Position(long segment, int offset) {}
+
+    /** Entries read from the spool and the position just after the last one. */
+    public record Batch(List<byte[]> entries, Position end) {}
+
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean force;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>(); // guarded by lock
+    private long writeSegment;  // guarded by lock
+    private int writeOffset;    // guarded by lock
+    private long pending;       // guarded by lock; entries after the checkpoint
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private long flushedSegment; // guarded by flushLock; everything before this position is on disk
+    private int flushedOffset;   // guarded by flushLock
+    private volatile Position checkpoint;
+
+    public TransactionSpool(Path dir, int segmentSize, int maxSegments, boolean force) {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("segmentSize must be larger than " + HEADER);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.force = force;
+        try {
+            Files.createDirectories(dir);
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open spool in " + dir, ex);
+        }
+    }
+
+    private void open() throws IOException {
+        List<Long> existing = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("spool-") && n.endsWith(".seg"))
+                    .forEach(n -> existing.add(Long.parseLong(n.substring(6, n.length() - 4))));
+        }
+        existing.sort(null);
+
+        Position cp = readCheckpoint();
+        if (cp == null) {
+            cp = new Position(existing.isEmpty() ? 0 : existing.get(0), 0);
+        }
+        for (long seq : existing) {
+            if (seq < cp.segment()) {
+                Files.deleteIfExists(segmentPath(seq)); // committed before the crash, delete not done
+            } else {
+                segments.put(seq, map(seq));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(cp.segment(), map(cp.segment()));
+        } else if (segments.firstKey() > cp.segment()) {
+            cp = new Position(segments.firstKey(), 0);
+        }
+        checkpoint = cp;
+
+        // the write position is the end of the valid entries in the last segment
+        writeSegment = segments.lastKey();
+        ByteBuffer last = segments.get(writeSegment);
+        int offset = writeSegment == cp.segment() ? cp.offset() : 0;
+        while (true) {
+            int next = next(last, offset, segmentSize);
+            if (next < 0) {
+                break;
+            }
+            offset = next;
+        }
+        writeOffset = offset;
+        flushedSegment = writeSegment;
+        flushedOffset = offset;
+        if (offset + HEADER <= segmentSize && last.getInt(offset) != 0) {
+            log.warn("Discarding a torn entry at {} in spool segment {}", offset, writeSegment);
+            for (int i = offset; i < segmentSize; i++) {
+                last.put(i, (byte) 0);
+            }
+        }
+        forEachPending(e -> pending++);
+        if (pending > 0) {
+            log.info("Spool in {} holds {} entries to replay", dir, pending);
+        }
+    }
+
+    /** Appends one entry. */
+    public void append(byte[] payload) {
+        int size = HEADER + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Entry of " + payload.length + " bytes does not fit a spool segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        long segment;
+        int end;
+        lock.lock();
+        try {
+            if (writeOffset + size > segmentSize) {
+                rotate();
+            }
+            MappedByteBuffer buf = segments.get(writeSegment);
+            buf.put(writeOffset + HEADER, payload);
+            buf.putInt(writeOffset + 4, (int) crc.getValue());
+            buf.putInt(writeOffset, payload.length);
+            writeOffset += size;
+            pending++;
+            segment = writeSegment;
+            end = writeOffset;
+        } finally {
+            lock.unlock();
+        }
+        if (force) {
+            flushThrough(segment, end);
+        }
+    }
+
+    // Forces everything written so far to disk unless a concurrent flush already covered (segment, end)
+    private void flushThrough(long segment, int end) {
+        flushLock.lock();
+        try {
+            if (flushedSegment > segment || (flushedSegment == segment && flushedOffset >= end)) {
+                return;
+            }
+            long toSegment;
+            int toOffset;
+            Map<Long, MappedByteBuffer> dirty;
+            lock.lock();
+            try {
+                toSegment = writeSegment;
+                toOffset = writeOffset;
+                dirty = new TreeMap<>(segments.subMap(flushedSegment, true, toSegment, true));
+            } finally {
+                lock.unlock();
+            }
+            for (Map.Entry<Long, MappedByteBuffer> e : dirty.entrySet()) {
+                int from = e.getKey() == flushedSegment ? flushedOffset : 0;
+                int to = e.getKey() == toSegment ? toOffset : segmentSize;
+                if (to > from) {
+                    e.getValue().force(from, to - from);
+                }
+            }
+            flushedSegment = toSegment;
+            flushedOffset = toOffset;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void rotate() {
+        if (segments.size() >= maxSegments) {
+            throw new SpoolFullException("Spool is full (" + maxSegments + " segments of " + segmentSize + " bytes)");
+        }
+        long next = writeSegment + 1;
+        try {
+            segments.put(next, map(next));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create spool segment " + next, ex);
+        }
+        writeSegment = next;
+        writeOffset = 0;
+    }
+
+    /** Up to {@code max} entries from the checkpoint onwards, oldest first. */
+    public Batch read(int max) {
+        List<byte[]> entries = new ArrayList<>();
+        Position end = scan(checkpoint, max, entries::add);
+        return new Batch(entries, end);
+    }
+
+    /** Calls {@code consumer} with every entry after the checkpoint. */
+    public void forEachPending(Consumer<byte[]> consumer) {
+        scan(checkpoint, Integer.MAX_VALUE, consumer);
+    }
+
+    private Position scan(Position from, int max, Consumer<byte[]> consumer) {
+        long seq = from.segment();
+        int offset = from.offset();
+        int count = 0;
+        while (count < max) {
+            ByteBuffer buf;
+            long lastSegment;
+            int limit;
+            lock.lock();
+            try {
+                buf = segments.get(seq);
+                lastSegment = writeSegment;
+                limit = seq == writeSegment ? writeOffset : segmentSize;
+            } finally {
+                lock.unlock();
+            }
+            if (buf == null) {
+                break;
+            }
+            int next = next(buf, offset, limit);
+            if (next >= 0) {
+                byte[] payload = new byte[next - offset - HEADER];
+                buf.get(offset + HEADER, payload);
+                consumer.accept(payload);
+                offset = next;
+                count++;
+            } else if (seq < lastSegment) {
+                if (offset + HEADER <= limit && buf.getInt(offset) != 0) {
+                    log.error("Skipping the rest of spool segment {} after a corrupt entry at {}", seq, offset);
+                }
+                seq++;
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+        return new Position(seq, offset);
+    }
+
+    // Offset after the valid entry at offset, or -1 if there is none before limit
+    private static int next(ByteBuffer buf, int offset, int limit) {
+        if (offset + HEADER > limit) {
+            return -1;
+        }
+        int length = buf.getInt(offset);
+        if (length <= 0 || length > limit - offset - HEADER) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.slice(offset + HEADER, length));
+        return (int) crc.getValue() == buf.getInt(offset + 4) ? offset + HEADER + length : -1;
+    }
+
+    /** Marks everything before {@code end} (from a {@link Batch}) as applied. */
+    public void commit(Batch batch) {
+        Position end = batch.end();
+        byte[] bytes = ByteBuffer.allocate(16).putLong(end.segment()).putInt(end.offset()).array();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, 12);
+        ByteBuffer.wrap(bytes).putInt(12, (int) crc.getValue());
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ch.write(ByteBuffer.wrap(bytes));
+                ch.force(true);
+            }
+            Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write spool checkpoint", ex);
+        }
+        checkpoint = end;
+
+        List<Long> done = new ArrayList<>();
+        lock.lock();
+        try {
+            pending -= batch.entries().size();
+            done.addAll(segments.headMap(end.segment()).keySet());
+            done.forEach(segments::remove);
+        } finally {
+            lock.unlock();
+        }
+        for (long seq : done) {
+            try {
+                Files.deleteIfExists(segmentPath(seq));
+            } catch (IOException ex) {
+                log.warn("Could not delete spool segment {}", seq, ex);
+            }
+        }
+    }
+
+    /** Entries appended and not yet committed. */
+    public long pending() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        CRC32C crc = new CRC32C();
+        if (bytes.length == 16) {
+            crc.update(bytes, 0, 12);
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            if ((int) crc.getValue() == buf.getInt(12)) {
+                return new Position(buf.getLong(0), buf.getInt(8));
+            }
+        }
+        // replaying from the oldest segment is safe, only slower
+        log.warn("Ignoring corrupt spool checkpoint in {}", dir);
+        return null;
+    }
+
+    private MappedByteBuffer map(long seq) throws IOException {
+        try (FileChannel ch = FileChannel.open(segmentPath(seq), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize); // the mapping outlives the channel
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("spool-%020d.seg", seq));
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            segments.values().forEach(MappedByteBuffer::force);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
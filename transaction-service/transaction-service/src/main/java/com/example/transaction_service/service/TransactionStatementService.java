@@ -0,0 +1,164 @@
+package com.example.transaction_service.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import com.example.transaction_service.dto.StatementLine;
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.TransactionRepository;
+
+/**
+ * Account statement oldest first with a running balance, written as CSV or NDJSON straight
+ * from two Mongo cursors (the account as source and as destination) merged on
+ * (timestamp, id). Only the current row of each cursor is held, so heap use does not
+ * depend on the number of rows. The balance starts at the caller-supplied opening balance
+ * (the account balance at {@code from}) and moves on SUCCESS rows only. It is not derived
+ * from the current balance, because interest, fees and refunds change balances without a
+ * transaction record. Type and status filters are refused, since a running balance over a
+ * subset of the rows would be wrong.
+ */
+@Service
+public class TransactionStatementService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format parse(String value) {
+            for (Format f : values()) {
+                if (f.name().equalsIgnoreCase(value)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+    }
+
+    static final String CSV_HEADER = "timestamp,transactionId,type,direction,amount,counterparty,status,balance";
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Comparator<TransactionRecord> OLDEST_FIRST =
+            Comparator.comparing(TransactionRecord::getTimestamp)
+                    .thenComparing(TransactionRecord::getId);
+
+    private final TransactionRepository txRepo;
+    private final ObjectWriter writer;
+
+    public TransactionStatementService(TransactionRepository txRepo, ObjectMapper objectMapper) {
+        this.txRepo = txRepo;
+        this.writer = objectMapper.writerFor(StatementLine.class);
+    }
+
+    /** Checked before the response is committed; errors while streaming can no longer change the status. */
+    public void validate(TransactionFilter filter) {
+        if (filter.getAccount() == null || filter.getAccount().isBlank()) {
+            throw new IllegalArgumentException("account is required");
+        }
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (filter.getType() != null || filter.getStatus() != null) {
+            throw new IllegalArgumentException("type and status filters are not supported on statements; "
+                    + "the running balance needs every row");
+        }
+    }
+
+    public void write(TransactionFilter filter, Format format, long openingBalance, boolean gzip,
+                      OutputStream target) throws IOException {
+        validate(filter);
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(target, BUFFER_SIZE) : null;
+        OutputStream out = new BufferedOutputStream(gzip ? compressed : target, BUFFER_SIZE);
+        if (format == Format.CSV) {
+            out.write((CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        try (Stream<TransactionRecord> debits = txRepo.streamHistory("sourceAccount", filter);
+             Stream<TransactionRecord> credits = txRepo.streamHistory("destinationAccount", filter)) {
+            Iterator<TransactionRecord> src = debits.iterator();
+            Iterator<TransactionRecord> dst = credits.iterator();
+            TransactionRecord nextDebit = src.hasNext() ? src.next() : null;
+            TransactionRecord nextCredit = dst.hasNext() ? dst.next() : null;
+            String account = filter.getAccount();
+            long balance = openingBalance;
+            int written = 0;
+            while (nextDebit != null || nextCredit != null) {
+                TransactionRecord tx;
+                if (nextCredit == null || (nextDebit != null && OLDEST_FIRST.compare(nextDebit, nextCredit) <= 0)) {
+                    tx = nextDebit;
+                    nextDebit = src.hasNext() ? src.next() : null;
+                } else {
+                    tx = nextCredit;
+                    nextCredit = dst.hasNext() ? dst.next() : null;
+                }
+                // a transfer to the same account is on both cursors; write it once
+                if (nextCredit != null && tx.getId().equals(nextCredit.getId())) {
+                    nextCredit = dst.hasNext() ? dst.next() : null;
+                }
+                StatementLine line = toLine(tx, account, balance);
+                balance = line.getBalance();
+                if (format == Format.CSV) {
+                    out.write(csv(line).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(writer.writeValueAsBytes(line));
+                    out.write('\n');
+                }
+                if (++written % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+
+    static StatementLine toLine(TransactionRecord tx, String account, long balanceBefore) {
+        boolean debit = account.equals(tx.getSourceAccount());
+        boolean credit = account.equals(tx.getDestinationAccount());
+        StatementLine line = new StatementLine();
+        line.setTimestamp(tx.getTimestamp().toString());
+        line.setTransactionId(tx.getTransactionId());
+        line.setType(tx.getType());
+        line.setDirection(debit ? "DEBIT" : "CREDIT");
+        line.setAmount(tx.getAmount());
+        line.setCounterparty(debit ? tx.getDestinationAccount() : tx.getSourceAccount());
+        line.setStatus(tx.getStatus());
+        long delta = 0;
+        if ("SUCCESS".equals(tx.getStatus())) {
+            delta = (credit ? tx.getAmount() : 0) - (debit ? tx.getAmount() : 0);
+        }
+        line.setBalance(Math.addExact(balanceBefore, delta));
+        return line;
+    }
+
+    static String csv(StatementLine line) {
+        return escape(line.getTimestamp()) + ','
+                + escape(line.getTransactionId()) + ','
+                + escape(line.getType()) + ','
+                + line.getDirection() + ','
+                + line.getAmount() + ','
+                + escape(line.getCounterparty()) + ','
+                + escape(line.getStatus()) + ','
+                + line.getBalance() + '\n';
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
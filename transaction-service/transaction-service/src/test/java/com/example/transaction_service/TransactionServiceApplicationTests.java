@@ -2,10 +2,16 @@ package com.example.transaction_service;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import com.example.transaction_service.config.MongoIndexInitializer;
 
-@SpringBootTest
+@SpringBootTest(properties = "transactions.id.node-id=0")
 class TransactionServiceApplicationTests {
 
+	// no MongoDB in the unit test build; index creation would fail startup
+	@MockitoBean
+	MongoIndexInitializer indexInitializer;
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,96 @@
+package com.example.transaction_service.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load against a running stack: {@code clients} virtual threads each send
+ * deposits back to back for {@code seconds}, then throughput and latency percentiles are
+ * printed. Run it once with {@code VIRTUAL_THREADS_ENABLED=false} and once with {@code true}
+ * on the services to compare the two modes. The accounts ACC0..ACC{accounts-1} must exist.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.transaction_service.bench.DepositLoadTest \
+ *     -Dexec.args="http://localhost:8080 5000 60 1000"
+ * </pre>
+ */
+public class DepositLoadTest {
+
+    private static final long BUCKET_MICROS = 100;
+    private static final int BUCKETS = 100_000; // 10s; slower requests land in the last bucket
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        URI uri = URI.create(base + "/api/transactions/deposit");
+        AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        LongAdder ok = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        String body = "{\"accountNumber\":\"ACC" + ThreadLocalRandom.current().nextInt(accounts) + "\",\"amount\":1}";
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .timeout(Duration.ofSeconds(30))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() == 200 && response.body().contains("\"SUCCESS\"")) {
+                                ok.increment();
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (Exception ex) {
+                            errors.increment();
+                        }
+                        long micros = (System.nanoTime() - start) / 1_000;
+                        histogram.incrementAndGet((int) Math.min(BUCKETS - 1, micros / BUCKET_MICROS));
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long total = ok.sum() + errors.sum();
+        System.out.printf("clients=%d seconds=%d requests=%d ok=%d errors=%d throughput=%.1f/s%n",
+                clients, seconds, total, ok.sum(), errors.sum(), ok.sum() / (double) seconds);
+        System.out.printf("p50=%.1fms p99=%.1fms p99.9=%.1fms%n",
+                percentile(histogram, total, 0.50), percentile(histogram, total, 0.99), percentile(histogram, total, 0.999));
+    }
+
+    private static double percentile(AtomicLongArray histogram, long total, double p) {
+        long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank && rank > 0) {
+                return (i + 1) * BUCKET_MICROS / 1000.0;
+            }
+        }
+        return BUCKETS * BUCKET_MICROS / 1000.0;
+    }
+}
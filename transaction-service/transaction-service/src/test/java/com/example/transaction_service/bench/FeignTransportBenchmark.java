@@ -0,0 +1,126 @@
+package com.example.transaction_service.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a Feign balance update through Feign's default HttpURLConnection client against
+ * Apache HttpClient 5 with a connection pool, as configured in {@code HttpClientPoolConfiguration}.
+ * account-service is replaced by an in-process HTTP stub with an optional fixed delay per request.
+ * With more threads than the JDK's keep-alive cache holds per host (5 by default), the default
+ * client opens and closes connections continuously; watch TIME_WAIT with {@code ss -s} during a run.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.transaction_service.bench.FeignTransportBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class FeignTransportBenchmark {
+
+    private static final byte[] BODY = "{\"amount\":1}".getBytes(StandardCharsets.UTF_8);
+    private static final Request.Options OPTIONS = new Request.Options(5, TimeUnit.SECONDS, 10, TimeUnit.SECONDS, true);
+
+    @Param({"0", "2"})
+    public int serverDelayMs;
+
+    private HttpServer server;
+    private String url;
+    private Client urlConnection;
+    private CloseableHttpClient httpClient;
+    private Client pooled;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newFixedThreadPool(64));
+        server.createContext("/api/accounts/", ex -> {
+            try (InputStream in = ex.getRequestBody()) {
+                in.readAllBytes();
+            }
+            if (serverDelayMs > 0) {
+                try {
+                    Thread.sleep(serverDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] bytes = "{\"accountNumber\":\"ACC1\",\"balance\":1}".getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, bytes.length);
+            ex.getResponseBody().write(bytes);
+            ex.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/accounts/ACC1/balance";
+
+        urlConnection = new Client.Default(null, null);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(200)
+                        .setMaxConnPerRoute(50)
+                        .build())
+                .build();
+        pooled = new ApacheHttp5Client(httpClient);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int httpUrlConnection() throws IOException {
+        return call(urlConnection);
+    }
+
+    @Benchmark
+    public int pooledHttpClient5() throws IOException {
+        return call(pooled);
+    }
+
+    private int call(Client client) throws IOException {
+        Request request = Request.create(Request.HttpMethod.PUT, url,
+                Map.<String, Collection<String>>of("Content-Type", List.of("application/json")), BODY, StandardCharsets.UTF_8, null);
+        try (Response response = client.execute(request, OPTIONS)) {
+            // read the body fully so the connection can go back to the pool / keep-alive cache
+            try (InputStream in = response.body().asInputStream()) {
+                in.readAllBytes();
+            }
+            return response.status();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FeignTransportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
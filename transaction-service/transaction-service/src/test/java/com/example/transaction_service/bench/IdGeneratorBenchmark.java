@@ -0,0 +1,49 @@
+package com.example.transaction_service.bench;
+
+import com.example.transaction_service.service.SnowflakeIdGenerator;
+import com.example.transaction_service.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction id generation under contention: the previous {@code UUID.randomUUID()} prefix
+ * (SecureRandom on every call) against {@link SnowflakeIdGenerator} (one CAS on a shared
+ * counter). Run with different thread counts, e.g. {@code -t 1} and {@code -t 16}.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.transaction_service.bench.IdGeneratorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private final TransactionIdGenerator snowflake = new SnowflakeIdGenerator(1);
+
+    @Benchmark
+    public String uuidPrefix() {
+        return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return snowflake.nextId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
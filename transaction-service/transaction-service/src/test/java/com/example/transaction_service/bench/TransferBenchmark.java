@@ -0,0 +1,157 @@
+package com.example.transaction_service.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transfer throughput of the old saga (withdraw call + deposit call to account-service) against
+ * the single {@code POST /api/accounts/transfer} call. account-service is replaced by an
+ * in-process HTTP stub that keeps balances in memory, with an optional fixed delay per request
+ * standing in for the network and Mongo time, so the difference is the number of round trips.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.transaction_service.bench.TransferBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+
+    private static final Pattern ACCOUNT = Pattern.compile("\"(?:sourceAccount|destinationAccount)\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern AMOUNT = Pattern.compile("\"amount\"\\s*:\\s*(-?\\d+)");
+
+    @Param({"0", "2"})
+    public int serverDelayMs;
+
+    private HttpServer server;
+    private HttpClient client;
+    private String base;
+    private final ConcurrentHashMap<String, AtomicLong> balances = new ConcurrentHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        for (int i = 0; i < 64; i++) {
+            balances.put("ACC" + i, new AtomicLong(Long.MAX_VALUE / 4));
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newFixedThreadPool(64));
+        server.createContext("/api/accounts/transfer", ex -> {
+            String body = read(ex);
+            Matcher m = ACCOUNT.matcher(body);
+            m.find();
+            String src = m.group(1);
+            m.find();
+            String dst = m.group(1);
+            long amount = amount(body);
+            pause();
+            balances.get(src).addAndGet(-amount);
+            balances.get(dst).addAndGet(amount);
+            respond(ex, "{\"sourceAccount\":\"" + src + "\"}");
+        });
+        server.createContext("/api/accounts/", ex -> {
+            // PUT /api/accounts/{accountNumber}/balance
+            String account = ex.getRequestURI().getPath().split("/")[3];
+            long delta = amount(read(ex));
+            pause();
+            balances.get(account).addAndGet(delta);
+            respond(ex, "{\"accountNumber\":\"" + account + "\"}");
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @State(Scope.Thread)
+    public static class Pair {
+        int i;
+        String src() { return "ACC" + (i & 63); }
+        String dst() { return "ACC" + ((i + 1) & 63); }
+    }
+
+    @Benchmark
+    public int sagaTwoCalls(Pair p) throws Exception {
+        p.i++;
+        int a = send("PUT", base + "/api/accounts/" + p.src() + "/balance", "{\"amount\":-1}");
+        int b = send("PUT", base + "/api/accounts/" + p.dst() + "/balance", "{\"amount\":1}");
+        return a + b;
+    }
+
+    @Benchmark
+    public int singleTransferCall(Pair p) throws Exception {
+        p.i++;
+        return send("POST", base + "/api/accounts/transfer",
+                "{\"sourceAccount\":\"" + p.src() + "\",\"destinationAccount\":\"" + p.dst() + "\",\"amount\":1}");
+    }
+
+    private int send(String method, String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void pause() {
+        if (serverDelayMs > 0) {
+            try {
+                Thread.sleep(serverDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String read(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return new String(in.readAllBytes());
+        }
+    }
+
+    private static long amount(String body) {
+        Matcher m = AMOUNT.matcher(body);
+        return m.find() ? Long.parseLong(m.group(1)) : 0;
+    }
+
+    private static void respond(HttpExchange ex, String json) throws IOException {
+        byte[] bytes = json.getBytes();
+        ex.getResponseHeaders().add("Content-Type", "application/json");
+        ex.sendResponseHeaders(200, bytes.length);
+        ex.getResponseBody().write(bytes);
+        ex.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransferBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
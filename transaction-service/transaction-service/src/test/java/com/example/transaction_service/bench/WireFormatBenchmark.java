@@ -0,0 +1,135 @@
+package com.example.transaction_service.bench;
+
+import com.example.transaction_service.dto.NotificationMessage;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one outbox batch on the wire: the old {@code Map<String,Object>} bodies as JSON against
+ * the typed {@link NotificationMessage} as JSON and as Smile. Each benchmark serializes or
+ * deserializes the whole batch; the encoded sizes are printed once per trial.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.transaction_service.bench.WireFormatBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"50", "500"})
+    public int batchSize;
+
+    private ObjectWriter mapJsonWriter;
+    private ObjectReader mapJsonReader;
+    private ObjectWriter typedJsonWriter;
+    private ObjectReader typedJsonReader;
+    private ObjectWriter typedSmileWriter;
+    private ObjectReader typedSmileReader;
+
+    private List<Map<String, Object>> maps;
+    private List<NotificationMessage> messages;
+    private byte[] mapJson;
+    private byte[] typedJson;
+    private byte[] typedSmile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper smile = new SmileMapper();
+        TypeReference<List<Map<String, Object>>> mapList = new TypeReference<>() {};
+        TypeReference<List<NotificationMessage>> messageList = new TypeReference<>() {};
+        mapJsonWriter = json.writerFor(mapList);
+        mapJsonReader = json.readerFor(mapList);
+        typedJsonWriter = json.writerFor(messageList);
+        typedJsonReader = json.readerFor(messageList);
+        typedSmileWriter = smile.writerFor(messageList);
+        typedSmileReader = smile.readerFor(messageList);
+
+        maps = new ArrayList<>(batchSize);
+        messages = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String txnId = "TXN-" + Long.toString(1_000_000_000_000L + i, 32).toUpperCase();
+            String outboxId = "66f1c0de" + String.format("%016x", i);
+            long amount = 100L + i * 7L;
+            NotificationMessage m = (i % 3 == 0)
+                    ? NotificationMessage.forTransfer(txnId, "ACC" + (i % 97), "ACC" + (i % 89), amount)
+                    : NotificationMessage.forAccount(txnId, i % 2 == 0 ? "DEPOSIT" : "WITHDRAW", "ACC" + (i % 97), amount);
+            messages.add(m.withOutboxId(outboxId));
+
+            // the shape TransactionService used to build by hand
+            Map<String, Object> map = new HashMap<>();
+            map.put("outboxId", outboxId);
+            map.put("transactionId", txnId);
+            map.put("type", m.getType());
+            if (m.getAccountNumber() != null) {
+                map.put("accountNumber", m.getAccountNumber());
+            } else {
+                map.put("sourceAccount", m.getSourceAccount());
+                map.put("destinationAccount", m.getDestinationAccount());
+            }
+            map.put("amount", amount);
+            maps.add(map);
+        }
+        mapJson = mapJsonWriter.writeValueAsBytes(maps);
+        typedJson = typedJsonWriter.writeValueAsBytes(messages);
+        typedSmile = typedSmileWriter.writeValueAsBytes(messages);
+        System.out.printf("%nbatch of %d: map json %d bytes, typed json %d bytes, typed smile %d bytes%n",
+                batchSize, mapJson.length, typedJson.length, typedSmile.length);
+    }
+
+    @Benchmark
+    public byte[] writeMapJson() throws IOException {
+        return mapJsonWriter.writeValueAsBytes(maps);
+    }
+
+    @Benchmark
+    public byte[] writeTypedJson() throws IOException {
+        return typedJsonWriter.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public byte[] writeTypedSmile() throws IOException {
+        return typedSmileWriter.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public Object readMapJson() throws IOException {
+        return mapJsonReader.readValue(mapJson);
+    }
+
+    @Benchmark
+    public Object readTypedJson() throws IOException {
+        return typedJsonReader.readValue(typedJson);
+    }
+
+    @Benchmark
+    public Object readTypedSmile() throws IOException {
+        return typedSmileReader.readValue(typedSmile);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.transaction_service.client;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdaptiveLimiter limiter(int initial) {
+        return new AdaptiveLimiter("account.client", initial, 2, 10, Duration.ofMillis(100), 0.5, registry);
+    }
+
+    private AdaptiveLimiter batchLimiter() {
+        return new AdaptiveLimiter("account.client.batch", 4, 1, 8, Duration.ofSeconds(5), 0.5, registry);
+    }
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void rejectsOverTheLimit_andCountsRejections() {
+        AdaptiveLimiter limiter = limiter(2);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1.0, registry.get("account.client.rejected").counter().count());
+        assertEquals(2.0, registry.get("account.client.inflight").gauge().value());
+    }
+
+    @Test
+    void growsWhenBusyAndFast_shrinksOnSlowOrOverloadedCalls() {
+        AdaptiveLimiter limiter = limiter(4);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(FAST, false); // 2 of 4 in flight: in use, so grow
+        assertEquals(5, limiter.getLimit());
+
+        limiter.release(FAST, false); // 1 of 5 in flight: idle, unchanged
+        assertEquals(5, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit()); // never below min
+        assertEquals(4, registry.get("account.client.rtt").timer().count());
+    }
+
+    @Test
+    void limitedClient_rejectsWithoutCallingAccountService_andBacksOffOn503() throws IOException {
+        AdaptiveLimiter limiter = limiter(2);
+        Request request = Request.create(Request.HttpMethod.GET, "http://account-service/api/accounts/A",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        Client unavailable = (req, options) -> Response.builder()
+                .status(503).request(req).headers(Map.of()).build();
+        LimitedClient client = new LimitedClient(unavailable, limiter, batchLimiter());
+
+        assertEquals(503, client.execute(request, new Request.Options()).status());
+        assertEquals(2, limiter.getLimit()); // halved from 2, held at min
+        assertEquals(0, limiter.getInFlight());
+
+        Client timingOut = (req, options) -> {
+            throw new SocketTimeoutException("read timed out");
+        };
+        assertThrows(SocketTimeoutException.class, () -> new LimitedClient(timingOut, limiter, batchLimiter()).execute(request, new Request.Options()));
+        assertEquals(0, limiter.getInFlight());
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        Client neverCalled = (req, options) -> fail("over the limit");
+        assertThrows(AccountCallRejectedException.class, () -> new LimitedClient(neverCalled, limiter, batchLimiter()).execute(request, new Request.Options()));
+    }
+
+    @Test
+    void limitedClient_slowBatchCalls_useTheirOwnLimit() throws IOException {
+        AdaptiveLimiter limiter = limiter(4);
+        AdaptiveLimiter batchLimiter = batchLimiter();
+        MethodMetadata updateBalances = new SpringMvcContract().parseAndValidateMetadata(AccountClient.class).stream()
+                .filter(md -> md.method().getName().equals("updateBalances"))
+                .findFirst().orElseThrow();
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(updateBalances);
+        Request batch = Request.create(Request.HttpMethod.POST, "http://account-service/api/accounts/balances:batch",
+                Map.of(), null, StandardCharsets.UTF_8, template);
+        Client slow = (req, options) -> {
+            try {
+                Thread.sleep(150); // over the single-call threshold, well under the batch one
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.builder().status(200).request(req).headers(Map.of()).build();
+        };
+
+        new LimitedClient(slow, limiter, batchLimiter).execute(batch, new Request.Options());
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, registry.get("account.client.rtt").timer().count());
+        assertEquals(1, registry.get("account.client.batch.rtt").timer().count());
+    }
+}
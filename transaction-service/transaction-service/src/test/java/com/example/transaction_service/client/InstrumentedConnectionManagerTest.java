@@ -0,0 +1,63 @@
+package com.example.transaction_service.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedConnectionManagerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private CloseableHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", ex -> {
+            byte[] body = "ok".getBytes();
+            ex.sendResponseHeaders(200, body.length);
+            ex.getResponseBody().write(body);
+            ex.close();
+        });
+        server.start();
+        InstrumentedConnectionManager manager = new InstrumentedConnectionManager(
+                PoolingHttpClientConnectionManagerBuilder.create().setMaxConnTotal(4).setMaxConnPerRoute(2).build(),
+                "test", TimeValue.ofSeconds(30), registry);
+        client = HttpClients.custom().setConnectionManager(manager).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void sequentialCalls_reuseOneKeepAliveConnection_andRecordLeases() throws IOException {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/ping";
+        for (int i = 0; i < 3; i++) {
+            assertEquals("ok", client.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity())));
+        }
+
+        assertEquals(1.0, registry.get("httpcomponents.httpclient.pool.leases").tag("connection", "new").counter().count());
+        assertEquals(2.0, registry.get("httpcomponents.httpclient.pool.leases").tag("connection", "reused").counter().count());
+        assertEquals(2.0 / 3, registry.get("httpcomponents.httpclient.pool.reuse.ratio").gauge().value(), 1e-9);
+        assertEquals(3, registry.get("httpcomponents.httpclient.pool.lease.wait").timer().count());
+        assertEquals(3, registry.get("httpcomponents.httpclient.pool.lease.held").timer().count());
+        assertEquals(0.0, registry.get("httpcomponents.httpclient.pool.utilization").gauge().value());
+        assertEquals(4.0, registry.get("httpcomponents.httpclient.pool.total.max").gauge().value());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.client.AccountClient;
+import com.example.transaction_service.dto.AccountView;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountStatusCacheTest {
+
+    private AccountClient accountClient;
+    private SimpleMeterRegistry registry;
+    private AccountStatusCache cache;
+
+    @BeforeEach
+    void setUp() {
+        accountClient = mock(AccountClient.class);
+        registry = new SimpleMeterRegistry();
+        cache = new AccountStatusCache(accountClient, registry, true, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    private static FeignException.NotFound notFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/accounts/X", Map.of(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.NotFound("not found", request, null, Map.of());
+    }
+
+    @Test
+    void missingAccount_isCachedNegatively_andRefused() {
+        when(accountClient.getAccount("ACC404")).thenThrow(notFound());
+
+        assertThrows(AccountRejectedException.class, () -> cache.check("ACC404"));
+        assertThrows(AccountRejectedException.class, () -> cache.check("ACC404"));
+
+        verify(accountClient, times(1)).getAccount("ACC404");
+        assertEquals(AccountStatusCache.Status.NOT_FOUND, cache.peek("ACC404"));
+        assertEquals(2.0, registry.get("transactions.rejected.early").tag("reason", "not_found").counter().count());
+    }
+
+    @Test
+    void inactiveAccount_isRefused_activeAccount_passes() {
+        when(accountClient.getAccount("ACC1")).thenReturn(new AccountView("ACC1", "Holder", 0L, false));
+        when(accountClient.getAccount("ACC2")).thenReturn(new AccountView("ACC2", "Holder", 0L, true));
+
+        assertThrows(AccountRejectedException.class, () -> cache.check("ACC1"));
+        assertDoesNotThrow(() -> cache.check("ACC2"));
+        assertDoesNotThrow(() -> cache.check("ACC2"));
+        verify(accountClient, times(1)).getAccount("ACC2");
+    }
+
+    @Test
+    void failedLookups_areNotCached_andLetTheTransactionThrough() {
+        when(accountClient.getAccount("ACC3")).thenThrow(new RuntimeException("account-service down"))
+                .thenReturn(new AccountView("ACC3", "Holder", 0L, true));
+
+        assertDoesNotThrow(() -> cache.check("ACC3"));
+        assertNull(cache.peek("ACC3"));
+        assertDoesNotThrow(() -> cache.check("ACC3"));
+        assertEquals(AccountStatusCache.Status.ACTIVE, cache.peek("ACC3"));
+    }
+
+    @Test
+    void invalidate_forcesAReload() {
+        when(accountClient.getAccount("ACC4"))
+                .thenReturn(new AccountView("ACC4", "Holder", 0L, true))
+                .thenReturn(new AccountView("ACC4", "Holder", 0L, false));
+
+        cache.check("ACC4");
+        cache.invalidate("ACC4");
+
+        assertThrows(AccountRejectedException.class, () -> cache.check("ACC4"));
+        verify(accountClient, times(2)).getAccount("ACC4");
+    }
+}
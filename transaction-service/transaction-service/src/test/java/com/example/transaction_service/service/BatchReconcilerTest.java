@@ -0,0 +1,73 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.dto.BalanceDelta;
+import com.example.transaction_service.dto.BalanceDeltaResult;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchReconcilerTest {
+
+    private TransactionRepository repo;
+    private TransactionService svc;
+    private TransactionRecorder recorder;
+    private BatchReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(TransactionRepository.class);
+        svc = mock(TransactionService.class);
+        recorder = mock(TransactionRecorder.class);
+        reconciler = new BatchReconciler(repo, svc, recorder, new NotificationOutbox());
+        when(repo.findBatchIdsWithStatus("UNKNOWN")).thenReturn(List.of("B1"));
+        when(repo.findBatch("B1", "UNKNOWN")).thenReturn(List.of(
+                unknown("T1", "DEPOSIT", null, "A", 0),
+                unknown("T2", "WITHDRAW", "A", null, 1)));
+    }
+
+    private static TransactionRecord unknown(String txnId, String type, String source, String destination, int index) {
+        TransactionRecord tx = new TransactionRecord(txnId, type, 50L, source, destination, "UNKNOWN", Instant.now());
+        tx.setId("id-" + txnId);
+        tx.setBatchId("B1");
+        tx.setBatchIndex(index);
+        return tx;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unknownBatch_isReplayedWithItsId_andSettledFromTheResults() {
+        when(svc.updateBalances(eq("B1"), anyList())).thenReturn(List.of(
+                new BalanceDeltaResult("A", 50L, BalanceDeltaResult.APPLIED),
+                new BalanceDeltaResult("A", -50L, "INSUFFICIENT_FUNDS")));
+
+        reconciler.reconcile();
+
+        ArgumentCaptor<List<BalanceDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(svc).updateBalances(eq("B1"), deltas.capture());
+        assertEquals(List.of(50L, -50L), deltas.getValue().stream().map(BalanceDelta::getAmount).toList());
+        ArgumentCaptor<List<TransactionRecord>> settled = ArgumentCaptor.forClass(List.class);
+        verify(recorder).settleAll(settled.capture());
+        assertEquals("SUCCESS", settled.getValue().get(0).getStatus());
+        assertNotNull(settled.getValue().get(0).getOutbox());
+        assertEquals("FAILED", settled.getValue().get(1).getStatus());
+        assertNull(settled.getValue().get(1).getOutbox());
+    }
+
+    @Test
+    void accountServiceStillUnavailable_leavesTheBatchUnknown() {
+        when(svc.updateBalances(eq("B1"), anyList())).thenThrow(new RuntimeException("Read timed out"));
+
+        reconciler.reconcile();
+
+        verify(recorder, never()).settleAll(anyList());
+    }
+}
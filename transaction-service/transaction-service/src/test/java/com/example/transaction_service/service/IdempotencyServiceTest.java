@@ -0,0 +1,124 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.model.IdempotencyRecord;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyRepository repo;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(IdempotencyRepository.class);
+        when(repo.complete(any(), any(), any())).thenReturn(true);
+        service = new IdempotencyService(repo, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10), Duration.ofMinutes(2));
+    }
+
+    private static TransactionRecord tx(String id) {
+        return new TransactionRecord(id, "DEPOSIT", 100L, null, "ACC1", "SUCCESS", Instant.now());
+    }
+
+    @Test
+    void noKey_justRuns() {
+        AtomicInteger runs = new AtomicInteger();
+        service.execute(null, "f", () -> { runs.incrementAndGet(); return tx("T1"); });
+        service.execute(null, "f", () -> { runs.incrementAndGet(); return tx("T2"); });
+        assertEquals(2, runs.get());
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void concurrentRequestsWithSameKey_runOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TransactionRecord>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> service.execute("K1", "DEPOSIT|ACC1|100", () -> {
+                    runs.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return tx("T1");
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<TransactionRecord> f : results) {
+                assertEquals("T1", f.get(5, TimeUnit.SECONDS).getTransactionId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+        verify(repo, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void keyCompletedOnAnotherNode_returnsStoredResult_withoutRunning() {
+        IdempotencyRecord stored = new IdempotencyRecord("K2", "DEPOSIT|ACC1|100", Instant.now());
+        stored.setStatus(IdempotencyRecord.COMPLETED);
+        stored.setResult(tx("T-STORED"));
+        when(repo.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repo.findById("K2")).thenReturn(Optional.of(stored));
+
+        TransactionRecord result = service.execute("K2", "DEPOSIT|ACC1|100", () -> fail("must not run"));
+
+        assertEquals("T-STORED", result.getTransactionId());
+    }
+
+    @Test
+    void sameKeyDifferentRequest_isRejected() {
+        service.execute("K3", "DEPOSIT|ACC1|100", () -> tx("T1"));
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> service.execute("K3", "DEPOSIT|ACC1|999", () -> tx("T2")));
+    }
+
+    @Test
+    void keyInProgressElsewhere_isConflict() {
+        IdempotencyRecord stored = new IdempotencyRecord("K4", "DEPOSIT|ACC1|100", Instant.now());
+        when(repo.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repo.findById("K4")).thenReturn(Optional.of(stored));
+
+        assertThrows(IdempotencyConflictException.class, () -> service.execute("K4", "DEPOSIT|ACC1|100", () -> tx("T1")));
+    }
+
+    @Test
+    void keyAbandonedPastItsLease_isTakenOver_andExecuted() {
+        IdempotencyRecord stored = new IdempotencyRecord("K5", "DEPOSIT|ACC1|100", "crashed-node",
+                Instant.now().minusSeconds(600), Instant.now().minusSeconds(480));
+        when(repo.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repo.findById("K5")).thenReturn(Optional.of(stored));
+        when(repo.takeOver(eq("K5"), eq("DEPOSIT|ACC1|100"), any(), anyString(), any())).thenReturn(true);
+
+        TransactionRecord result = service.execute("K5", "DEPOSIT|ACC1|100", () -> tx("T-RETRY"));
+
+        assertEquals("T-RETRY", result.getTransactionId());
+        verify(repo).complete(eq("K5"), argThat(owner -> !"crashed-node".equals(owner)), same(result));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.client.NotificationClient;
+import com.example.transaction_service.dto.NotificationAck;
+import com.example.transaction_service.dto.NotificationMessage;
+import com.example.transaction_service.model.OutboxEntry;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+
+    private OutboxRepository outboxRepo;
+    private NotificationClient client;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepo = mock(OutboxRepository.class);
+        client = mock(NotificationClient.class);
+        dispatcher = new OutboxDispatcher(outboxRepo, client, new SimpleMeterRegistry(),
+                10, Duration.ofSeconds(30), 3, Duration.ofSeconds(1), Duration.ofSeconds(10));
+    }
+
+    private static TransactionRecord entry(String id, int attempts) {
+        TransactionRecord tx = new TransactionRecord("TXN-" + id, "DEPOSIT", 1L, null, "ACC1", "SUCCESS", Instant.now());
+        tx.setId(id);
+        tx.setOutbox(new OutboxEntry(Instant.now()));
+        tx.getOutbox().setAttempts(attempts);
+        return tx;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletesAcknowledgedEntries_andReschedulesTheRest() {
+        when(outboxRepo.claim(eq(10), any(), any())).thenReturn(List.of(entry("a", 0), entry("b", 0), entry("c", 2)));
+        when(client.sendBatch(anyList())).thenReturn(List.of(
+                new NotificationAck("a", NotificationAck.SENT, null),
+                new NotificationAck("b", NotificationAck.FAILED, null),
+                new NotificationAck("c", NotificationAck.FAILED, null)));
+
+        assertEquals(3, dispatcher.dispatchBatch());
+
+        ArgumentCaptor<List<NotificationMessage>> sentMessages = ArgumentCaptor.forClass(List.class);
+        verify(client).sendBatch(sentMessages.capture());
+        NotificationMessage first = sentMessages.getValue().get(0);
+        assertEquals("a", first.getOutboxId());
+        assertEquals("TXN-a", first.getTransactionId());
+        assertEquals("ACC1", first.getAccountNumber()); // the credited account of a deposit
+        verify(outboxRepo).delivered(argThat(ids -> ids.iterator().next().equals("a")));
+        ArgumentCaptor<List<TransactionRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepo).reschedule(captor.capture());
+        List<TransactionRecord> failed = captor.getValue();
+        assertEquals(List.of("b", "c"), failed.stream().map(TransactionRecord::getId).toList());
+        assertEquals(OutboxEntry.PENDING, failed.get(0).getOutbox().getStatus());
+        assertEquals(OutboxEntry.DEAD, failed.get(1).getOutbox().getStatus()); // third failed attempt
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreachableNotificationService_retriesWholeBatch_withoutChargingAttempts() {
+        when(outboxRepo.claim(eq(10), any(), any())).thenAnswer(inv -> List.of(entry("a", 2)));
+        when(client.sendBatch(anyList())).thenThrow(new RuntimeException("down"));
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        dispatcher.dispatchBatch();
+
+        verify(outboxRepo, never()).delivered(any());
+        ArgumentCaptor<List<TransactionRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepo, times(2)).reschedule(captor.capture());
+        OutboxEntry first = captor.getAllValues().get(0).get(0).getOutbox();
+        OutboxEntry second = captor.getAllValues().get(1).get(0).getOutbox();
+        assertEquals(2, second.getAttempts());
+        assertEquals(OutboxEntry.PENDING, second.getStatus());
+        // the second consecutive failed send backs off longer than the first
+        assertTrue(Duration.between(first.getAvailableAt(), second.getAvailableAt()).toMillis() >= 900);
+    }
+
+    @Test
+    void backoff_doublesUpToTheCap() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(4), dispatcher.backoff(3));
+        assertEquals(Duration.ofSeconds(10), dispatcher.backoff(8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.transaction_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void ids_areUniqueAcrossThreads_andIncreasingPerThread() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        int threads = 16;
+        int perThread = 50_000;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> ordered = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                ordered.add(pool.submit(() -> {
+                    start.await();
+                    String previous = "";
+                    boolean increasing = true;
+                    for (int i = 0; i < perThread; i++) {
+                        String id = generator.nextId();
+                        increasing &= id.compareTo(previous) > 0;
+                        seen.add(id);
+                        previous = id;
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> f : ordered) {
+                assertTrue(f.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(threads * perThread, seen.size());
+    }
+
+    @Test
+    void sequenceOverflow_andClockGoingBack_stayMonotonic() {
+        AtomicLong now = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, now::get);
+
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) { // more than 4096 ids in one millisecond
+            long id = generator.nextLong();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        now.addAndGet(-500);
+        assertTrue(generator.nextLong() > previous);
+    }
+
+    @Test
+    void differentNodes_neverCollide_inTheSameMillisecond() {
+        AtomicLong now = new AtomicLong(SnowflakeIdGenerator.EPOCH + 42);
+        SnowflakeIdGenerator a = new SnowflakeIdGenerator(1, now::get);
+        SnowflakeIdGenerator b = new SnowflakeIdGenerator(2, now::get);
+        assertNotEquals(a.nextId(), b.nextId());
+    }
+
+    @Test
+    void encoding_isFixedWidth_andSortsLikeTheNumber() {
+        assertEquals("TXN-0000000000000", SnowflakeIdGenerator.encode(0));
+        assertEquals("TXN-FZZZZZZZZZZZZ", SnowflakeIdGenerator.encode(-1L));
+        assertTrue(SnowflakeIdGenerator.encode(31).compareTo(SnowflakeIdGenerator.encode(32)) < 0);
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    void nodeId_mustBeConfigured() {
+        assertThrows(IllegalStateException.class, () -> new SnowflakeIdGenerator(""));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator("node-a"));
+        assertDoesNotThrow(() -> new SnowflakeIdGenerator("5"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.model.OutboxEntry;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.StatusChange;
+import com.example.transaction_service.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SpoolingRecordWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private TransactionRepository txRepo;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock(TransactionRepository.class);
+    }
+
+    private SpoolingRecordWriter writer() {
+        return new SpoolingRecordWriter(txRepo, new SimpleMeterRegistry(), true, dir.toString(),
+                DataSize.ofKilobytes(64), 4, false, Duration.ofSeconds(5), 100);
+    }
+
+    private static TransactionRecord tx(String txnId) {
+        return new TransactionRecord(txnId, "DEPOSIT", 100L, null, "ACC1", "PENDING", Instant.now());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mongoDown_recordsAreSpooled_thenReplayedInOrder_andDirectWritesResume() {
+        when(txRepo.insert(any(TransactionRecord.class))).thenThrow(new DataAccessResourceFailureException("down"));
+        SpoolingRecordWriter writer = writer();
+
+        TransactionRecord tx = writer.insert(tx("T1"));
+        assertNotNull(tx.getId());
+        assertTrue(writer.updateStatus(new StatusChange(tx.getId(), "PENDING", "SUCCESS", new OutboxEntry(Instant.now()))));
+        verify(txRepo, never()).updateStatus(any()); // spooling: Mongo is not tried again
+
+        reset(txRepo);
+        assertEquals(2, writer.replayBatch());
+
+        InOrder order = inOrder(txRepo);
+        ArgumentCaptor<List<TransactionRecord>> inserted = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<StatusChange>> changed = ArgumentCaptor.forClass(List.class);
+        order.verify(txRepo).insertIgnoringDuplicates(inserted.capture());
+        order.verify(txRepo).updateStatuses(changed.capture());
+        assertEquals(tx.getId(), inserted.getValue().get(0).getId());
+        assertEquals("T1", inserted.getValue().get(0).getTransactionId());
+        assertEquals(tx.getTimestamp(), inserted.getValue().get(0).getTimestamp());
+        assertEquals("SUCCESS", changed.getValue().get(0).getNewStatus());
+        assertEquals(OutboxEntry.PENDING, changed.getValue().get(0).getOutbox().getStatus()); // the notification travels with it
+
+        StatusChange other = new StatusChange("other", "PENDING", "FAILED");
+        when(txRepo.updateStatus(any())).thenReturn(true);
+        assertTrue(writer.updateStatus(other));
+        verify(txRepo).updateStatus(other);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void entriesNotReplayedBeforeARestart_areReplayedByTheNextWriter() {
+        when(txRepo.insert(any(TransactionRecord.class))).thenThrow(new DataAccessResourceFailureException("down"));
+        TransactionRecord tx = writer().insert(tx("T1"));
+
+        reset(txRepo);
+        SpoolingRecordWriter restarted = writer();
+        // its insert is still spooled, so the status change has to queue behind it
+        assertTrue(restarted.updateStatus(new StatusChange(tx.getId(), "PENDING", "SUCCESS")));
+        verify(txRepo, never()).updateStatus(any());
+
+        assertEquals(2, restarted.replayBatch());
+        verify(txRepo).insertIgnoringDuplicates(argThat(l -> l.get(0).getId().equals(tx.getId())));
+        assertEquals(0, restarted.replayBatch());
+    }
+
+    @Test
+    void batchFields_surviveTheSpool() {
+        TransactionRecord tx = tx("T1");
+        tx.setId("id1");
+        tx.setBatchId("B1");
+        tx.setBatchIndex(3);
+
+        TransactionRecord decoded = SpoolingRecordWriter.decodeInsert(SpoolingRecordWriter.encodeInsert(tx));
+
+        assertEquals("B1", decoded.getBatchId());
+        assertEquals(3, decoded.getBatchIndex());
+        TransactionRecord single = tx("T2");
+        single.setId("id2");
+        assertNull(SpoolingRecordWriter.decodeInsert(SpoolingRecordWriter.encodeInsert(single)).getBatchIndex());
+    }
+}
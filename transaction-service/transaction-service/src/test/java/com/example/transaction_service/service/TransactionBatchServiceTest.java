@@ -0,0 +1,183 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.dto.BalanceDelta;
+import com.example.transaction_service.dto.BalanceDeltaResult;
+import com.example.transaction_service.dto.BatchItem;
+import com.example.transaction_service.dto.BatchItemResult;
+import com.example.transaction_service.dto.BatchResult;
+import com.example.transaction_service.model.TransactionRecord;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionBatchServiceTest {
+
+    private TransactionService svc;
+    private TransactionRecorder recorder;
+    private NotificationOutbox outbox;
+    private TransactionBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        svc = mock(TransactionService.class);
+        recorder = mock(TransactionRecorder.class);
+        outbox = spy(new NotificationOutbox());
+        when(recorder.beginAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        service = new TransactionBatchService(svc, recorder, outbox, new SnowflakeIdGenerator(1), 100, 500, 2, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static BatchItem deposit(String account, long amount) {
+        return new BatchItem("DEPOSIT", account, null, null, amount);
+    }
+
+    private static BatchItem withdraw(String account, long amount) {
+        return new BatchItem("WITHDRAW", account, null, null, amount);
+    }
+
+    private static BatchItem transfer(String src, String dst, long amount) {
+        return new BatchItem("TRANSFER", null, src, dst, amount);
+    }
+
+    private static TransactionRecord done(String txnId, String status) {
+        return new TransactionRecord(txnId, "TRANSFER", 1L, "X", "Y", status, Instant.now());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void depositsAndWithdrawals_useBatchBalanceCall_inSubmissionOrderPerAccount() {
+        when(svc.updateBalances(anyString(), anyList())).thenAnswer(inv -> {
+            List<BalanceDelta> deltas = inv.getArgument(1);
+            return deltas.stream()
+                    .map(d -> new BalanceDeltaResult(d.getAccountNumber(), d.getAmount(),
+                            d.getAmount() < -1000 ? "INSUFFICIENT_FUNDS" : "APPLIED"))
+                    .toList();
+        });
+
+        BatchResult result = service.submit(List.of(
+                deposit("A", 100), withdraw("A", 50), deposit("B", 10), withdraw("A", 5000)));
+
+        assertEquals(4, result.getTotal());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        BatchItemResult last = result.getItems().get(3);
+        assertEquals(3, last.getIndex());
+        assertEquals("FAILED", last.getStatus());
+        assertEquals("INSUFFICIENT_FUNDS", last.getError());
+
+        ArgumentCaptor<List<BalanceDelta>> calls = ArgumentCaptor.forClass(List.class);
+        verify(svc, atLeastOnce()).updateBalances(anyString(), calls.capture());
+        List<Long> forA = calls.getAllValues().stream().flatMap(List::stream)
+                .filter(d -> "A".equals(d.getAccountNumber()))
+                .map(BalanceDelta::getAmount)
+                .toList();
+        assertEquals(List.of(100L, -50L, -5000L), forA);
+        verify(svc, never()).deposit(anyString(), anyLong());
+        verify(svc, never()).withdraw(anyString(), anyLong());
+        verify(outbox, times(3)).queue(any());
+        // the notifications are written by the same bulk status update as the records
+        verify(recorder, atLeastOnce()).completeAll(argThat(l -> l.stream()
+                .allMatch(tx -> "SUCCESS".equals(tx.getStatus()) == (tx.getOutbox() != null))));
+    }
+
+    @Test
+    void accountsLinkedByTransfer_runSequentiallyThroughTransactionService() {
+        when(svc.deposit(anyString(), anyLong())).thenReturn(done("T1", "SUCCESS"));
+        when(svc.transfer(anyString(), anyString(), anyLong())).thenReturn(done("T2", "SUCCESS"));
+        when(svc.withdraw(anyString(), anyLong())).thenReturn(done("T3", "FAILED"));
+        when(svc.updateBalances(anyString(), anyList()))
+                .thenReturn(List.of(new BalanceDeltaResult("Z", 7L, "APPLIED")));
+
+        BatchResult result = service.submit(List.of(
+                deposit("A", 100), transfer("A", "B", 80), deposit("Z", 7), withdraw("B", 30)));
+
+        InOrder order = inOrder(svc);
+        order.verify(svc).deposit("A", 100);
+        order.verify(svc).transfer("A", "B", 80);
+        order.verify(svc).withdraw("B", 30);
+        verify(svc).updateBalances(anyString(), argThat(l -> l.size() == 1 && "Z".equals(l.get(0).getAccountNumber())));
+        assertEquals(List.of("SUCCESS", "SUCCESS", "SUCCESS", "FAILED"),
+                result.getItems().stream().map(BatchItemResult::getStatus).toList());
+    }
+
+    @Test
+    void circuitOpen_failsTheChunk() {
+        when(svc.updateBalances(anyString(), anyList()))
+                .thenThrow(CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("account")));
+
+        BatchResult result = service.submit(List.of(deposit("A", 1), withdraw("A", 2)));
+
+        assertEquals(2, result.getFailed());
+        verify(svc, times(1)).updateBalances(anyString(), anyList());
+        verify(recorder, atLeastOnce()).completeAll(argThat(l -> l.stream().allMatch(tx -> "FAILED".equals(tx.getStatus()))));
+        verify(outbox, never()).queue(any());
+    }
+
+    @Test
+    void noAnswer_isRetriedWithTheSameBatchId() {
+        when(svc.updateBalances(anyString(), anyList()))
+                .thenThrow(new RuntimeException("Read timed out"))
+                .thenReturn(List.of(new BalanceDeltaResult("A", 1L, "APPLIED")));
+
+        BatchResult result = service.submit(List.of(deposit("A", 1)));
+
+        assertEquals(1, result.getSucceeded());
+        ArgumentCaptor<String> batchIds = ArgumentCaptor.forClass(String.class);
+        verify(svc, times(2)).updateBalances(batchIds.capture(), anyList());
+        assertEquals(batchIds.getAllValues().get(0), batchIds.getAllValues().get(1));
+        verify(outbox).queue(any());
+    }
+
+    @Test
+    void stillNoAnswer_recordsTheChunkUnknown_notFailed() {
+        when(svc.updateBalances(anyString(), anyList())).thenThrow(new RuntimeException("Read timed out"));
+
+        BatchResult result = service.submit(List.of(deposit("A", 1), withdraw("A", 2)));
+
+        assertEquals(2, result.getUnknown());
+        assertEquals(0, result.getFailed());
+        assertTrue(result.getItems().stream().allMatch(i -> "UNKNOWN".equals(i.getStatus())));
+        verify(recorder).completeAll(argThat(l -> l.stream().allMatch(tx -> "UNKNOWN".equals(tx.getStatus())
+                && tx.getBatchId() != null && tx.getOutbox() == null)));
+        verify(outbox, never()).queue(any());
+    }
+
+    @Test
+    void chunkSizeAndConcurrency_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TransactionBatchService(
+                svc, recorder, outbox, new SnowflakeIdGenerator(1), 100, 0, 2, false));
+        assertThrows(IllegalArgumentException.class, () -> new TransactionBatchService(
+                svc, recorder, outbox, new SnowflakeIdGenerator(1), 100, 500, 0, false));
+    }
+
+    @Test
+    void invalidItems_areRejected_andOversizedBatchesRefused() {
+        BatchResult result = service.submit(List.of(
+                new BatchItem("REFUND", "A", null, null, 1L),
+                deposit("A", 0),
+                transfer("A", "A", 5)));
+
+        assertEquals(3, result.getRejected());
+        assertEquals("Unsupported type: REFUND", result.getItems().get(0).getError());
+        verifyNoInteractions(svc, recorder);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit(Collections.nCopies(101, deposit("A", 1))));
+    }
+}
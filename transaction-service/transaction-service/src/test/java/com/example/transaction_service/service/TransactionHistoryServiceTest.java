@@ -0,0 +1,67 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.dto.TransactionPage;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.HistoryPosition;
+import com.example.transaction_service.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionHistoryServiceTest {
+
+    private TransactionRepository txRepo;
+    private TransactionHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock(TransactionRepository.class);
+        service = new TransactionHistoryService(txRepo);
+    }
+
+    private static TransactionRecord tx(String id, long millis, String src, String dst) {
+        TransactionRecord tx = new TransactionRecord("TXN-" + id, "TRANSFER", 1L, src, dst, "SUCCESS", Instant.ofEpochMilli(millis));
+        tx.setId(id);
+        return tx;
+    }
+
+    private static TransactionFilter filter(String account) {
+        TransactionFilter f = new TransactionFilter();
+        f.setAccount(account);
+        return f;
+    }
+
+    @Test
+    void history_mergesBothSidesNewestFirst_andReturnsCursor() {
+        when(txRepo.findHistory(eq("sourceAccount"), any(), isNull(), eq(3)))
+                .thenReturn(List.of(tx("a5", 500, "A", "B"), tx("a2", 200, "A", "C")));
+        when(txRepo.findHistory(eq("destinationAccount"), any(), isNull(), eq(3)))
+                .thenReturn(List.of(tx("a4", 400, "D", "A"), tx("a3", 200, "E", "A"), tx("a1", 100, "F", "A")));
+
+        TransactionPage page = service.history(filter("A"), null, 3);
+
+        assertEquals(List.of("a5", "a4", "a3"), page.getItems().stream().map(TransactionRecord::getId).toList());
+        HistoryPosition next = TransactionHistoryService.decodeCursor(page.getNextCursor());
+        assertEquals(Instant.ofEpochMilli(200), next.getTimestamp());
+        assertEquals("a3", next.getId());
+    }
+
+    @Test
+    void history_lastPage_hasNoCursor() {
+        when(txRepo.findHistory(anyString(), any(), any(), anyInt())).thenReturn(List.of());
+        assertNull(service.history(filter("A"), null, 10).getNextCursor());
+    }
+
+    @Test
+    void history_requiresAccount_andValidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> service.history(filter(null), null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.history(filter("A"), "not-a-cursor", 10));
+    }
+}
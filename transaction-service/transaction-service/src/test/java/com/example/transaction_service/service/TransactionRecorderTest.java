@@ -0,0 +1,97 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.StatusChange;
+import com.example.transaction_service.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionRecorderTest {
+
+    private TransactionRepository txRepo;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock(TransactionRepository.class);
+        when(txRepo.insert(any(TransactionRecord.class))).thenAnswer(inv -> {
+            TransactionRecord tx = inv.getArgument(0);
+            tx.setId("id-" + tx.getTransactionId());
+            return tx;
+        });
+    }
+
+    private TransactionRecorder recorder(String mode) {
+        SpoolingRecordWriter writer = new SpoolingRecordWriter(txRepo, new SimpleMeterRegistry(), false, null,
+                DataSize.ofMegabytes(1), 1, false, Duration.ofSeconds(1), 100);
+        return new TransactionRecorder(writer, new SimpleMeterRegistry(), mode, 100, 10, Duration.ofHours(1));
+    }
+
+    private static TransactionRecord tx(String id) {
+        return new TransactionRecord(id, "DEPOSIT", 100L, null, "ACC1", null, Instant.now());
+    }
+
+    @Test
+    void syncMode_insertsOnce_thenGuardedStatusUpdate() {
+        TransactionRecorder recorder = recorder("sync");
+        TransactionRecord tx = recorder.begin(tx("T1"));
+        assertEquals("PENDING", tx.getStatus());
+
+        tx.setStatus("SUCCESS");
+        new NotificationOutbox().queue(tx);
+        recorder.complete(tx);
+
+        verify(txRepo, times(1)).insert(any(TransactionRecord.class));
+        // the notification is set by the same update
+        verify(txRepo).updateStatus(argThat(c -> c.getId().equals("id-T1") && c.getNewStatus().equals("SUCCESS")
+                && c.getOutbox() != null));
+        verify(txRepo, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backgroundMode_writesStatusesInOneBulkUpdateOnShutdown() {
+        TransactionRecorder recorder = recorder("background");
+        for (String id : List.of("T1", "T2", "T3")) {
+            TransactionRecord tx = recorder.begin(tx(id));
+            tx.setStatus("SUCCESS");
+            recorder.complete(tx);
+        }
+        verify(txRepo, never()).updateStatuses(anyList());
+
+        recorder.shutdown();
+
+        ArgumentCaptor<List<StatusChange>> captor = ArgumentCaptor.forClass(List.class);
+        verify(txRepo, times(1)).updateStatuses(captor.capture());
+        assertEquals(List.of("id-T1", "id-T2", "id-T3"), captor.getValue().stream().map(StatusChange::getId).toList());
+        verify(txRepo, never()).updateStatus(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeBehindMode_queuesOnlyTheFinalRecord_andDrainsOnShutdown() {
+        TransactionRecorder recorder = recorder("write-behind");
+        TransactionRecord tx = recorder.begin(tx("T1"));
+        assertNotNull(tx.getId());
+        tx.setStatus("SUCCESS");
+        recorder.complete(tx);
+        verifyNoInteractions(txRepo);
+
+        recorder.shutdown();
+
+        ArgumentCaptor<List<TransactionRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(txRepo, times(1)).insertIgnoringDuplicates(captor.capture());
+        assertEquals("SUCCESS", captor.getValue().get(0).getStatus());
+        verify(txRepo, never()).insert(any(TransactionRecord.class));
+    }
+}
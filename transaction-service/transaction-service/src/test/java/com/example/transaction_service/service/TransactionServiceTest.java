@@ -2,9 +2,11 @@ package com.example.transaction_service.service;
 
 
 import com.example.transaction_service.client.AccountClient;
-import com.example.transaction_service.client.NotificationClient;
+import com.example.transaction_service.dto.AccountView;
+import com.example.transaction_service.dto.BalanceUpdateRequest;
+import com.example.transaction_service.dto.TransferRequest;
+import com.example.transaction_service.dto.TransferResult;
 import com.example.transaction_service.model.TransactionRecord;
-import com.example.transaction_service.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -20,13 +22,19 @@ import static org.mockito.Mockito.*;
 class TransactionServiceTest {
 
     @Mock
-    private TransactionRepository txRepo;
+    private TransactionRecorder recorder;
 
     @Mock
     private AccountClient accountClient;
 
+    @Spy
+    private NotificationOutbox outbox = new NotificationOutbox();
+
+    @Spy
+    private TransactionIdGenerator ids = new SnowflakeIdGenerator(1);
+
     @Mock
-    private NotificationClient notificationClient;
+    private AccountStatusCache statuses;
 
     @InjectMocks
     private TransactionService svc;
@@ -36,97 +44,100 @@ class TransactionServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
-    // helper to capture saved tx
-    private TransactionRecord captureSavedTx() {
+    // helper to capture the completed tx
+    private TransactionRecord captureCompletedTx() {
         ArgumentCaptor<TransactionRecord> captor = ArgumentCaptor.forClass(TransactionRecord.class);
-        verify(txRepo, atLeastOnce()).save(captor.capture());
+        verify(recorder, atLeastOnce()).complete(captor.capture());
         return captor.getValue();
     }
 
     @Test
     void deposit_success_callsAccountAndNotification_andMarksSuccess() {
         // arrange
-        when(txRepo.save(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
-        // accountClient.updateBalance returns a Map (simulate success)
-        when(accountClient.updateBalance(eq("ACC100"), anyMap()))
-                .thenReturn(Map.of("accountNumber","ACC100","balance",1200.0));
-        when(notificationClient.sendNotification(anyMap())).thenReturn("SENT");
+        when(recorder.begin(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        // accountClient.updateBalance returns the updated account (simulate success)
+        when(accountClient.updateBalance(eq("ACC100"), any(BalanceUpdateRequest.class)))
+                .thenReturn(new AccountView("ACC100", "Rohit", 1200L, true));
 
         // act
-        TransactionRecord tx = svc.deposit("ACC100", 200.0);
+        TransactionRecord tx = svc.deposit("ACC100", 200L);
 
         // assert
         assertEquals("DEPOSIT", tx.getType());
         assertEquals("SUCCESS", tx.getStatus());
-        verify(accountClient, times(1)).updateBalance(eq("ACC100"), anyMap());
-        verify(notificationClient, times(1)).sendNotification(anyMap());
-        verify(txRepo, atLeastOnce()).save(any(TransactionRecord.class));
+        verify(accountClient, times(1)).updateBalance(eq("ACC100"), any(BalanceUpdateRequest.class));
+        verify(outbox, times(1)).queue(tx);
+        // one insert of the PENDING record, one status update that also stores the notification
+        verify(recorder, times(1)).begin(any(TransactionRecord.class));
+        verify(recorder, times(1)).complete(tx);
+        assertNotNull(tx.getOutbox());
+    }
+
+    @Test
+    void deposit_knownMissingAccount_isRefusedBeforeAnyWriteOrCall() {
+        doThrow(new AccountRejectedException("Account not found: ACC404")).when(statuses).check("ACC404");
+
+        assertThrows(AccountRejectedException.class, () -> svc.deposit("ACC404", 100L));
+
+        verifyNoInteractions(recorder, accountClient, outbox);
     }
 
     @Test
     void deposit_accountClientThrows_marksFailed() {
-        when(txRepo.save(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(accountClient.updateBalance(eq("ACC101"), anyMap())).thenThrow(new RuntimeException("down"));
+        when(recorder.begin(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountClient.updateBalance(eq("ACC101"), any(BalanceUpdateRequest.class))).thenThrow(new RuntimeException("down"));
 
-        TransactionRecord tx = svc.deposit("ACC101", 100.0);
+        TransactionRecord tx = svc.deposit("ACC101", 100L);
 
         assertEquals("FAILED", tx.getStatus());
-        verify(accountClient, times(1)).updateBalance(eq("ACC101"), anyMap());
-        verify(notificationClient, never()).sendNotification(anyMap());
+        assertSame(tx, captureCompletedTx());
+        verify(accountClient, times(1)).updateBalance(eq("ACC101"), any(BalanceUpdateRequest.class));
+        verify(outbox, never()).queue(any());
+        assertNull(tx.getOutbox());
     }
 
     @Test
     void withdraw_success_marksSuccess_andNotifies() {
-        when(txRepo.save(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(accountClient.updateBalance(eq("ACC200"), anyMap())).thenReturn(Map.of("accountNumber","ACC200","balance",300.0));
-        when(notificationClient.sendNotification(anyMap())).thenReturn("SENT");
+        when(recorder.begin(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountClient.updateBalance(eq("ACC200"), any(BalanceUpdateRequest.class))).thenReturn(new AccountView("ACC200", "Rohit", 300L, true));
 
-        TransactionRecord tx = svc.withdraw("ACC200", 100.0);
+        TransactionRecord tx = svc.withdraw("ACC200", 100L);
 
         assertEquals("WITHDRAW", tx.getType());
         assertEquals("SUCCESS", tx.getStatus());
-        verify(accountClient).updateBalance(eq("ACC200"), anyMap());
-        verify(notificationClient).sendNotification(anyMap());
+        verify(accountClient).updateBalance(eq("ACC200"), any(BalanceUpdateRequest.class));
+        verify(outbox).queue(tx);
     }
 
     @Test
-    void transfer_success_callsBothAccounts_andNotifies() {
-        when(txRepo.save(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
-        // withdraw from source success
-        when(accountClient.updateBalance(eq("SRC"), anyMap())).thenReturn(Map.of("accountNumber","SRC","balance",800.0));
-        // deposit to dest success
-        when(accountClient.updateBalance(eq("DST"), anyMap())).thenReturn(Map.of("accountNumber","DST","balance",1200.0));
-        when(notificationClient.sendNotification(anyMap())).thenReturn("SENT");
+    void transfer_success_makesOneAccountCall_andNotifies() {
+        when(recorder.begin(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountClient.transfer(any(TransferRequest.class))).thenReturn(new TransferResult("SRC", "DST", 200L, 800L, 1200L));
 
-        TransactionRecord tx = svc.transfer("SRC", "DST", 200.0);
+        TransactionRecord tx = svc.transfer("SRC", "DST", 200L);
 
         assertEquals("TRANSFER", tx.getType());
         assertEquals("SUCCESS", tx.getStatus());
-        // verify first withdraw then deposit called
-        InOrder inOrder = inOrder(accountClient);
-        inOrder.verify(accountClient).updateBalance(eq("SRC"), anyMap());
-        inOrder.verify(accountClient).updateBalance(eq("DST"), anyMap());
-        verify(notificationClient).sendNotification(anyMap());
+        verify(accountClient, times(1)).transfer(argThat(body ->
+                "SRC".equals(body.getSourceAccount()) && "DST".equals(body.getDestinationAccount())
+                        && Long.valueOf(200L).equals(body.getAmount())));
+        verify(accountClient, never()).updateBalance(anyString(), any(BalanceUpdateRequest.class));
+        verify(outbox).queue(tx);
     }
 
     @Test
-    void transfer_destinationFails_compensatesAndMarksFailed() {
-        when(txRepo.save(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
-        // withdraw from source success
-        when(accountClient.updateBalance(eq("SRC2"), anyMap())).thenReturn(Map.of("accountNumber","SRC2","balance",800.0));
-        // deposit to dest fails
-        when(accountClient.updateBalance(eq("DST2"), anyMap())).thenThrow(new RuntimeException("dest down"));
-        // refund (compensation) should be attempted - simulate success
-        when(accountClient.updateBalance(eq("SRC2"), argThat(map -> map.get("amount") != null))).thenReturn(Map.of("accountNumber","SRC2","balance",1000.0));
+    void transfer_rejectedByAccountService_marksFailed_withoutCompensation() {
+        when(recorder.begin(any(TransactionRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountClient.transfer(any(TransferRequest.class))).thenThrow(new RuntimeException("Insufficient funds"));
 
-        TransactionRecord tx = svc.transfer("SRC2", "DST2", 200.0);
+        TransactionRecord tx = svc.transfer("SRC2", "DST2", 200L);
 
         assertEquals("FAILED", tx.getStatus());
-        // withdraw called once, deposit called once, refund called at least once
-        verify(accountClient, times(1)).updateBalance(eq("SRC2"), anyMap());
-        verify(accountClient, times(1)).updateBalance(eq("DST2"), anyMap());
-        // compensation attempt (deposit back to source) was performed - at least one more call for refund
-        verify(accountClient, atLeast(2)).updateBalance(eq("SRC2"), anyMap());
+        verify(accountClient, times(1)).transfer(any(TransferRequest.class));
+        // account-service refunds a rejected credit itself; no compensating call from here
+        verify(accountClient, never()).updateBalance(anyString(), any(BalanceUpdateRequest.class));
+        verify(outbox, never()).queue(any());
+        assertNull(tx.getOutbox());
     }
 }
 
@@ -0,0 +1,123 @@
+package com.example.transaction_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionSpoolTest {
+
+    @TempDir
+    Path dir;
+
+    private TransactionSpool open() {
+        return new TransactionSpool(dir, 48, 8, false);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(TransactionSpool.Batch batch) {
+        return batch.entries().stream().map(b -> new String(b, StandardCharsets.UTF_8)).toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).count();
+        }
+    }
+
+    @Test
+    void readsInOrderAcrossSegments_andCommitDeletesSegmentsBehindTheCheckpoint() throws IOException {
+        TransactionSpool spool = open();
+        for (int i = 0; i < 10; i++) {
+            spool.append(bytes("entry-" + i)); // 15 bytes each, 3 per 48-byte segment
+        }
+        assertEquals(4, spool.segmentCount());
+        assertEquals(10, spool.pending());
+
+        TransactionSpool.Batch first = spool.read(7);
+        assertEquals(List.of("entry-0", "entry-1", "entry-2", "entry-3", "entry-4", "entry-5", "entry-6"), strings(first));
+        assertEquals(strings(first), strings(spool.read(7))); // not consumed until committed
+
+        spool.commit(first);
+        assertEquals(3, spool.pending());
+        assertEquals(2, segmentFiles());
+        assertEquals(List.of("entry-7", "entry-8", "entry-9"), strings(spool.read(100)));
+    }
+
+    @Test
+    void reopening_resumesAtTheCheckpoint_andAppendsAfterTheLastEntry() {
+        TransactionSpool spool = open();
+        spool.append(bytes("a"));
+        spool.append(bytes("b"));
+        spool.commit(spool.read(1));
+        spool.close();
+
+        TransactionSpool reopened = open();
+        assertEquals(1, reopened.pending());
+        reopened.append(bytes("c"));
+        assertEquals(List.of("b", "c"), strings(reopened.read(100)));
+    }
+
+    @Test
+    void entryWithABadChecksum_isTreatedAsTheEndOfTheSpool() throws IOException {
+        TransactionSpool spool = open();
+        spool.append(bytes("good"));
+        spool.append(bytes("torn"));
+        spool.close();
+
+        // flip one payload byte of the second entry, as a write cut short by a crash would leave it
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(p -> p.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {'X'}), TransactionSpool.HEADER + 4 + TransactionSpool.HEADER);
+        }
+
+        TransactionSpool reopened = open();
+        assertEquals(List.of("good"), strings(reopened.read(100)));
+        reopened.append(bytes("next"));
+        assertEquals(List.of("good", "next"), strings(reopened.read(100)));
+    }
+
+    @Test
+    void refusesToGrowPastMaxSegments() {
+        TransactionSpool spool = new TransactionSpool(dir, 48, 2, false);
+        for (int i = 0; i < 6; i++) {
+            spool.append(bytes("entry-" + i));
+        }
+        assertThrows(SpoolFullException.class, () -> spool.append(bytes("entry-6")));
+    }
+
+    @Test
+    void concurrentForcedAppends_allReachTheSpool() throws Exception {
+        TransactionSpool spool = new TransactionSpool(dir, 4096, 64, true);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                String entry = "entry-" + i;
+                pool.submit(() -> spool.append(bytes(entry)));
+            }
+        }
+        spool.close();
+
+        List<String> read = strings(new TransactionSpool(dir, 4096, 64, true).read(1000));
+        assertEquals(200, read.size());
+        assertEquals(200, Set.copyOf(read).size());
+    }
+}
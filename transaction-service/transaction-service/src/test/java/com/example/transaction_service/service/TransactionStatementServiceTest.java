@@ -0,0 +1,125 @@
+package com.example.transaction_service.service;
+
+import com.example.transaction_service.dto.TransactionFilter;
+import com.example.transaction_service.model.TransactionRecord;
+import com.example.transaction_service.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionStatementServiceTest {
+
+    private TransactionRepository txRepo;
+    private TransactionStatementService service;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock(TransactionRepository.class);
+        service = new TransactionStatementService(txRepo, new ObjectMapper());
+    }
+
+    private static TransactionRecord tx(String id, long millis, String type, long amount,
+                                        String src, String dst, String status) {
+        TransactionRecord tx = new TransactionRecord("TXN-" + id, type, amount, src, dst, status, Instant.ofEpochMilli(millis));
+        tx.setId(id);
+        return tx;
+    }
+
+    private static TransactionFilter filter(String account) {
+        TransactionFilter f = new TransactionFilter();
+        f.setAccount(account);
+        return f;
+    }
+
+    private void givenHistory() {
+        when(txRepo.streamHistory(eq("sourceAccount"), any())).thenReturn(Stream.of(
+                tx("a2", 200, "WITHDRAW", 300, "A", null, "SUCCESS"),
+                tx("a4", 400, "TRANSFER", 5000, "A", "B", "FAILED")));
+        when(txRepo.streamHistory(eq("destinationAccount"), any())).thenReturn(Stream.of(
+                tx("a1", 100, "DEPOSIT", 1000, null, "A", "SUCCESS"),
+                tx("a3", 300, "TRANSFER", 250, "C", "A", "SUCCESS")));
+    }
+
+    @Test
+    void csv_mergesBothSidesOldestFirst_withRunningBalance() throws Exception {
+        givenHistory();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.write(filter("A"), TransactionStatementService.Format.CSV, 50, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(TransactionStatementService.CSV_HEADER, lines.get(0));
+        assertEquals(List.of(
+                "1970-01-01T00:00:00.100Z,TXN-a1,DEPOSIT,CREDIT,1000,,SUCCESS,1050",
+                "1970-01-01T00:00:00.200Z,TXN-a2,WITHDRAW,DEBIT,300,,SUCCESS,750",
+                "1970-01-01T00:00:00.300Z,TXN-a3,TRANSFER,CREDIT,250,C,SUCCESS,1000",
+                "1970-01-01T00:00:00.400Z,TXN-a4,TRANSFER,DEBIT,5000,B,FAILED,1000"), lines.subList(1, lines.size()));
+    }
+
+    @Test
+    void ndjson_gzip_roundTrips() throws Exception {
+        givenHistory();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.write(filter("A"), TransactionStatementService.Format.NDJSON, 0, true, out);
+
+        byte[] plain = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        List<String> lines = new String(plain, StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, lines.size());
+        JsonNode last = new ObjectMapper().readTree(lines.get(3));
+        assertEquals("TXN-a4", last.get("transactionId").asText());
+        assertEquals("DEBIT", last.get("direction").asText());
+        assertEquals(950, last.get("balance").asLong());
+    }
+
+    @Test
+    void selfTransfer_onBothCursors_isWrittenOnce() throws Exception {
+        TransactionRecord self = tx("a1", 100, "TRANSFER", 10, "A", "A", "SUCCESS");
+        when(txRepo.streamHistory(eq("sourceAccount"), any())).thenReturn(Stream.of(self));
+        when(txRepo.streamHistory(eq("destinationAccount"), any())).thenReturn(Stream.of(self));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.write(filter("A"), TransactionStatementService.Format.CSV, 5, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).endsWith(",SUCCESS,5"));
+    }
+
+    @Test
+    void validate_requiresAccountAndOrderedRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.validate(filter(" ")));
+        TransactionFilter f = filter("A");
+        f.setFrom(Instant.ofEpochMilli(200));
+        f.setTo(Instant.ofEpochMilli(100));
+        assertThrows(IllegalArgumentException.class, () -> service.validate(f));
+        assertThrows(IllegalArgumentException.class, () -> TransactionStatementService.Format.parse("xml"));
+        verifyNoInteractions(txRepo);
+    }
+
+    @Test
+    void validate_refusesTypeAndStatusFilters_thatWouldSkipRowsOfTheRunningBalance() {
+        TransactionFilter byType = filter("A");
+        byType.setType("DEPOSIT");
+        TransactionFilter byStatus = filter("A");
+        byStatus.setStatus("SUCCESS");
+
+        assertThrows(IllegalArgumentException.class, () -> service.validate(byType));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.write(byStatus, TransactionStatementService.Format.CSV, 0, false, new ByteArrayOutputStream()));
+        verifyNoInteractions(txRepo);
+    }
+}